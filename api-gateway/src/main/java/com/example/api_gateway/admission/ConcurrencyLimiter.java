@@ -0,0 +1,153 @@
+package com.example.api_gateway.admission;
+
+import com.example.api_gateway.config.AdmissionProperties;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gradient concurrency limit, after Netflix's Gradient2: the limit follows
+ * the ratio of long-term to recent latency. While latency holds steady the
+ * limit grows by about its square root per window; when latency rises above
+ * the long-term level by more than the tolerance, the limit shrinks in
+ * proportion.
+ * <p>
+ * Routes differ in latency by orders of magnitude (a token refresh versus an
+ * agent itinerary), so the long-term latency is tracked per route and each
+ * sample contributes the ratio of its route's long-term latency to its own.
+ */
+public class ConcurrencyLimiter {
+
+    /**
+     * Time constant of a route's long-term latency. Averaging over time
+     * rather than over a sample count keeps a traffic spike from quickly
+     * making its own queueing delay look normal.
+     */
+    private static final double LONG_TERM_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final long windowNanos;
+    private final int windowMinSamples;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final Map<String, RouteLatency> routes = new ConcurrentHashMap<>();
+
+    private volatile double limit;
+
+    // Current sampling window, guarded by this
+    private long windowEnd;
+    private double ratioSum;
+    private int samples;
+    private int maxInflight;
+
+    public ConcurrencyLimiter(AdmissionProperties properties) {
+        this.limit = properties.getInitialLimit();
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.tolerance = properties.getLatencyTolerance();
+        this.smoothing = properties.getSmoothing();
+        this.windowNanos = properties.getWindow().toNanos();
+        this.windowMinSamples = properties.getWindowMinSamples();
+        this.windowEnd = System.nanoTime() + windowNanos;
+    }
+
+    /**
+     * Admit a request if its class still has room under the limit.
+     *
+     * @param priority the request's admission class
+     * @return whether the request was admitted; admitted requests must be
+     *         released with {@link #release}
+     */
+    public boolean tryAcquire(Priority priority) {
+        int allowed = (int) Math.max(1, limit * priority.share());
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release an admitted request.
+     *
+     * @param routeId   the route served, for its latency baseline
+     * @param startNanos when the request was admitted
+     * @param sample    whether the latency reflects real work (fast-fail
+     *                  responses would only inflate the limit)
+     */
+    public void release(String routeId, long startNanos, boolean sample) {
+        int current = inflight.getAndDecrement();
+        if (!sample) {
+            return;
+        }
+        long now = System.nanoTime();
+        double rtt = Math.max(1, now - startNanos);
+        double baseline = routes.computeIfAbsent(routeId, id -> new RouteLatency(rtt, now)).update(rtt, now);
+        synchronized (this) {
+            ratioSum += baseline / rtt;
+            samples++;
+            maxInflight = Math.max(maxInflight, current);
+            if (now - windowEnd >= 0 && samples >= windowMinSamples) {
+                updateLimit(ratioSum / samples, maxInflight);
+                windowEnd = now + windowNanos;
+                ratioSum = 0;
+                samples = 0;
+                maxInflight = 0;
+            }
+        }
+    }
+
+    private void updateLimit(double ratio, int peakInflight) {
+        double current = limit;
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * ratio));
+        double next;
+        if (peakInflight < current / 2 && gradient >= 1.0) {
+            // Not using the limit, so there is nothing to learn about raising it
+            next = current;
+        } else {
+            next = current * gradient + Math.sqrt(current);
+        }
+        next = current * (1 - smoothing) + next * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private static final class RouteLatency {
+
+        private double longTerm;
+        private long updatedAt;
+
+        private RouteLatency(double first, long now) {
+            this.longTerm = first;
+            this.updatedAt = now;
+        }
+
+        /**
+         * Blend in a sample, weighted by the time since the previous one, and
+         * return the long-term latency it is judged against (the value before
+         * the sample).
+         */
+        synchronized double update(double rtt, long now) {
+            double before = longTerm;
+            double weight = 1 - Math.exp(-Math.max(0, now - updatedAt) / LONG_TERM_NANOS);
+            longTerm += (rtt - longTerm) * weight;
+            updatedAt = now;
+            return before;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.api_gateway.admission;
+
+/**
+ * Admission class of a route. Each class may fill its share of the current
+ * concurrency limit, so as capacity runs short LOW requests are shed first
+ * and CRITICAL requests last.
+ */
+public enum Priority {
+
+    /**
+     * Sign-in, token refresh, payments: admitted up to the full limit.
+     */
+    CRITICAL(1.0),
+
+    /**
+     * Everything else.
+     */
+    NORMAL(0.9),
+
+    /**
+     * Expensive, retryable work such as agent calls and suggestions.
+     */
+    LOW(0.7);
+
+    private final double share;
+
+    Priority(double share) {
+        this.share = share;
+    }
+
+    /**
+     * Fraction of the concurrency limit this class may occupy.
+     */
+    double share() {
+        return share;
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Adaptive concurrency limiting and load shedding at the edge of
+ * api-gateway.
+ */
+package com.example.api_gateway.admission;
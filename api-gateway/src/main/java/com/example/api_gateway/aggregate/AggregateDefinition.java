@@ -0,0 +1,94 @@
+package com.example.api_gateway.aggregate;
+
+import com.example.api_gateway.admission.Priority;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A composite GET endpoint, bound from {@code gateway.aggregates}: every
+ * source is called concurrently and the results are merged into one JSON
+ * object.
+ */
+public class AggregateDefinition {
+
+    /**
+     * Unique aggregate id, used in logs.
+     */
+    private String id;
+
+    /**
+     * Gateway path, e.g. /statistics or /dashboard/{userId}.
+     */
+    private String path;
+
+    /**
+     * Client request headers copied to every source call.
+     */
+    private List<String> forwardHeaders = new ArrayList<>();
+
+    /**
+     * The downstream calls to make.
+     */
+    private List<AggregateSource> sources = new ArrayList<>();
+
+    /**
+     * Admission class when the gateway is short of capacity.
+     */
+    private Priority priority = Priority.NORMAL;
+
+    /**
+     * Path variable naming whom the aggregate is about, e.g. userId. Needed
+     * for sources with a cache-ttl: their fragments are cached per subject
+     * and shared by every caller.
+     */
+    private String subject;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public List<String> getForwardHeaders() {
+        return forwardHeaders;
+    }
+
+    public void setForwardHeaders(List<String> forwardHeaders) {
+        this.forwardHeaders = forwardHeaders;
+    }
+
+    public List<AggregateSource> getSources() {
+        return sources;
+    }
+
+    public void setSources(List<AggregateSource> sources) {
+        this.sources = sources;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.api_gateway.aggregate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One downstream call of an aggregate.
+ */
+public class AggregateSource {
+
+    /**
+     * Source name, used in error reports and as the response key when no
+     * fields are picked.
+     */
+    private String name;
+
+    /**
+     * Eureka service id to call.
+     */
+    private String service;
+
+    /**
+     * Path on the service; may use the aggregate path's variables, e.g.
+     * /api/posts/stats/{userId}.
+     */
+    private String path;
+
+    /**
+     * HTTP method of the call; a POST sends {@code body}.
+     */
+    private String method = "GET";
+
+    /**
+     * JSON body of a POST, with the aggregate path's variables substituted,
+     * e.g. {"user_id":"{userId}"}.
+     */
+    private String body;
+
+    /**
+     * Deadline for this source, counted from the start of the aggregate
+     * request. A source that misses it is reported and left out.
+     */
+    private Duration timeout = Duration.ofSeconds(2);
+
+    /**
+     * Top-level fields copied from the source's JSON response into the
+     * aggregate response. When empty, the whole response is nested under
+     * the source name.
+     */
+    private List<String> fields = new ArrayList<>();
+
+    /**
+     * Field of the source's JSON response to use instead of the whole
+     * response, e.g. data for services wrapping their payload.
+     */
+    private String unwrap;
+
+    /**
+     * How long the source's response is kept as a fragment of the aggregate,
+     * per subject. Not cached when unset. Fragments are shared by every
+     * caller, so a source the service answers only for signed-in callers
+     * must not be cached.
+     */
+    private Duration cacheTtl;
+
+    /**
+     * Routes whose requests drop the cached fragment of their subject: the
+     * caller, or with route-id:variable the value of that path variable,
+     * e.g. users-update:id.
+     */
+    private List<String> invalidatedBy = new ArrayList<>();
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public void setService(String service) {
+        this.service = service;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public List<String> getFields() {
+        return fields;
+    }
+
+    public void setFields(List<String> fields) {
+        this.fields = fields;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public String getUnwrap() {
+        return unwrap;
+    }
+
+    public void setUnwrap(String unwrap) {
+        this.unwrap = unwrap;
+    }
+
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public void setCacheTtl(Duration cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    public List<String> getInvalidatedBy() {
+        return invalidatedBy;
+    }
+
+    public void setInvalidatedBy(List<String> invalidatedBy) {
+        this.invalidatedBy = invalidatedBy;
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.api_gateway.aggregate;
+
+import com.example.api_gateway.client.UpstreamClients;
+import com.example.api_gateway.client.UpstreamInstance;
+import com.example.api_gateway.client.UpstreamInstances;
+import com.example.api_gateway.resilience.ServiceGuard;
+import com.example.api_gateway.resilience.ServiceGuards;
+import com.example.api_gateway.security.EdgeAuthenticator;
+import com.example.api_gateway.security.Identity;
+import com.example.api_gateway.security.IdentityHeaders;
+import com.example.api_gateway.tracing.UpstreamTracing;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.tracing.Span;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.servlet.function.HandlerFunction;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import org.springframework.web.util.UriTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Serves aggregates: all sources are called at once, each is given until
+ * its own deadline, and whatever arrived in time is merged. Failed or late
+ * sources are listed under "errors" and the response is flagged "partial";
+ * only when every source fails does the aggregate fail (502).
+ * <p>
+ * Source calls are blocking and run on virtual threads. A source that
+ * misses its deadline is interrupted, which closes its socket.
+ * <p>
+ * The bearer token, when forwarded, is verified once per aggregate and every
+ * source receives the same signed identity headers. Each source call is a
+ * client span under the aggregate request's span.
+ * <p>
+ * Sources with a cache-ttl are answered from the {@link FragmentCache} when
+ * it holds their fragment of the aggregate's subject.
+ */
+public class Aggregator implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(Aggregator.class);
+
+    private final UpstreamInstances upstreamInstances;
+    private final UpstreamClients upstreamClients;
+    private final ServiceGuards serviceGuards;
+    private final ObjectMapper objectMapper;
+    private final EdgeAuthenticator edgeAuthenticator;
+    private final UpstreamTracing upstreamTracing;
+    private final FragmentCache fragmentCache;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public Aggregator(UpstreamInstances upstreamInstances, UpstreamClients upstreamClients,
+            ServiceGuards serviceGuards, ObjectMapper objectMapper, EdgeAuthenticator edgeAuthenticator,
+            UpstreamTracing upstreamTracing, FragmentCache fragmentCache) {
+        this.upstreamInstances = upstreamInstances;
+        this.upstreamClients = upstreamClients;
+        this.serviceGuards = serviceGuards;
+        this.objectMapper = objectMapper;
+        this.edgeAuthenticator = edgeAuthenticator;
+        this.upstreamTracing = upstreamTracing;
+        this.fragmentCache = fragmentCache;
+    }
+
+    /**
+     * Build the handler for one aggregate. Source paths are parsed here, once.
+     *
+     * @param definition the aggregate
+     * @return a handler serving the aggregate
+     */
+    public HandlerFunction<ServerResponse> handler(AggregateDefinition definition) {
+        if (definition.getSources().isEmpty()) {
+            throw new IllegalArgumentException("Aggregate " + definition.getId() + " has no sources");
+        }
+        List<Source> sources = new ArrayList<>();
+        for (AggregateSource source : definition.getSources()) {
+            if (source.getName() == null || source.getService() == null || source.getPath() == null) {
+                throw new IllegalArgumentException("Aggregate " + definition.getId()
+                        + " has a source without name, service or path");
+            }
+            HttpMethod method = HttpMethod.valueOf(source.getMethod().toUpperCase(Locale.ROOT));
+            if (method != HttpMethod.GET && method != HttpMethod.POST) {
+                throw new IllegalArgumentException("Aggregate " + definition.getId() + " source "
+                        + source.getName() + " must use GET or POST");
+            }
+            if (source.getCacheTtl() != null) {
+                fragmentCache.register(definition, source);
+            }
+            sources.add(new Source(source, new UriTemplate(source.getPath()), method));
+        }
+        return request -> aggregate(definition, sources, request);
+    }
+
+    private ServerResponse aggregate(AggregateDefinition definition, List<Source> sources, ServerRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : definition.getForwardHeaders()) {
+            if (edgeAuthenticator.isEnabled() && IdentityHeaders.isReserved(name)) {
+                continue;
+            }
+            String value = request.headers().firstHeader(name);
+            if (value != null) {
+                headers.set(name, value);
+            }
+        }
+        Identity identity = edgeAuthenticator.resolve(headers.getFirst(HttpHeaders.AUTHORIZATION));
+        if (identity != null) {
+            identity.forEachHeader(headers::set);
+        }
+        Map<String, String> variables = request.pathVariables();
+        // Source calls run on other threads, which do not see the request's span
+        Span parent = upstreamTracing.currentSpan();
+
+        long start = System.nanoTime();
+        List<Future<JsonNode>> calls = new ArrayList<>(sources.size());
+        for (Source source : sources) {
+            calls.add(executor.submit(() -> cached(definition, source, variables, headers, parent)));
+        }
+
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("success", true);
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (int i = 0; i < sources.size(); i++) {
+            Source source = sources.get(i);
+            Future<JsonNode> call = calls.get(i);
+            long remaining = start + source.definition().getTimeout().toNanos() - System.nanoTime();
+            String error;
+            try {
+                merge(source.definition(), call.get(Math.max(0, remaining), TimeUnit.NANOSECONDS), result);
+                continue;
+            } catch (TimeoutException e) {
+                call.cancel(true);
+                error = "timed out after " + format(source.definition().getTimeout());
+            } catch (ExecutionException e) {
+                error = describe(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                calls.forEach(pending -> pending.cancel(true));
+                error = "interrupted";
+            }
+            logger.warn("Aggregate {}: source {} failed: {}", definition.getId(), source.definition().getName(), error);
+            errors.put(source.definition().getName(), error);
+        }
+
+        if (!errors.isEmpty()) {
+            result.put("partial", true);
+            ObjectNode errorNode = result.putObject("errors");
+            errors.forEach(errorNode::put);
+        }
+        if (errors.size() == sources.size()) {
+            result.put("success", false);
+            result.put("message", "Service temporarily unavailable");
+            return ServerResponse.status(HttpStatus.BAD_GATEWAY).contentType(MediaType.APPLICATION_JSON).body(result);
+        }
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(result);
+    }
+
+    /**
+     * A source's response, from the fragment cache for sources with a
+     * cache-ttl.
+     */
+    private JsonNode cached(AggregateDefinition definition, Source source, Map<String, String> variables,
+            HttpHeaders shared, Span parent) throws IOException {
+        Duration ttl = source.definition().getCacheTtl();
+        if (ttl == null) {
+            return fetch(source, variables, shared, parent);
+        }
+        return fragmentCache.get(definition.getId(), source.definition().getName(),
+                variables.get(definition.getSubject()), ttl, () -> fetch(source, variables, shared, parent));
+    }
+
+    private JsonNode fetch(Source source, Map<String, String> variables, HttpHeaders shared, Span parent)
+            throws IOException {
+        String serviceId = source.definition().getService();
+        UpstreamInstance instance = upstreamInstances.choose(serviceId);
+        if (instance == null) {
+            throw new IllegalStateException(serviceId + " not available in discovery");
+        }
+        URI uri = URI.create(instance.baseUrl() + source.path().expand(variables).toString());
+        ServiceGuard guard = serviceGuards.forService(serviceId);
+        // Every source has its own span, so its trace context needs its own headers
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(shared);
+        String requestBody = null;
+        if (source.definition().getBody() != null) {
+            requestBody = expand(source.definition().getBody(), variables);
+            headers.setContentType(MediaType.APPLICATION_JSON);
+        }
+        // Taken last, so only the span and the instance count run before the try that releases it
+        long guarded = guard.acquire();
+        Span span = upstreamTracing.start(parent, serviceId, instance.id(), source.method().name(),
+                headers, HttpHeaders::set);
+        long start = instance.begin();
+        boolean failed = true;
+        int status = 0;
+        RuntimeException error = null;
+        byte[] body;
+        try {
+            ResponseEntity<byte[]> response = upstreamClients.forService(serviceId)
+                    .exchange(uri, source.method(), new HttpEntity<>(requestBody, headers), byte[].class);
+            body = response.getBody();
+            status = response.getStatusCode().value();
+            failed = false;
+        } catch (HttpStatusCodeException e) {
+            failed = e.getStatusCode().is5xxServerError();
+            status = e.getStatusCode().value();
+            throw e;
+        } catch (RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            upstreamTracing.end(span, status, error);
+            // A source cancelled at its deadline counts as a failure of the instance
+            instance.end(start, failed);
+            guard.release(guarded, failed);
+        }
+        JsonNode json = body != null ? objectMapper.readTree(body) : objectMapper.nullNode();
+        String unwrap = source.definition().getUnwrap();
+        return unwrap != null && json.has(unwrap) ? json.get(unwrap) : json;
+    }
+
+    /**
+     * Substitute the aggregate path's variables into a JSON body template,
+     * escaped as JSON string content.
+     */
+    private static String expand(String template, Map<String, String> variables) {
+        String body = template;
+        for (Map.Entry<String, String> variable : variables.entrySet()) {
+            body = body.replace("{" + variable.getKey() + "}",
+                    new String(JsonStringEncoder.getInstance().quoteAsString(variable.getValue())));
+        }
+        return body;
+    }
+
+    private static void merge(AggregateSource source, JsonNode body, ObjectNode result) {
+        if (source.getFields().isEmpty()) {
+            result.set(source.getName(), body);
+            return;
+        }
+        for (String field : source.getFields()) {
+            JsonNode value = body.get(field);
+            if (value != null) {
+                result.set(field, value);
+            }
+        }
+    }
+
+    private static String describe(Throwable cause) {
+        if (cause instanceof HttpStatusCodeException e) {
+            return "upstream returned " + e.getStatusCode().value();
+        }
+        return String.valueOf(cause.getMessage());
+    }
+
+    private static String format(Duration timeout) {
+        return timeout.toMillis() % 1000 == 0 ? timeout.toSeconds() + "s" : timeout.toMillis() + "ms";
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private record Source(AggregateSource definition, UriTemplate path, HttpMethod method) {
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.api_gateway.aggregate;
+
+import com.example.api_gateway.config.ResponseCacheProperties;
+import com.example.api_gateway.routing.CompiledRoute;
+import com.example.api_gateway.routing.RouteMatch;
+import com.example.api_gateway.routing.RouteTable;
+import com.example.api_gateway.security.EdgeAuthenticator;
+import com.example.api_gateway.security.Identity;
+import com.example.api_gateway.security.IdentityHeaders;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.function.HandlerFilterFunction;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import org.springframework.web.util.UriTemplate;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Caches the responses of aggregate sources with a {@code cache-ttl} as
+ * fragments, one per aggregate, source and subject, each with the TTL of its
+ * source. Fragments are shared by every caller of the aggregate.
+ * <p>
+ * A request to a route listed in a source's {@code invalidated-by} drops
+ * that source's fragment of the request's subject once the route has
+ * answered: the caller for plain route ids, or a path variable of the route
+ * for route-id:variable entries. A fragment loaded while any invalidation
+ * happened is answered but not kept, so a load racing a write cannot put
+ * the old value back.
+ * <p>
+ * Lookups are counted in {@code gateway.aggregate.fragments}, tagged with
+ * the aggregate, the source and a result of hit, miss or invalidated.
+ */
+public class FragmentCache {
+
+    private final boolean enabled;
+    private final Map<String, CompiledRoute> routes = new HashMap<>();
+    private final EdgeAuthenticator edgeAuthenticator;
+    private final MeterRegistry meterRegistry;
+    private final Cache<Fragment, Entry> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Map<String, List<Invalidation>> invalidatedBy = new ConcurrentHashMap<>();
+    private final Map<String, SourceMeters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * Create the cache.
+     *
+     * @param properties        whether and how many fragments are cached
+     * @param routeTable        the routes that may invalidate fragments
+     * @param edgeAuthenticator resolves the caller of an invalidating request
+     * @param meterRegistry     registry for fragment metrics
+     */
+    public FragmentCache(ResponseCacheProperties properties, RouteTable routeTable,
+            EdgeAuthenticator edgeAuthenticator, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        for (CompiledRoute route : routeTable.getRoutes()) {
+            routes.put(route.getId(), route);
+        }
+        this.edgeAuthenticator = edgeAuthenticator;
+        this.meterRegistry = meterRegistry;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxFragments())
+                .expireAfter(new Expiry<Fragment, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Fragment key, Entry entry, long currentTime) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Fragment key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(Fragment key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        Gauge.builder("gateway.aggregate.fragments.entries", cache, Cache::estimatedSize)
+                .description("Aggregate fragments held by the gateway")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Declare a cached source, checking that its aggregate has a subject and
+     * that the routes invalidating it exist.
+     *
+     * @param aggregate the aggregate
+     * @param source    a source of it with a cache-ttl
+     * @throws IllegalArgumentException if the declaration is inconsistent
+     */
+    public void register(AggregateDefinition aggregate, AggregateSource source) {
+        List<String> variables = new UriTemplate(aggregate.getPath()).getVariableNames();
+        if (aggregate.getSubject() == null || !variables.equals(List.of(aggregate.getSubject()))) {
+            throw new IllegalArgumentException("Aggregate " + aggregate.getId() + " caches source "
+                    + source.getName() + ", so its path must have exactly one variable, its subject");
+        }
+        for (String entry : source.getInvalidatedBy()) {
+            int colon = entry.indexOf(':');
+            String routeId = colon >= 0 ? entry.substring(0, colon) : entry;
+            String variable = colon >= 0 ? entry.substring(colon + 1) : null;
+            CompiledRoute route = routes.get(routeId);
+            if (route == null || (variable != null && !route.getVariableNames().contains(variable))) {
+                throw new IllegalArgumentException("Aggregate " + aggregate.getId() + " source " + source.getName()
+                        + " is invalidated by unknown route or variable " + entry);
+            }
+            invalidatedBy.computeIfAbsent(routeId, id -> new CopyOnWriteArrayList<>())
+                    .add(new Invalidation(aggregate.getId(), source.getName(), variable));
+        }
+    }
+
+    /**
+     * A source's fragment of a subject, loaded when missing.
+     *
+     * @param aggregateId the aggregate
+     * @param source      the source
+     * @param subject     whom the fragment is about
+     * @param ttl         how long a loaded fragment is kept
+     * @param loader      calls the source
+     * @return the fragment
+     * @throws IOException if the loader fails to read the source's response
+     */
+    public JsonNode get(String aggregateId, String source, String subject, Duration ttl, Loader loader)
+            throws IOException {
+        if (!enabled) {
+            return loader.load();
+        }
+        Fragment key = new Fragment(aggregateId, source, subject);
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null) {
+            meters(aggregateId, source).hit().increment();
+            return entry.value();
+        }
+        meters(aggregateId, source).miss().increment();
+        long epoch = invalidations.get();
+        JsonNode value = loader.load();
+        if (invalidations.get() == epoch) {
+            cache.put(key, new Entry(value, ttl.toNanos()));
+        }
+        return value;
+    }
+
+    /**
+     * Filter dropping the fragments a route-table request invalidates, once
+     * the request has been answered.
+     *
+     * @param match the route match of a request
+     * @return the invalidation filter
+     */
+    public HandlerFilterFunction<ServerResponse, ServerResponse> filter(Function<ServerRequest, RouteMatch> match) {
+        if (!enabled) {
+            return (request, next) -> next.handle(request);
+        }
+        return (request, next) -> {
+            try {
+                return next.handle(request);
+            } finally {
+                written(match.apply(request), name -> request.headers().firstHeader(name));
+            }
+        };
+    }
+
+    /**
+     * Drop the fragments a request to a route invalidates.
+     *
+     * @param match  the route match of the request
+     * @param header looks up a request header by name
+     */
+    public void written(RouteMatch match, UnaryOperator<String> header) {
+        List<Invalidation> invalidations = invalidatedBy.get(match.route().getId());
+        if (invalidations == null) {
+            return;
+        }
+        for (Invalidation invalidation : invalidations) {
+            String subject = invalidation.variable() != null
+                    ? UriUtils.decode(match.variable(invalidation.variable()), StandardCharsets.UTF_8)
+                    : caller(header);
+            if (subject == null) {
+                continue;
+            }
+            this.invalidations.incrementAndGet();
+            cache.invalidate(new Fragment(invalidation.aggregate(), invalidation.source(), subject));
+            meters(invalidation.aggregate(), invalidation.source()).invalidated().increment();
+        }
+    }
+
+    /**
+     * The caller of a request: the verified token's subject, or the user id
+     * header when tokens are not verified at the edge.
+     */
+    private String caller(UnaryOperator<String> header) {
+        Identity identity = edgeAuthenticator.resolve(header.apply(HttpHeaders.AUTHORIZATION));
+        return identity != null ? identity.userId() : header.apply(IdentityHeaders.USER_ID);
+    }
+
+    private SourceMeters meters(String aggregateId, String source) {
+        return meters.computeIfAbsent(aggregateId + '/' + source, id -> new SourceMeters(
+                counter(aggregateId, source, "hit"), counter(aggregateId, source, "miss"),
+                counter(aggregateId, source, "invalidated")));
+    }
+
+    private Counter counter(String aggregateId, String source, String result) {
+        return Counter.builder("gateway.aggregate.fragments")
+                .description("Lookups and invalidations of cached aggregate fragments")
+                .tag("aggregate", aggregateId)
+                .tag("source", source)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Calls an aggregate source.
+     */
+    @FunctionalInterface
+    public interface Loader {
+
+        /**
+         * Call the source.
+         *
+         * @return its response
+         * @throws IOException if the response cannot be read
+         */
+        JsonNode load() throws IOException;
+    }
+
+    private record Fragment(String aggregate, String source, String subject) {
+    }
+
+    private record Entry(JsonNode value, long ttlNanos) {
+    }
+
+    private record Invalidation(String aggregate, String source, String variable) {
+    }
+
+    private record SourceMeters(Counter hit, Counter miss, Counter invalidated) {
+    }
+}
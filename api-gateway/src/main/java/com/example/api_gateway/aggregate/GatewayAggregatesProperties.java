@@ -0,0 +1,27 @@
+package com.example.api_gateway.aggregate;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Composite endpoints declared under {@code gateway.aggregates}, normally in
+ * gateway-routes.yml next to the route table.
+ */
+@ConfigurationProperties(prefix = "gateway")
+public class GatewayAggregatesProperties {
+
+    /**
+     * Aggregates, each served at its own path.
+     */
+    private List<AggregateDefinition> aggregates = new ArrayList<>();
+
+    public List<AggregateDefinition> getAggregates() {
+        return aggregates;
+    }
+
+    public void setAggregates(List<AggregateDefinition> aggregates) {
+        this.aggregates = aggregates;
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Declarative composite endpoints that fan out to several services in
+ * parallel for api-gateway.
+ */
+package com.example.api_gateway.aggregate;
@@ -0,0 +1,321 @@
+package com.example.api_gateway.batch;
+
+import com.example.api_gateway.aggregate.FragmentCache;
+import com.example.api_gateway.cache.BufferedResponse;
+import com.example.api_gateway.config.BatchProperties;
+import com.example.api_gateway.routing.ForwardingPipeline;
+import com.example.api_gateway.routing.RouteMatch;
+import com.example.api_gateway.routing.RouteTable;
+import com.example.api_gateway.tracing.UpstreamTracing;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.UnaryOperator;
+
+/**
+ * Serves POST /batch: a list of route-table requests sent as one, answered
+ * with one status and body per request, in the order they were sent.
+ * <p>
+ * The body is {@code {"requests": [{"id", "method", "path", "headers",
+ * "body"}]}}, where path is the gateway path with its query, method defaults
+ * to GET and body is JSON. Each request is routed like a request of its own
+ * and forwarded by {@link ForwardingPipeline#dispatch}, with the same cache,
+ * coalescing, breaker, hedging, retries and route metrics. Headers not given
+ * for a request, such as Authorization, are taken from the batch request.
+ * <p>
+ * A batch holds at most {@code max-requests} requests, of which at most
+ * {@code max-concurrency} are in flight at once, on virtual threads; the
+ * ones not answered within {@code timeout} are cancelled and get 504. A
+ * request no route matches gets 404, one to a streamed or rate-limited
+ * route 400: those must be sent on their own.
+ * <p>
+ * Batch sizes are recorded in {@code gateway.batch.size}; requests are
+ * counted in {@code gateway.batch.requests}, tagged with a result of
+ * dispatched, not_found, refused or timed_out.
+ */
+public class BatchDispatcher implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchDispatcher.class);
+
+    private final BatchProperties properties;
+    private final RouteTable routeTable;
+    private final ForwardingPipeline pipeline;
+    private final ObjectMapper objectMapper;
+    private final UpstreamTracing upstreamTracing;
+    private final FragmentCache fragmentCache;
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("gateway-batch-", 0).factory());
+    private final DistributionSummary size;
+    private final Counter dispatched;
+    private final Counter notFound;
+    private final Counter refused;
+    private final Counter timedOut;
+
+    /**
+     * Create the dispatcher.
+     *
+     * @param properties      batch limits
+     * @param routeTable      routes the requests of a batch
+     * @param pipeline        forwards them
+     * @param objectMapper    reads batches and writes their responses
+     * @param upstreamTracing carries the batch's span to the worker threads
+     * @param fragmentCache   drops the aggregate fragments batched writes invalidate
+     * @param meterRegistry   registry for batch metrics
+     */
+    public BatchDispatcher(BatchProperties properties, RouteTable routeTable, ForwardingPipeline pipeline,
+            ObjectMapper objectMapper, UpstreamTracing upstreamTracing, FragmentCache fragmentCache,
+            MeterRegistry meterRegistry) {
+        if (properties.getMaxRequests() < 1 || properties.getMaxConcurrency() < 1) {
+            throw new IllegalArgumentException("gateway.batch max-requests and max-concurrency must be positive");
+        }
+        this.properties = properties;
+        this.routeTable = routeTable;
+        this.pipeline = pipeline;
+        this.objectMapper = objectMapper;
+        this.upstreamTracing = upstreamTracing;
+        this.fragmentCache = fragmentCache;
+        this.size = DistributionSummary.builder("gateway.batch.size")
+                .description("Requests per batch")
+                .register(meterRegistry);
+        this.dispatched = counter(meterRegistry, "dispatched");
+        this.notFound = counter(meterRegistry, "not_found");
+        this.refused = counter(meterRegistry, "refused");
+        this.timedOut = counter(meterRegistry, "timed_out");
+    }
+
+    /**
+     * Handler function for POST /batch.
+     *
+     * @param request the batch request
+     * @return 200 with the response of every request, or 400/413 for a
+     * batch that cannot be read
+     * @throws IOException if the request body cannot be read
+     */
+    public ServerResponse handle(ServerRequest request) throws IOException {
+        long maxBodySize = properties.getMaxBodySize().toBytes();
+        if (request.servletRequest().getContentLengthLong() > maxBodySize) {
+            return error(HttpStatus.PAYLOAD_TOO_LARGE, "Batch body exceeds " + properties.getMaxBodySize());
+        }
+        byte[] body = request.servletRequest().getInputStream().readNBytes((int) Math.min(maxBodySize + 1,
+                Integer.MAX_VALUE));
+        if (body.length > maxBodySize) {
+            return error(HttpStatus.PAYLOAD_TOO_LARGE, "Batch body exceeds " + properties.getMaxBodySize());
+        }
+        List<Item> items;
+        try {
+            items = parse(body);
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            return error(HttpStatus.BAD_REQUEST, "Invalid batch: " + e.getMessage());
+        }
+        size.record(items.size());
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(objectMapper.writeValueAsBytes(dispatch(items, request.headers())));
+    }
+
+    private ObjectNode dispatch(List<Item> items, ServerRequest.Headers batchHeaders) {
+        Semaphore permits = new Semaphore(properties.getMaxConcurrency());
+        // Requests run on other threads, which do not see the batch's span
+        Span parent = upstreamTracing.currentSpan();
+        List<Future<BufferedResponse>> calls = new ArrayList<>(items.size());
+        for (Item item : items) {
+            calls.add(submit(item, batchHeaders, permits, parent));
+        }
+
+        long deadline = System.nanoTime() + properties.getTimeout().toNanos();
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("success", true);
+        ArrayNode responses = result.putArray("responses");
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            Future<BufferedResponse> call = calls.get(i);
+            ObjectNode response = responses.addObject();
+            response.put("id", item.id());
+            try {
+                BufferedResponse answer = call.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                response.put("status", answer.status().value());
+                response.set("body", body(answer));
+            } catch (TimeoutException e) {
+                call.cancel(true);
+                timedOut.increment();
+                status(response, HttpStatus.GATEWAY_TIMEOUT, "Not answered within " + properties.getTimeout());
+            } catch (ExecutionException e) {
+                logger.error("Batch request {} {} failed", item.method(), item.path(), e.getCause());
+                status(response, HttpStatus.INTERNAL_SERVER_ERROR, "Request failed");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                calls.forEach(pending -> pending.cancel(true));
+                status(response, HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Route one request and start forwarding it, or answer it right away
+     * when it cannot be dispatched.
+     */
+    @SuppressWarnings("try") // The span scope is only held open, never read
+    private Future<BufferedResponse> submit(Item item, ServerRequest.Headers batchHeaders, Semaphore permits,
+            Span parent) {
+        int queryStart = item.path().indexOf('?');
+        String path = queryStart >= 0 ? item.path().substring(0, queryStart) : item.path();
+        String query = queryStart >= 0 ? item.path().substring(queryStart + 1) : null;
+        RouteMatch match = routeTable.match(item.method(), path);
+        if (match == null) {
+            notFound.increment();
+            return refusal(HttpStatus.NOT_FOUND, "No route for " + item.method() + " " + path);
+        }
+        if (!ForwardingPipeline.isDispatchable(match.route())) {
+            refused.increment();
+            return refusal(HttpStatus.BAD_REQUEST, "Route " + match.route().getId() + " cannot be batched");
+        }
+        dispatched.increment();
+        UnaryOperator<String> header = name -> {
+            String value = item.headers().getFirst(name);
+            // The batch's own content type describes the batch, not the request
+            if (value != null || HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+                return value;
+            }
+            return batchHeaders.firstHeader(name);
+        };
+        return executor.submit(() -> {
+            permits.acquire();
+            try (Tracer.SpanInScope scope = upstreamTracing.withSpan(parent)) {
+                return pipeline.dispatch(match, query, header, item.body());
+            } finally {
+                fragmentCache.written(match, header);
+                permits.release();
+            }
+        });
+    }
+
+    private List<Item> parse(byte[] body) throws IOException {
+        JsonNode requests = objectMapper.readTree(body).path("requests");
+        if (!requests.isArray() || requests.isEmpty()) {
+            throw new IllegalArgumentException("requests must be a non-empty array");
+        }
+        if (requests.size() > properties.getMaxRequests()) {
+            throw new IllegalArgumentException("at most " + properties.getMaxRequests() + " requests per batch");
+        }
+        List<Item> items = new ArrayList<>(requests.size());
+        for (JsonNode request : requests) {
+            String path = request.path("path").asText("");
+            if (!path.startsWith("/")) {
+                throw new IllegalArgumentException("request " + items.size() + " has no absolute path");
+            }
+            HttpHeaders headers = new HttpHeaders();
+            for (Iterator<Map.Entry<String, JsonNode>> it = request.path("headers").fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> header = it.next();
+                headers.set(header.getKey(), header.getValue().asText());
+            }
+            JsonNode requestBody = request.get("body");
+            byte[] bytes = null;
+            if (requestBody != null && !requestBody.isNull()) {
+                bytes = objectMapper.writeValueAsBytes(requestBody);
+                if (headers.getContentType() == null) {
+                    headers.setContentType(MediaType.APPLICATION_JSON);
+                }
+            }
+            items.add(new Item(request.path("id").asText(Integer.toString(items.size())),
+                    request.path("method").asText("GET").toUpperCase(Locale.ROOT), path, headers, bytes));
+        }
+        return items;
+    }
+
+    /**
+     * A response body as JSON when it is JSON, otherwise as text.
+     */
+    private JsonNode body(BufferedResponse response) {
+        byte[] body = response.body();
+        if (body == null || body.length == 0) {
+            return objectMapper.nullNode();
+        }
+        MediaType contentType = response.headers() != null ? response.headers().getContentType() : null;
+        if (contentType == null || MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                || contentType.getSubtype().endsWith("+json")) {
+            try {
+                return objectMapper.readTree(body);
+            } catch (IOException e) {
+                // Not JSON after all: relayed as text below
+            }
+        }
+        return objectMapper.getNodeFactory().textNode(new String(body, StandardCharsets.UTF_8));
+    }
+
+    private Future<BufferedResponse> refusal(HttpStatus status, String message) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        try {
+            return CompletableFuture.completedFuture(
+                    new BufferedResponse(status, headers, objectMapper.writeValueAsBytes(message(message))));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize batch error body", e);
+        }
+    }
+
+    private void status(ObjectNode response, HttpStatus status, String message) {
+        response.put("status", status.value());
+        response.set("body", message(message));
+    }
+
+    private ServerResponse error(HttpStatus status, String message) {
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).body(message(message));
+    }
+
+    private ObjectNode message(String message) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("success", false);
+        body.put("message", message);
+        return body;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.batch.requests")
+                .description("Requests sent in batches, by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * One request of a batch.
+     */
+    private record Item(String id, String method, String path, HttpHeaders headers, byte[] body) {
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * The api-gateway batch endpoint: several route-table requests sent as one,
+ * dispatched concurrently and answered together.
+ */
+package com.example.api_gateway.batch;
@@ -0,0 +1,22 @@
+package com.example.api_gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * An upstream response read fully into memory.
+ *
+ * @param status  upstream status
+ * @param headers upstream headers, possibly null
+ * @param body    upstream body, possibly null
+ */
+public record BufferedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+
+    /**
+     * Size counted against the cache bound: the body plus a rough allowance
+     * for headers.
+     */
+    int weight() {
+        return (body != null ? body.length : 0) + 256;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.api_gateway.cache;
+
+import com.example.api_gateway.config.ResponseCacheProperties;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ResponseCache} on a Caffeine cache bounded by total body size, with
+ * W-TinyLFU eviction and a TTL per entry taken from its route.
+ * <p>
+ * The cache holds futures: the first caller on a missing key inserts an
+ * incomplete future and loads on its own thread, and callers arriving
+ * meanwhile wait on that future instead of calling the upstream again.
+ * <p>
+ * Requests are counted in {@code gateway.cache.requests}, tagged with the
+ * route and a result of hit, miss or coalesced.
+ */
+public class CaffeineResponseCache implements ResponseCache {
+
+    private final AsyncCache<String, Entry> cache;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteMeters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * Create the cache.
+     *
+     * @param properties    size bound
+     * @param meterRegistry registry for cache metrics
+     */
+    public CaffeineResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((String key, Entry entry) -> key.length() + entry.response().weight())
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("gateway.cache.entries", cache, c -> c.synchronous().estimatedSize())
+                .description("Responses held by the gateway response cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.cache.evictions", cache, c -> c.synchronous().stats().evictionCount())
+                .description("Responses evicted from the gateway response cache to stay within its size")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public BufferedResponse get(String routeId, String key, Duration ttl, Loader loader) {
+        CompletableFuture<Entry> loading = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = cache.asMap().putIfAbsent(key, loading);
+        if (existing != null) {
+            RouteMeters routeMeters = meters(routeId);
+            (existing.isDone() ? routeMeters.hit() : routeMeters.coalesced()).increment();
+            return join(existing).response();
+        }
+        meters(routeId).miss().increment();
+
+        BufferedResponse response;
+        try {
+            response = loader.load();
+        } catch (RuntimeException e) {
+            cache.asMap().remove(key, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+        if (!cacheable(response)) {
+            // Waiting callers still get this response, later ones load again
+            cache.asMap().remove(key, loading);
+        }
+        loading.complete(new Entry(response, ttl.toNanos()));
+        return response;
+    }
+
+    private static boolean cacheable(BufferedResponse response) {
+        if (!response.status().is2xxSuccessful()) {
+            return false;
+        }
+        HttpHeaders headers = response.headers();
+        String cacheControl = headers != null ? headers.getCacheControl() : null;
+        if (cacheControl == null) {
+            return true;
+        }
+        String directives = cacheControl.toLowerCase(Locale.ROOT);
+        return !directives.contains("no-store") && !directives.contains("private");
+    }
+
+    private static Entry join(CompletableFuture<Entry> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private RouteMeters meters(String routeId) {
+        return meters.computeIfAbsent(routeId, id -> new RouteMeters(
+                counter(id, "hit"), counter(id, "miss"), counter(id, "coalesced")));
+    }
+
+    private Counter counter(String routeId, String result) {
+        return Counter.builder("gateway.cache.requests")
+                .description("Requests to cached routes by cache outcome")
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Entry(BufferedResponse response, long ttlNanos) {
+    }
+
+    private record RouteMeters(Counter hit, Counter miss, Counter coalesced) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.api_gateway.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-flight for GET routes without a cache TTL: while one upstream call
+ * for a key is in flight, identical requests wait for it and share its
+ * response buffer instead of calling the upstream themselves. Nothing is
+ * kept once the call completes.
+ * <p>
+ * Requests are counted in {@code gateway.coalescing.requests}, tagged with
+ * the route and a result of leader (made the upstream call) or joined
+ * (shared one). The collapse ratio of a route is joined / (leader + joined).
+ */
+public class RequestCoalescer {
+
+    private final boolean enabled;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CompletableFuture<BufferedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, RouteMeters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * Create the coalescer.
+     *
+     * @param enabled       when false, every request calls the upstream
+     * @param meterRegistry registry for coalescing metrics
+     */
+    public RequestCoalescer(boolean enabled, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Load a response, or join the load already in flight for the same key.
+     * A failure of the load is thrown to every caller that joined it.
+     *
+     * @param routeId route the request belongs to, used for metrics
+     * @param key     unique per route, upstream path and query, and forwarded headers
+     * @param loader  fetches the response from the upstream
+     * @return the response, possibly shared with concurrent callers
+     */
+    public BufferedResponse execute(String routeId, String key, ResponseCache.Loader loader) {
+        if (!enabled) {
+            return loader.load();
+        }
+        CompletableFuture<BufferedResponse> loading = new CompletableFuture<>();
+        CompletableFuture<BufferedResponse> existing = inFlight.putIfAbsent(key, loading);
+        if (existing != null) {
+            meters(routeId).joined().increment();
+            return join(existing);
+        }
+        meters(routeId).leader().increment();
+        try {
+            BufferedResponse response = loader.load();
+            loading.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, loading);
+        }
+    }
+
+    private static BufferedResponse join(CompletableFuture<BufferedResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private RouteMeters meters(String routeId) {
+        return meters.computeIfAbsent(routeId, id -> new RouteMeters(counter(id, "leader"), counter(id, "joined")));
+    }
+
+    private Counter counter(String routeId, String result) {
+        return Counter.builder("gateway.coalescing.requests")
+                .description("GET requests by whether they called the upstream or shared a call in flight")
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record RouteMeters(Counter leader, Counter joined) {
+    }
+}
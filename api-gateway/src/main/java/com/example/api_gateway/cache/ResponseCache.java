@@ -0,0 +1,38 @@
+package com.example.api_gateway.cache;
+
+import java.time.Duration;
+
+/**
+ * Cache of upstream responses for GET routes. Implementations must coalesce
+ * concurrent misses on one key into a single upstream call.
+ */
+public interface ResponseCache {
+
+    /**
+     * A cache that stores nothing and calls the loader every time.
+     */
+    ResponseCache NONE = (routeId, key, ttl, loader) -> loader.load();
+
+    /**
+     * Return the cached response for a key, or load it. Only 2xx responses
+     * are stored; others go to the callers waiting on this load and are
+     * then forgotten.
+     *
+     * @param routeId route the request belongs to, used for metrics
+     * @param key     cache key, unique per route, upstream path and varying headers
+     * @param ttl     how long a loaded response stays fresh
+     * @param loader  fetches the response from the upstream
+     * @return the cached or freshly loaded response
+     */
+    BufferedResponse get(String routeId, String key, Duration ttl, Loader loader);
+
+    /**
+     * Fetches a response from the upstream. Failures are thrown as runtime
+     * exceptions and reach every caller waiting on the same key.
+     */
+    @FunctionalInterface
+    interface Loader {
+
+        BufferedResponse load();
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * In-process cache of upstream responses for hot read-only routes of
+ * api-gateway, and single-flight for identical GETs in flight at once.
+ */
+package com.example.api_gateway.cache;
@@ -0,0 +1,192 @@
+package com.example.api_gateway.client;
+
+import com.example.api_gateway.config.UpstreamClientProperties;
+import com.example.api_gateway.metrics.ServerTiming;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HeaderElement;
+import org.apache.hc.core5.http.message.MessageSupport;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of pooled, keep-alive HTTP clients, one per upstream service.
+ * Each service gets its own connection pool so a slow service cannot use up
+ * the connections of the others.
+ * <p>
+ * Bodies are passed on as the upstream encoded them: the clients neither
+ * ask for nor decode compressed content, so a gzip body can reach the
+ * client without being inflated and deflated again on the way. Services
+ * with {@code http2} enabled get a RestTemplate on an HTTP/2 client that
+ * multiplexes requests over one connection per instance; their streaming
+ * client is still the HTTP/1.1 pool, and the pool's limits apply to it only.
+ */
+public class UpstreamClients implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamClients.class);
+
+    /**
+     * Runs once the connection to the upstream is leased and open: charges
+     * the time so far to the connect phase of the request being forwarded.
+     */
+    private static final ExecChainHandler CONNECT_TIMING = (request, scope, chain) -> {
+        ServerTiming timing = ServerTiming.current();
+        if (timing != null) {
+            timing.mark("connect");
+        }
+        return chain.proceed(request, scope);
+    };
+
+    private final UpstreamClientProperties properties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+
+    public UpstreamClients(UpstreamClientProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Get the client for a service, creating its pool on first use.
+     *
+     * @param serviceId the service id as registered in Eureka (case-insensitive)
+     * @return a RestTemplate backed by the service's connection pool, or by
+     *         its HTTP/2 client
+     */
+    public RestTemplate forService(String serviceId) {
+        return client(serviceId).restTemplate();
+    }
+
+    /**
+     * Get the raw HTTP client for a service, for callers that stream bodies
+     * instead of going through a RestTemplate. Shares the service's pool.
+     *
+     * @param serviceId the service id as registered in Eureka (case-insensitive)
+     * @return the pooled HTTP client of the service
+     */
+    public CloseableHttpClient httpClient(String serviceId) {
+        return client(serviceId).httpClient();
+    }
+
+    private Client client(String serviceId) {
+        String key = serviceId.toLowerCase(Locale.ROOT);
+        return clients.computeIfAbsent(key, this::createClient);
+    }
+
+    private Client createClient(String serviceId) {
+        UpstreamClientProperties.Pool pool = properties.resolve(serviceId);
+
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(pool.getConnectTimeout()))
+                .setSocketTimeout(Timeout.of(pool.getReadTimeout()))
+                .setTimeToLive(TimeValue.of(pool.getKeepAlive()))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build();
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(pool.getMaxConnections())
+                .setMaxConnPerRoute(pool.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(connectionConfig)
+                .build();
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(pool.getConnectionRequestTimeout()))
+                .setResponseTimeout(Timeout.of(pool.getReadTimeout()))
+                .build();
+
+        TimeValue keepAlive = TimeValue.of(pool.getKeepAlive());
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    // Honour a shorter timeout announced by the upstream, otherwise use ours
+                    Iterator<HeaderElement> it = MessageSupport.iterate(response, "Keep-Alive");
+                    while (it.hasNext()) {
+                        HeaderElement element = it.next();
+                        if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+                            try {
+                                TimeValue announced = TimeValue.ofSeconds(Long.parseLong(element.getValue()));
+                                return announced.min(keepAlive);
+                            } catch (NumberFormatException ignored) {
+                                break;
+                            }
+                        }
+                    }
+                    return keepAlive;
+                })
+                .addExecInterceptorAfter(ChainElement.CONNECT.name(), "server-timing", CONNECT_TIMING)
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAlive)
+                .disableAutomaticRetries()
+                .disableContentCompression()
+                .build();
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, serviceId,
+                    Tags.of("service", serviceId)).bindTo(registry);
+        }
+
+        logger.info("Created upstream pool for {}: maxConnections={}, maxPerRoute={}, connectTimeout={}, readTimeout={}, "
+                        + "http2={}", serviceId, pool.getMaxConnections(), pool.getMaxConnectionsPerRoute(),
+                pool.getConnectTimeout(), pool.getReadTimeout(), pool.getHttp2());
+
+        if (!Boolean.TRUE.equals(pool.getHttp2())) {
+            return new Client(httpClient, null,
+                    new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient)));
+        }
+        logger.info("Buffered calls to {} use HTTP/2: maxConnections, maxPerRoute and connectionRequestTimeout "
+                + "apply to passthrough calls only", serviceId);
+        // Plain http connections start as HTTP/1.1 with an h2c upgrade and stay
+        // on HTTP/1.1 if the instance declines it
+        HttpClient http2Client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(pool.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(http2Client);
+        requestFactory.setReadTimeout(pool.getReadTimeout());
+        return new Client(httpClient, http2Client, new RestTemplate(requestFactory));
+    }
+
+    @Override
+    public void destroy() {
+        clients.forEach((serviceId, client) -> {
+            try {
+                client.httpClient().close();
+            } catch (IOException e) {
+                logger.warn("Failed to close upstream pool for {}: {}", serviceId, e.getMessage());
+            }
+            if (client.http2Client() != null) {
+                client.http2Client().close();
+            }
+        });
+        clients.clear();
+    }
+
+    private record Client(CloseableHttpClient httpClient, HttpClient http2Client, RestTemplate restTemplate) {
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.api_gateway.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One upstream instance as seen by the gateway: its base URL, built once,
+ * and the load and health observed through calls to it.
+ * <p>
+ * Latency and error rate are exponentially weighted moving averages that
+ * also decay with time, so an instance that was avoided after a bad spell
+ * looks cheap again after a while and gets probed.
+ */
+public final class UpstreamInstance {
+
+    /**
+     * Weight of the newest sample in the moving averages.
+     */
+    private static final double ALPHA = 0.3;
+
+    /**
+     * Time for idle averages to decay by a factor of e.
+     */
+    private static final double DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * Latency charged for a fully failing instance, so fast failures do not
+     * look attractive.
+     */
+    private static final double ERROR_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final String id;
+    private final String baseUrl;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final Timer successes;
+    private final Timer failures;
+
+    private volatile double latencyNanos;
+    private volatile double errorRate;
+    private volatile long updatedAt = System.nanoTime();
+
+    UpstreamInstance(String serviceId, String id, String baseUrl, MeterRegistry meterRegistry) {
+        this.id = id;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.successes = meterRegistry != null ? timer(meterRegistry, serviceId, "success") : null;
+        this.failures = meterRegistry != null ? timer(meterRegistry, serviceId, "error") : null;
+    }
+
+    private Timer timer(MeterRegistry meterRegistry, String serviceId, String outcome) {
+        return Timer.builder("gateway.upstream.instance.requests")
+                .description("Latency of upstream calls per service instance")
+                .tag("service", serviceId)
+                .tag("instance", id)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Remove this instance's meters, once it has left the registry.
+     *
+     * @param meterRegistry the registry they were registered in
+     */
+    void removeMeters(MeterRegistry meterRegistry) {
+        if (successes != null) {
+            meterRegistry.remove(successes);
+            meterRegistry.remove(failures);
+        }
+    }
+
+    /**
+     * Instance key, host:port.
+     */
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Base URL without a trailing slash.
+     */
+    public String baseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Mark the start of a call. Every call must be ended with
+     * {@link #end(long, boolean)}.
+     *
+     * @return the start time to pass to {@link #end(long, boolean)}
+     */
+    public long begin() {
+        outstanding.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Record the outcome of a call.
+     *
+     * @param start  the value returned by {@link #begin()}
+     * @param failed whether the call failed (no response, or a 5xx)
+     */
+    public void end(long start, boolean failed) {
+        long now = System.nanoTime();
+        long elapsed = now - start;
+        outstanding.decrementAndGet();
+        synchronized (this) {
+            double keep = (1 - ALPHA) * decay(now);
+            latencyNanos = keep * latencyNanos + ALPHA * elapsed;
+            errorRate = keep * errorRate + (failed ? ALPHA : 0);
+            updatedAt = now;
+        }
+        Timer timer = failed ? failures : successes;
+        if (timer != null) {
+            timer.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Expected cost of sending one more call here: decayed latency, inflated
+     * by the error rate and multiplied by the calls already in flight.
+     */
+    double cost(long now) {
+        double decay = decay(now);
+        double latency = decay * latencyNanos + decay * errorRate * ERROR_PENALTY_NANOS;
+        return latency * (outstanding.get() + 1);
+    }
+
+    int outstanding() {
+        return outstanding.get();
+    }
+
+    private double decay(long now) {
+        return Math.exp(-(now - updatedAt) / DECAY_NANOS);
+    }
+}
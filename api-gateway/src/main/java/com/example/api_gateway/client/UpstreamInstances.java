@@ -0,0 +1,219 @@
+package com.example.api_gateway.client;
+
+import com.example.api_gateway.config.UpstreamClientProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks the upstream instance for each call. Instance lists are read from
+ * the discovery client once and cached, and re-read whenever the registry
+ * reports a change (Eureka publishes a {@link HeartbeatEvent} after each
+ * registry fetch) or the list gets older than the refresh interval.
+ * <p>
+ * Selection is power of two choices: two random instances are compared and
+ * the one with the lower {@link UpstreamInstance#cost expected cost} wins,
+ * which steers calls away from slow, failing or busy instances without the
+ * herding of always picking the single best one.
+ * <p>
+ * A service with no registered instance falls back to its configured
+ * fallback URL, if any.
+ */
+public class UpstreamInstances implements ApplicationListener<HeartbeatEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamInstances.class);
+
+    private static final UpstreamInstance[] NONE = new UpstreamInstance[0];
+
+    private final DiscoveryClient discoveryClient;
+    private final UpstreamClientProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final long refreshNanos;
+    private final Map<String, Service> services = new ConcurrentHashMap<>();
+
+    /**
+     * Create the selector.
+     *
+     * @param discoveryClient source of instance lists
+     * @param properties      fallback URLs and refresh interval
+     * @param meterRegistry   registry for per-instance latency, or null
+     */
+    public UpstreamInstances(DiscoveryClient discoveryClient, UpstreamClientProperties properties,
+            MeterRegistry meterRegistry) {
+        this.discoveryClient = discoveryClient;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.refreshNanos = properties.getInstanceRefreshInterval().toNanos();
+    }
+
+    /**
+     * Choose an instance for one call.
+     *
+     * @param serviceId the service id as registered in Eureka (case-insensitive)
+     * @return the chosen instance, or null if the service has no instance and no fallback URL
+     */
+    public UpstreamInstance choose(String serviceId) {
+        long now = System.nanoTime();
+        UpstreamInstance[] instances = instances(serviceId, now);
+        if (instances.length < 2) {
+            return instances.length == 1 ? instances[0] : null;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.length);
+        int second = random.nextInt(instances.length - 1);
+        if (second >= first) {
+            second++;
+        }
+        UpstreamInstance a = instances[first];
+        UpstreamInstance b = instances[second];
+        return a.cost(now) <= b.cost(now) ? a : b;
+    }
+
+    /**
+     * Choose an instance for a call that must not go where another call of
+     * the same request already went, such as a hedge.
+     *
+     * @param serviceId the service id as registered in Eureka (case-insensitive)
+     * @param excluded  the instance to avoid
+     * @return another instance, or null if the service has no other one
+     */
+    public UpstreamInstance chooseOther(String serviceId, UpstreamInstance excluded) {
+        long now = System.nanoTime();
+        UpstreamInstance[] instances = instances(serviceId, now);
+        int skip = -1;
+        for (int i = 0; i < instances.length; i++) {
+            if (instances[i] == excluded) {
+                skip = i;
+                break;
+            }
+        }
+        if (skip < 0) {
+            // Dropped from the registry meanwhile: any instance is another one
+            return choose(serviceId);
+        }
+        int candidates = instances.length - 1;
+        if (candidates < 2) {
+            return candidates == 1 ? instances[1 - skip] : null;
+        }
+        // Power of two choices over the instances without the excluded one
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates);
+        int second = random.nextInt(candidates - 1);
+        if (second >= first) {
+            second++;
+        }
+        UpstreamInstance a = instances[first >= skip ? first + 1 : first];
+        UpstreamInstance b = instances[second >= skip ? second + 1 : second];
+        return a.cost(now) <= b.cost(now) ? a : b;
+    }
+
+    private UpstreamInstance[] instances(String serviceId, long now) {
+        Service service = services.computeIfAbsent(serviceId.toLowerCase(Locale.ROOT), key -> load(serviceId));
+        if (now - service.loadedAt > refreshNanos) {
+            refresh(service, now, false);
+        }
+        return service.instances;
+    }
+
+    @Override
+    public void onApplicationEvent(HeartbeatEvent event) {
+        long now = System.nanoTime();
+        services.values().forEach(service -> refresh(service, now, true));
+    }
+
+    private Service load(String serviceId) {
+        Service service = new Service(serviceId);
+        refresh(service, System.nanoTime(), true);
+        return service;
+    }
+
+    /**
+     * Re-read a service's instances, keeping the observed statistics of
+     * instances that are still registered and removing the meters of those
+     * that are not.
+     */
+    private void refresh(Service service, long now, boolean force) {
+        synchronized (service) {
+            if (!force && now - service.loadedAt <= refreshNanos) {
+                // Another caller refreshed while we waited
+                return;
+            }
+            service.loadedAt = now;
+            Map<String, UpstreamInstance> known = new HashMap<>();
+            for (UpstreamInstance instance : service.instances) {
+                known.put(instance.id(), instance);
+            }
+
+            List<ServiceInstance> registered;
+            try {
+                registered = discoveryClient.getInstances(service.id);
+            } catch (RuntimeException e) {
+                logger.warn("Cannot read instances of {}, keeping {} known: {}",
+                        service.id, service.instances.length, e.getMessage());
+                return;
+            }
+            UpstreamInstance[] instances;
+            if (!registered.isEmpty()) {
+                instances = new UpstreamInstance[registered.size()];
+                for (int i = 0; i < instances.length; i++) {
+                    ServiceInstance instance = registered.get(i);
+                    String id = instance.getHost() + ":" + instance.getPort();
+                    UpstreamInstance existing = known.get(id);
+                    instances[i] = existing != null
+                            ? existing
+                            : new UpstreamInstance(service.id, id, instance.getUri().toString(), meterRegistry);
+                }
+            } else {
+                String fallback = properties.fallbackUrl(service.id);
+                if (fallback != null) {
+                    UpstreamInstance existing = known.get(fallback);
+                    instances = new UpstreamInstance[] {existing != null
+                            ? existing
+                            : new UpstreamInstance(service.id, fallback, fallback, meterRegistry)};
+                } else {
+                    instances = NONE;
+                }
+                if (service.discovered) {
+                    logger.warn("{} not available in discovery, {}", service.id,
+                            fallback != null ? "using direct connection " + fallback : "no fallback URL");
+                }
+            }
+            service.discovered = !registered.isEmpty();
+            service.instances = instances;
+            if (meterRegistry != null) {
+                // Instances gone from the registry would otherwise keep their meters for good
+                for (UpstreamInstance instance : instances) {
+                    known.remove(instance.id());
+                }
+                known.values().forEach(dropped -> dropped.removeMeters(meterRegistry));
+            }
+        }
+    }
+
+    private static final class Service {
+
+        private final String id;
+        private volatile UpstreamInstance[] instances = NONE;
+        private volatile long loadedAt;
+        /**
+         * Whether the last refresh found registered instances; true before
+         * the first refresh so that an unknown service is reported once.
+         */
+        private boolean discovered = true;
+
+        private Service(String id) {
+            this.id = id;
+        }
+    }
+}
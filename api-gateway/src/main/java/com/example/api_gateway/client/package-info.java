@@ -0,0 +1,4 @@
+/**
+ * Upstream HTTP client package for api-gateway.
+ */
+package com.example.api_gateway.client;
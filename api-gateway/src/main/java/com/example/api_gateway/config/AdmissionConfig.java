@@ -0,0 +1,22 @@
+package com.example.api_gateway.config;
+
+import com.example.api_gateway.admission.AdmissionControl;
+import com.example.api_gateway.admission.ConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfig {
+
+    @Bean
+    public AdmissionControl admissionControl(AdmissionProperties properties,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new AdmissionControl(new ConcurrencyLimiter(properties), properties,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the adaptive concurrency limiter in front of the route table
+ * and aggregates. Route priorities are set per route with {@code priority}
+ * in gateway-routes.yml.
+ */
+@ConfigurationProperties(prefix = "gateway.admission")
+public class AdmissionProperties {
+
+    /**
+     * Whether requests are subject to admission control at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Concurrency limit before any latency has been observed.
+     */
+    private int initialLimit = 200;
+
+    /**
+     * The limit never drops below this.
+     */
+    private int minLimit = 20;
+
+    /**
+     * The limit never grows beyond this.
+     */
+    private int maxLimit = 2000;
+
+    /**
+     * How far recent latency may exceed the long-term latency before the
+     * limit shrinks, as a factor.
+     */
+    private double latencyTolerance = 1.5;
+
+    /**
+     * Weight of each new limit estimate, from 0 (never move) to 1 (jump).
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * Shortest interval between limit updates.
+     */
+    private Duration window = Duration.ofSeconds(1);
+
+    /**
+     * Fewest latency samples a window needs before it updates the limit.
+     */
+    private int windowMinSamples = 20;
+
+    /**
+     * Retry-After sent with shed requests.
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getLatencyTolerance() {
+        return latencyTolerance;
+    }
+
+    public void setLatencyTolerance(double latencyTolerance) {
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public int getWindowMinSamples() {
+        return windowMinSamples;
+    }
+
+    public void setWindowMinSamples(int windowMinSamples) {
+        this.windowMinSamples = windowMinSamples;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+}
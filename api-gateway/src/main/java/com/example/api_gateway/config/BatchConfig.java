@@ -0,0 +1,47 @@
+package com.example.api_gateway.config;
+
+import com.example.api_gateway.admission.AdmissionControl;
+import com.example.api_gateway.admission.Priority;
+import com.example.api_gateway.aggregate.FragmentCache;
+import com.example.api_gateway.batch.BatchDispatcher;
+import com.example.api_gateway.routing.ForwardingPipeline;
+import com.example.api_gateway.routing.RouteTable;
+import com.example.api_gateway.tracing.UpstreamTracing;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.util.Optional;
+
+@Configuration
+@EnableConfigurationProperties(BatchProperties.class)
+public class BatchConfig {
+
+    @Bean
+    public BatchDispatcher batchDispatcher(BatchProperties properties, RouteTable routeTable,
+            ForwardingPipeline pipeline, ObjectMapper objectMapper, UpstreamTracing upstreamTracing,
+            FragmentCache fragmentCache, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BatchDispatcher(properties, routeTable, pipeline, objectMapper, upstreamTracing, fragmentCache,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> batchRoute(BatchProperties properties, BatchDispatcher dispatcher,
+            AdmissionControl admissionControl) {
+        if (!properties.isEnabled()) {
+            return request -> Optional.empty();
+        }
+        return RouterFunctions.route()
+                .POST("/batch", admissionControl
+                        .filter(request -> "batch", request -> Priority.NORMAL)
+                        .apply(dispatcher::handle))
+                .build();
+    }
+}
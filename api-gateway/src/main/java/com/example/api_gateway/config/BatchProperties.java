@@ -0,0 +1,79 @@
+package com.example.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings of the POST /batch endpoint.
+ */
+@ConfigurationProperties(prefix = "gateway.batch")
+public class BatchProperties {
+
+    /**
+     * Whether POST /batch is served at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Most sub-requests in one batch; larger batches get 400.
+     */
+    private int maxRequests = 20;
+
+    /**
+     * Sub-requests of one batch in flight at once.
+     */
+    private int maxConcurrency = 6;
+
+    /**
+     * Largest batch request body; larger bodies get 413.
+     */
+    private DataSize maxBodySize = DataSize.ofMegabytes(1);
+
+    /**
+     * How long a batch waits for its sub-requests; the ones still running
+     * then are cancelled and answered with 504.
+     */
+    private Duration timeout = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    public void setMaxRequests(int maxRequests) {
+        this.maxRequests = maxRequests;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public DataSize getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    public void setMaxBodySize(DataSize maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+}
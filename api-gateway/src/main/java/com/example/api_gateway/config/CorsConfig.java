@@ -1,18 +1,26 @@
 package com.example.api_gateway.config;
 
+import com.example.api_gateway.cors.CorsPolicyFilter;
+import com.example.api_gateway.routing.RouteTable;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.web.cors.CorsConfiguration;
-import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
-import org.springframework.web.filter.CorsFilter;
 
 import java.util.Arrays;
 
 @Configuration
+@EnableConfigurationProperties(CorsProperties.class)
 public class CorsConfig {
 
     @Bean
-    public CorsFilter corsFilter() {
+    public FilterRegistrationBean<CorsPolicyFilter> corsFilter(CorsProperties properties, RouteTable routeTable,
+            ObjectProvider<MeterRegistry> meterRegistry) {
         CorsConfiguration corsConfiguration = new CorsConfiguration();
 
         // Cho phép tất cả origins
@@ -35,12 +43,14 @@ public class CorsConfig {
         // Cho phép credentials (cookies, authorization headers)
         corsConfiguration.setAllowCredentials(true);
 
-        // Thời gian cache preflight request (giây)
-        corsConfiguration.setMaxAge(3600L);
+        // Thời gian cache preflight request
+        corsConfiguration.setMaxAge(properties.getMaxAge());
 
-        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
-        source.registerCorsConfiguration("/**", corsConfiguration);
-
-        return new CorsFilter(source);
+        // Ahead of every other filter, so preflights are answered before
+        // tracing, security or the dispatcher see them
+        FilterRegistrationBean<CorsPolicyFilter> registration = new FilterRegistrationBean<>(new CorsPolicyFilter(
+                corsConfiguration, routeTable, meterRegistry.getIfAvailable(SimpleMeterRegistry::new)));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
     }
 }
@@ -0,0 +1,26 @@
+package com.example.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the gateway's CORS handling.
+ */
+@ConfigurationProperties(prefix = "gateway.cors")
+public class CorsProperties {
+
+    /**
+     * How long browsers may cache a preflight answer (Access-Control-Max-Age).
+     * Browsers cap it themselves: Firefox at 24h, Chromium at 2h.
+     */
+    private Duration maxAge = Duration.ofHours(24);
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.api_gateway.config;
+
+import com.example.api_gateway.admission.AdmissionControl;
+import com.example.api_gateway.aggregate.AggregateDefinition;
+import com.example.api_gateway.aggregate.Aggregator;
+import com.example.api_gateway.aggregate.FragmentCache;
+import com.example.api_gateway.aggregate.GatewayAggregatesProperties;
+import com.example.api_gateway.client.UpstreamClients;
+import com.example.api_gateway.client.UpstreamInstances;
+import com.example.api_gateway.resilience.ServiceGuards;
+import com.example.api_gateway.routing.RouteTable;
+import com.example.api_gateway.security.EdgeAuthenticator;
+import com.example.api_gateway.tracing.UpstreamTracing;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.util.Optional;
+
+/**
+ * Serves the aggregates declared under gateway.aggregates, one GET route
+ * per aggregate, with the fragment cache of their cached sources.
+ */
+@Configuration
+@EnableConfigurationProperties(GatewayAggregatesProperties.class)
+public class GatewayAggregationConfig {
+
+    @Bean
+    public FragmentCache fragmentCache(ResponseCacheProperties properties, RouteTable routeTable,
+            EdgeAuthenticator edgeAuthenticator, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new FragmentCache(properties, routeTable, edgeAuthenticator,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Bean
+    public Aggregator aggregator(UpstreamInstances upstreamInstances, UpstreamClients upstreamClients,
+            ServiceGuards serviceGuards, ObjectMapper objectMapper, EdgeAuthenticator edgeAuthenticator,
+            UpstreamTracing upstreamTracing, FragmentCache fragmentCache) {
+        return new Aggregator(upstreamInstances, upstreamClients, serviceGuards, objectMapper, edgeAuthenticator,
+                upstreamTracing, fragmentCache);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> gatewayAggregates(GatewayAggregatesProperties properties,
+            Aggregator aggregator, AdmissionControl admissionControl) {
+        if (properties.getAggregates().isEmpty()) {
+            return request -> Optional.empty();
+        }
+        RouterFunctions.Builder routes = RouterFunctions.route();
+        for (AggregateDefinition definition : properties.getAggregates()) {
+            routes.GET(definition.getPath(), admissionControl
+                    .filter(request -> definition.getId(), request -> definition.getPriority())
+                    .apply(aggregator.handler(definition)));
+        }
+        return routes.build();
+    }
+}
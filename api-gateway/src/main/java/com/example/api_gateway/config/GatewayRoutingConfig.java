@@ -0,0 +1,102 @@
+package com.example.api_gateway.config;
+
+import com.example.api_gateway.admission.AdmissionControl;
+import com.example.api_gateway.aggregate.FragmentCache;
+import com.example.api_gateway.cache.RequestCoalescer;
+import com.example.api_gateway.cache.ResponseCache;
+import com.example.api_gateway.client.UpstreamClients;
+import com.example.api_gateway.client.UpstreamInstances;
+import com.example.api_gateway.hedging.Hedging;
+import com.example.api_gateway.jobs.GatewayJobs;
+import com.example.api_gateway.metrics.RouteMetrics;
+import com.example.api_gateway.metrics.ServerTiming;
+import com.example.api_gateway.ratelimit.RateLimiter;
+import com.example.api_gateway.resilience.ServiceGuards;
+import com.example.api_gateway.retry.Retries;
+import com.example.api_gateway.routing.CompiledRoute;
+import com.example.api_gateway.routing.ForwardingPipeline;
+import com.example.api_gateway.routing.GatewayRoutesProperties;
+import com.example.api_gateway.routing.RouteMatch;
+import com.example.api_gateway.routing.RouteTable;
+import com.example.api_gateway.routing.UpstreamErrors;
+import com.example.api_gateway.security.EdgeAuthenticator;
+import com.example.api_gateway.tracing.UpstreamTracing;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.server.mvc.common.MvcUtils;
+import org.springframework.cloud.gateway.server.mvc.handler.GatewayRouterFunctions;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.function.RequestPredicate;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+/**
+ * Wires the declarative route table (gateway-routes.yml) into Spring Cloud
+ * Gateway MVC as a single router function backed by one forwarding pipeline.
+ */
+@Configuration
+@EnableConfigurationProperties(GatewayRoutesProperties.class)
+public class GatewayRoutingConfig {
+
+    @Bean
+    public RouteTable routeTable(GatewayRoutesProperties properties) {
+        return new RouteTable(properties.getRoutes());
+    }
+
+    @Bean
+    public UpstreamErrors upstreamErrors(RouteTable routeTable, ObjectMapper objectMapper,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new UpstreamErrors(routeTable, objectMapper, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Bean
+    public ForwardingPipeline forwardingPipeline(RouteTable routeTable, UpstreamInstances upstreamInstances,
+            UpstreamClients upstreamClients, ServiceGuards serviceGuards, ObjectMapper objectMapper,
+            ResponseCache responseCache, RequestCoalescer requestCoalescer, EdgeAuthenticator edgeAuthenticator,
+            RouteMetrics routeMetrics, UpstreamTracing upstreamTracing, GatewayJobs gatewayJobs, Hedging hedging,
+            Retries retries, UpstreamErrors upstreamErrors) {
+        return new ForwardingPipeline(routeTable, upstreamInstances, upstreamClients, serviceGuards, objectMapper,
+                responseCache, requestCoalescer, edgeAuthenticator, routeMetrics, upstreamTracing, gatewayJobs,
+                hedging, retries, upstreamErrors);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> gatewayRouteTable(RouteTable routeTable, ForwardingPipeline pipeline,
+            AdmissionControl admissionControl, RateLimiter rateLimiter, FragmentCache fragmentCache) {
+        RequestPredicate matchesRouteTable = request -> {
+            ServerTiming timing = ServerTiming.start();
+            RouteMatch match = routeTable.match(request.method().name(), request.servletRequest().getRequestURI());
+            if (match == null) {
+                return false;
+            }
+            timing.mark("route");
+            request.attributes().put(ForwardingPipeline.MATCH_ATTRIBUTE, match);
+            request.attributes().put(ForwardingPipeline.TIMING_ATTRIBUTE, timing);
+            MvcUtils.setRouteId(request, match.route().getId());
+            return true;
+        };
+        return GatewayRouterFunctions.route("route-table")
+                .route(matchesRouteTable, pipeline::forward)
+                // Filters run in the order they are added: limited requests never take an
+                // admission slot, and only admitted requests invalidate fragments
+                .filter(rateLimiter.filter(GatewayRoutingConfig::matchedRoute))
+                .filter(admissionControl.filter(
+                        request -> matchedRoute(request).getId(),
+                        request -> matchedRoute(request).getDefinition().getPriority()))
+                .filter(fragmentCache.filter(GatewayRoutingConfig::match))
+                .build();
+    }
+
+    private static CompiledRoute matchedRoute(ServerRequest request) {
+        return match(request).route();
+    }
+
+    private static RouteMatch match(ServerRequest request) {
+        return (RouteMatch) request.attributes().get(ForwardingPipeline.MATCH_ATTRIBUTE);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of request hedging. Which routes are hedged is set per route with
+ * {@code hedge} in gateway-routes.yml.
+ */
+@ConfigurationProperties(prefix = "gateway.hedging")
+public class HedgingProperties {
+
+    /**
+     * Whether hedged routes send second calls at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Latency percentile of a route after which a second call is sent.
+     */
+    private double percentile = 0.95;
+
+    /**
+     * Shortest wait before a second call, however fast the route usually is.
+     */
+    private Duration minDelay = Duration.ofMillis(5);
+
+    /**
+     * Recent calls per route the percentile is taken over.
+     */
+    private int window = 1000;
+
+    /**
+     * Calls a route must have made before it is hedged.
+     */
+    private int minSamples = 100;
+
+    /**
+     * Second calls allowed per regular call to a service, e.g. 0.05 for at
+     * most 5% extra load.
+     */
+    private double budget = 0.05;
+
+    /**
+     * Second calls to a service allowed back to back before the budget
+     * refills.
+     */
+    private int burst = 10;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    public void setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public void setWindow(int window) {
+        this.window = window;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public double getBudget() {
+        return budget;
+    }
+
+    public void setBudget(double budget) {
+        this.budget = budget;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+}
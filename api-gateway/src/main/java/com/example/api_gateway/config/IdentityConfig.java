@@ -0,0 +1,21 @@
+package com.example.api_gateway.config;
+
+import com.example.api_gateway.security.EdgeAuthenticator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(IdentityProperties.class)
+public class IdentityConfig {
+
+    @Bean
+    public EdgeAuthenticator edgeAuthenticator(IdentityProperties properties, ObjectMapper objectMapper,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new EdgeAuthenticator(properties, objectMapper, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of JWT verification at the gateway and of the identity headers
+ * it passes on to the services behind it.
+ */
+@ConfigurationProperties(prefix = "gateway.identity")
+public class IdentityProperties {
+
+    /**
+     * Whether bearer tokens are verified at the gateway. When disabled,
+     * identity headers sent by clients are forwarded as they are.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Base64 HS512 key the tokens are signed with; the same key auth-service
+     * issues them with.
+     */
+    private String jwtSecret;
+
+    /**
+     * Base64 key the gateway signs identity headers with, shared only with
+     * the services behind it.
+     */
+    private String signingSecret;
+
+    /**
+     * Upper bound on verified tokens kept until they expire.
+     */
+    private long maxEntries = 100_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getJwtSecret() {
+        return jwtSecret;
+    }
+
+    public void setJwtSecret(String jwtSecret) {
+        this.jwtSecret = jwtSecret;
+    }
+
+    public String getSigningSecret() {
+        return signingSecret;
+    }
+
+    public void setSigningSecret(String signingSecret) {
+        this.signingSecret = signingSecret;
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.api_gateway.config;
+
+import com.example.api_gateway.jobs.GatewayJobs;
+import com.example.api_gateway.routing.ForwardingPipeline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+@Configuration
+@EnableConfigurationProperties(JobsProperties.class)
+public class JobsConfig {
+
+    @Bean
+    public GatewayJobs gatewayJobs(JobsProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new GatewayJobs(properties, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> jobResults(ForwardingPipeline pipeline) {
+        return RouterFunctions.route()
+                .GET("/jobs/{id}", pipeline::job)
+                .build();
+    }
+}
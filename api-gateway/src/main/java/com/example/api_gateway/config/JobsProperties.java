@@ -0,0 +1,95 @@
+package com.example.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings of the job executor and result store behind async routes. Which
+ * routes may run as jobs is set per route with {@code async} in
+ * gateway-routes.yml.
+ */
+@ConfigurationProperties(prefix = "gateway.jobs")
+public class JobsProperties {
+
+    /**
+     * Whether async routes honour Prefer: respond-async at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Upstream calls run at once for jobs.
+     */
+    private int maxConcurrent = 32;
+
+    /**
+     * Jobs waiting for a free slot; submissions beyond it get 503.
+     */
+    private int maxQueued = 256;
+
+    /**
+     * Upper bound on the stored response bodies; the least valuable jobs are
+     * evicted beyond it.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(32);
+
+    /**
+     * How long a job is kept after it was submitted and again after it
+     * finished.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * Longest a GET /jobs/{id}?wait= request waits for the result.
+     */
+    private Duration maxWait = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public void setMaxQueued(int maxQueued) {
+        this.maxQueued = maxQueued;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+}
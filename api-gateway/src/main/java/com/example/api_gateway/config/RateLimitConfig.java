@@ -0,0 +1,23 @@
+package com.example.api_gateway.config;
+
+import com.example.api_gateway.ratelimit.RateLimiter;
+import com.example.api_gateway.routing.RouteTable;
+import com.example.api_gateway.security.EdgeAuthenticator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimiter rateLimiter(RateLimitProperties properties, RouteTable routeTable,
+            EdgeAuthenticator edgeAuthenticator, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RateLimiter(properties, routeTable.getRoutes(), edgeAuthenticator,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.api_gateway.config;
+
+import com.example.api_gateway.ratelimit.RateLimitKey;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Named rate-limit policies. Routes opt in with {@code rate-limit: <name>}
+ * in gateway-routes.yml.
+ */
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Whether rate limits are applied at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Bucket slots per policy (rounded up to a power of two), 8 bytes each.
+     * Sized for the number of keys active within one period; beyond it the
+     * least recently limited keys lose their count.
+     */
+    private int slots = 1 << 18;
+
+    /**
+     * Policies by name.
+     */
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    public void setSlots(int slots) {
+        this.slots = slots;
+    }
+
+    public Map<String, Policy> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(Map<String, Policy> policies) {
+        this.policies = policies;
+    }
+
+    /**
+     * One policy: capacity requests per period for each key, refilled
+     * evenly over the period.
+     */
+    public static class Policy {
+
+        /**
+         * Requests allowed in a burst, and per period.
+         */
+        private int capacity = 10;
+
+        /**
+         * Time to refill a whole bucket.
+         */
+        private Duration period = Duration.ofMinutes(1);
+
+        /**
+         * What requests are counted by.
+         */
+        private RateLimitKey key = RateLimitKey.IP;
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public Duration getPeriod() {
+            return period;
+        }
+
+        public void setPeriod(Duration period) {
+            this.period = period;
+        }
+
+        public RateLimitKey getKey() {
+            return key;
+        }
+
+        public void setKey(RateLimitKey key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.api_gateway.config;
+
+import com.example.api_gateway.resilience.ServiceGuards;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ResilienceProperties.class)
+public class ResilienceConfig {
+
+    @Bean
+    public ServiceGuards serviceGuards(ResilienceProperties properties,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ServiceGuards(properties, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Circuit breaker and bulkhead settings for upstream services. Values under
+ * {@code gateway.resilience.defaults} apply to every service; entries under
+ * {@code gateway.resilience.services.<service-id>} override individual
+ * values for one service.
+ */
+@ConfigurationProperties(prefix = "gateway.resilience")
+public class ResilienceProperties {
+
+    /**
+     * Settings shared by every upstream service.
+     */
+    private Guard defaults = Guard.builtIn();
+
+    /**
+     * Per-service overrides keyed by lower-case service id (e.g. plan-service).
+     */
+    private Map<String, Guard> services = new LinkedHashMap<>();
+
+    public Guard getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Guard defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Guard> getServices() {
+        return services;
+    }
+
+    public void setServices(Map<String, Guard> services) {
+        this.services = services;
+    }
+
+    /**
+     * Resolve the effective settings for a service, falling back to the
+     * defaults for every value the service does not override.
+     *
+     * @param serviceId the service id as registered in Eureka
+     * @return the merged settings
+     */
+    public Guard resolve(String serviceId) {
+        Guard override = services.get(serviceId.toLowerCase(Locale.ROOT));
+        if (override == null) {
+            return defaults;
+        }
+        Guard merged = new Guard();
+        merged.setMaxConcurrentCalls(pick(override.getMaxConcurrentCalls(), defaults.getMaxConcurrentCalls()));
+        merged.setSlidingWindowSize(pick(override.getSlidingWindowSize(), defaults.getSlidingWindowSize()));
+        merged.setMinimumNumberOfCalls(pick(override.getMinimumNumberOfCalls(), defaults.getMinimumNumberOfCalls()));
+        merged.setFailureRateThreshold(pick(override.getFailureRateThreshold(), defaults.getFailureRateThreshold()));
+        merged.setSlowCallDuration(pick(override.getSlowCallDuration(), defaults.getSlowCallDuration()));
+        merged.setSlowCallRateThreshold(
+                pick(override.getSlowCallRateThreshold(), defaults.getSlowCallRateThreshold()));
+        merged.setOpenDuration(pick(override.getOpenDuration(), defaults.getOpenDuration()));
+        merged.setHalfOpenCalls(pick(override.getHalfOpenCalls(), defaults.getHalfOpenCalls()));
+        return merged;
+    }
+
+    private static <T> T pick(T value, T fallback) {
+        return value != null ? value : fallback;
+    }
+
+    /**
+     * Circuit breaker and bulkhead settings for one upstream service. A null
+     * value means "inherit from defaults".
+     */
+    public static class Guard {
+
+        /**
+         * Calls allowed in flight to the service at once (bulkhead); further
+         * calls are rejected immediately.
+         */
+        private Integer maxConcurrentCalls;
+
+        /**
+         * Number of most recent calls the breaker judges the service by.
+         */
+        private Integer slidingWindowSize;
+
+        /**
+         * Calls needed in the window before the breaker may open.
+         */
+        private Integer minimumNumberOfCalls;
+
+        /**
+         * Percentage of failed calls (no response or 5xx) that opens the breaker.
+         */
+        private Float failureRateThreshold;
+
+        /**
+         * Calls slower than this count as slow.
+         */
+        private Duration slowCallDuration;
+
+        /**
+         * Percentage of slow calls that opens the breaker.
+         */
+        private Float slowCallRateThreshold;
+
+        /**
+         * How long an open breaker rejects calls before letting trial calls through.
+         */
+        private Duration openDuration;
+
+        /**
+         * Trial calls let through by a half-open breaker.
+         */
+        private Integer halfOpenCalls;
+
+        static Guard builtIn() {
+            Guard guard = new Guard();
+            guard.setMaxConcurrentCalls(200);
+            guard.setSlidingWindowSize(50);
+            guard.setMinimumNumberOfCalls(20);
+            guard.setFailureRateThreshold(50f);
+            guard.setSlowCallDuration(Duration.ofSeconds(5));
+            guard.setSlowCallRateThreshold(80f);
+            guard.setOpenDuration(Duration.ofSeconds(10));
+            guard.setHalfOpenCalls(5);
+            return guard;
+        }
+
+        public Integer getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(Integer maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public Integer getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(Integer slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public Integer getMinimumNumberOfCalls() {
+            return minimumNumberOfCalls;
+        }
+
+        public void setMinimumNumberOfCalls(Integer minimumNumberOfCalls) {
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+        }
+
+        public Float getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(Float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public Duration getSlowCallDuration() {
+            return slowCallDuration;
+        }
+
+        public void setSlowCallDuration(Duration slowCallDuration) {
+            this.slowCallDuration = slowCallDuration;
+        }
+
+        public Float getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+
+        public void setSlowCallRateThreshold(Float slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public Integer getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        public void setHalfOpenCalls(Integer halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+    }
+}
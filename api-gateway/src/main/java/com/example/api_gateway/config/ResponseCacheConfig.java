@@ -0,0 +1,38 @@
+package com.example.api_gateway.config;
+
+import com.example.api_gateway.cache.CaffeineResponseCache;
+import com.example.api_gateway.cache.RequestCoalescer;
+import com.example.api_gateway.cache.ResponseCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Provides the response cache and the request coalescer used by the
+ * forwarding pipeline. Declare another {@link ResponseCache} bean to replace
+ * the in-process one.
+ */
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCacheConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ResponseCache responseCache(ResponseCacheProperties properties,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        if (!properties.isEnabled()) {
+            return ResponseCache.NONE;
+        }
+        return new CaffeineResponseCache(properties, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Bean
+    public RequestCoalescer requestCoalescer(ResponseCacheProperties properties,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RequestCoalescer(properties.isCoalesce(), meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings of the in-process response cache. Which routes are cached, and for
+ * how long, is set per route with {@code cache-ttl} in gateway-routes.yml.
+ */
+@ConfigurationProperties(prefix = "gateway.cache")
+public class ResponseCacheProperties {
+
+    /**
+     * Whether routes with a cache-ttl are cached at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Upper bound on the cached bodies; the least valuable entries are
+     * evicted beyond it.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Whether concurrent identical requests to buffered GET routes without a
+     * cache-ttl share one upstream call. Routes opt out with coalesce: false.
+     */
+    private boolean coalesce = true;
+
+    /**
+     * Upper bound on the cached aggregate fragments (sources with a
+     * cache-ttl), counted in entries.
+     */
+    private long maxFragments = 10_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public boolean isCoalesce() {
+        return coalesce;
+    }
+
+    public void setCoalesce(boolean coalesce) {
+        this.coalesce = coalesce;
+    }
+
+    public long getMaxFragments() {
+        return maxFragments;
+    }
+
+    public void setMaxFragments(long maxFragments) {
+        this.maxFragments = maxFragments;
+    }
+}
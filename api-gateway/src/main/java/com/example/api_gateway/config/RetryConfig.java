@@ -0,0 +1,21 @@
+package com.example.api_gateway.config;
+
+import com.example.api_gateway.client.UpstreamInstances;
+import com.example.api_gateway.retry.Retries;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(RetryProperties.class)
+public class RetryConfig {
+
+    @Bean
+    public Retries retries(RetryProperties properties, UpstreamInstances upstreamInstances,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new Retries(properties, upstreamInstances, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of upstream call retries. GET routes are retried unless they set
+ * {@code retry: false} in gateway-routes.yml; other routes only with
+ * {@code retry: true}.
+ */
+@ConfigurationProperties(prefix = "gateway.retry")
+public class RetryProperties {
+
+    /**
+     * Whether failed calls are retried at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Calls made for one request at most, the first one included.
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * Upper bound of the random wait before the first retry; it doubles
+     * with each further retry.
+     */
+    private Duration initialBackoff = Duration.ofMillis(25);
+
+    /**
+     * Upper bound of the random wait before any retry.
+     */
+    private Duration maxBackoff = Duration.ofMillis(250);
+
+    /**
+     * Retries allowed per retryable request across the gateway, e.g. 0.1
+     * for at most 10% extra calls while upstreams fail.
+     */
+    private double budget = 0.1;
+
+    /**
+     * Retries allowed back to back before the budget refills.
+     */
+    private int burst = 20;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public void setInitialBackoff(Duration initialBackoff) {
+        this.initialBackoff = initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    public double getBudget() {
+        return budget;
+    }
+
+    public void setBudget(double budget) {
+        this.budget = budget;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+}
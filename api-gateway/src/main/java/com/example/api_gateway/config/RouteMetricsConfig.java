@@ -0,0 +1,19 @@
+package com.example.api_gateway.config;
+
+import com.example.api_gateway.metrics.RouteMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(RouteMetricsProperties.class)
+public class RouteMetricsConfig {
+
+    @Bean
+    public RouteMetrics routeMetrics(RouteMetricsProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RouteMetrics(meterRegistry.getIfAvailable(SimpleMeterRegistry::new), properties.isServerTiming());
+    }
+}
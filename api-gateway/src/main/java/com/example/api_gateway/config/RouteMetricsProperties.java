@@ -0,0 +1,24 @@
+package com.example.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the per-route latency metrics.
+ */
+@ConfigurationProperties(prefix = "gateway.metrics")
+public class RouteMetricsProperties {
+
+    /**
+     * Whether route responses carry a Server-Timing header with the time
+     * spent in each gateway phase. Turn off to keep the breakdown internal.
+     */
+    private boolean serverTiming = true;
+
+    public boolean isServerTiming() {
+        return serverTiming;
+    }
+
+    public void setServerTiming(boolean serverTiming) {
+        this.serverTiming = serverTiming;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.api_gateway.config;
+
+import com.example.api_gateway.tracing.SpanCollector;
+import com.example.api_gateway.tracing.SpansEndpoint;
+import com.example.api_gateway.tracing.UpstreamTracing;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Propagates trace context to upstream services and exports the gateway's
+ * spans to the local {@link SpanCollector}. Spring Boot registers every
+ * SpanExporter bean with the OpenTelemetry tracer.
+ */
+@Configuration
+@EnableConfigurationProperties(TracingProperties.class)
+public class TracingConfig {
+
+    @Bean
+    public UpstreamTracing upstreamTracing(ObjectProvider<Tracer> tracer, ObjectProvider<Propagator> propagator) {
+        return new UpstreamTracing(tracer.getIfAvailable(() -> Tracer.NOOP),
+                propagator.getIfAvailable(() -> Propagator.NOOP));
+    }
+
+    @Bean
+    public SpanCollector spanCollector(TracingProperties properties, ObjectMapper objectMapper) throws IOException {
+        String file = properties.getExportFile();
+        return new SpanCollector(properties.getMaxSpans(), StringUtils.hasText(file) ? Path.of(file) : null,
+                objectMapper);
+    }
+
+    @Bean
+    public SpansEndpoint spansEndpoint(SpanCollector spanCollector) {
+        return new SpansEndpoint(spanCollector);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the local span collector. Sampling and propagation are set
+ * under {@code management.tracing}.
+ */
+@ConfigurationProperties(prefix = "gateway.tracing")
+public class TracingProperties {
+
+    /**
+     * Number of recent spans kept in memory for /actuator/spans.
+     */
+    private int maxSpans = 10000;
+
+    /**
+     * File each finished span is appended to as a JSON line. Spans are kept
+     * in memory only when not set.
+     */
+    private String exportFile;
+
+    public int getMaxSpans() {
+        return maxSpans;
+    }
+
+    public void setMaxSpans(int maxSpans) {
+        this.maxSpans = maxSpans;
+    }
+
+    public String getExportFile() {
+        return exportFile;
+    }
+
+    public void setExportFile(String exportFile) {
+        this.exportFile = exportFile;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.api_gateway.config;
+
+import com.example.api_gateway.client.UpstreamClients;
+import com.example.api_gateway.client.UpstreamInstances;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(UpstreamClientProperties.class)
+public class UpstreamClientConfig {
+
+    @Bean
+    public UpstreamClients upstreamClients(UpstreamClientProperties properties,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new UpstreamClients(properties, meterRegistry);
+    }
+
+    @Bean
+    public UpstreamInstances upstreamInstances(DiscoveryClient discoveryClient,
+            UpstreamClientProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new UpstreamInstances(discoveryClient, properties, meterRegistry.getIfAvailable());
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Connection pool and timeout settings for calls from the gateway to upstream
+ * services. Values under {@code gateway.upstream.defaults} apply to every
+ * service; entries under {@code gateway.upstream.services.<service-id>}
+ * override individual values for one service.
+ */
+@ConfigurationProperties(prefix = "gateway.upstream")
+public class UpstreamClientProperties {
+
+    /**
+     * Settings shared by every upstream service.
+     */
+    private Pool defaults = Pool.builtIn();
+
+    /**
+     * Per-service overrides keyed by lower-case service id (e.g. plan-service).
+     */
+    private Map<String, Pool> services = new LinkedHashMap<>();
+
+    /**
+     * Direct base URLs used when a service has no instance registered in
+     * Eureka, keyed by lower-case service id.
+     */
+    private Map<String, String> fallbackUrls = new LinkedHashMap<>();
+
+    /**
+     * Longest time a cached instance list is used before it is read from
+     * discovery again. Registry change events refresh it sooner.
+     */
+    private Duration instanceRefreshInterval = Duration.ofSeconds(30);
+
+    public Pool getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Pool defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Pool> getServices() {
+        return services;
+    }
+
+    public void setServices(Map<String, Pool> services) {
+        this.services = services;
+    }
+
+    public Map<String, String> getFallbackUrls() {
+        return fallbackUrls;
+    }
+
+    public void setFallbackUrls(Map<String, String> fallbackUrls) {
+        this.fallbackUrls = fallbackUrls;
+    }
+
+    public Duration getInstanceRefreshInterval() {
+        return instanceRefreshInterval;
+    }
+
+    public void setInstanceRefreshInterval(Duration instanceRefreshInterval) {
+        this.instanceRefreshInterval = instanceRefreshInterval;
+    }
+
+    /**
+     * Direct base URL for a service that is missing from Eureka.
+     *
+     * @param serviceId the service id (case-insensitive)
+     * @return the fallback base URL, or null if none is configured
+     */
+    public String fallbackUrl(String serviceId) {
+        return fallbackUrls.get(serviceId.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Resolve the effective settings for a service, falling back to the
+     * defaults for every value the service does not override.
+     *
+     * @param serviceId the service id as registered in Eureka
+     * @return the merged settings
+     */
+    public Pool resolve(String serviceId) {
+        Pool override = services.get(serviceId.toLowerCase(Locale.ROOT));
+        if (override == null) {
+            return defaults;
+        }
+        Pool merged = new Pool();
+        merged.setConnectTimeout(pick(override.getConnectTimeout(), defaults.getConnectTimeout()));
+        merged.setReadTimeout(pick(override.getReadTimeout(), defaults.getReadTimeout()));
+        merged.setConnectionRequestTimeout(
+                pick(override.getConnectionRequestTimeout(), defaults.getConnectionRequestTimeout()));
+        merged.setKeepAlive(pick(override.getKeepAlive(), defaults.getKeepAlive()));
+        merged.setMaxConnections(pick(override.getMaxConnections(), defaults.getMaxConnections()));
+        merged.setMaxConnectionsPerRoute(
+                pick(override.getMaxConnectionsPerRoute(), defaults.getMaxConnectionsPerRoute()));
+        merged.setHttp2(pick(override.getHttp2(), defaults.getHttp2()));
+        return merged;
+    }
+
+    private static <T> T pick(T value, T fallback) {
+        return value != null ? value : fallback;
+    }
+
+    /**
+     * Pool and timeout settings for one upstream service. A null value means
+     * "inherit from defaults".
+     */
+    public static class Pool {
+
+        /**
+         * Time allowed to establish a TCP connection.
+         */
+        private Duration connectTimeout;
+
+        /**
+         * Time allowed between bytes of the upstream response.
+         */
+        private Duration readTimeout;
+
+        /**
+         * Time to wait for a free pooled connection before failing.
+         */
+        private Duration connectionRequestTimeout;
+
+        /**
+         * How long an idle connection is kept open for reuse.
+         */
+        private Duration keepAlive;
+
+        /**
+         * Maximum open connections to the service across all instances.
+         */
+        private Integer maxConnections;
+
+        /**
+         * Maximum open connections to a single service instance.
+         */
+        private Integer maxConnectionsPerRoute;
+
+        /**
+         * Call the service over HTTP/2 from buffered routes: plain http
+         * connections are upgraded to h2c and requests to an instance are
+         * multiplexed over one connection. Falls back to HTTP/1.1 if the
+         * service does not upgrade. Passthrough routes always use the pool.
+         * The HTTP/2 client has no pool: max-connections, max-connections-per-route
+         * and connection-request-timeout bound passthrough calls only, and
+         * buffered calls get no connect phase in Server-Timing.
+         */
+        private Boolean http2;
+
+        static Pool builtIn() {
+            Pool pool = new Pool();
+            pool.setConnectTimeout(Duration.ofSeconds(2));
+            pool.setReadTimeout(Duration.ofSeconds(30));
+            pool.setConnectionRequestTimeout(Duration.ofSeconds(1));
+            pool.setKeepAlive(Duration.ofSeconds(30));
+            pool.setMaxConnections(200);
+            pool.setMaxConnectionsPerRoute(50);
+            pool.setHttp2(false);
+            return pool;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public Duration getConnectionRequestTimeout() {
+            return connectionRequestTimeout;
+        }
+
+        public void setConnectionRequestTimeout(Duration connectionRequestTimeout) {
+            this.connectionRequestTimeout = connectionRequestTimeout;
+        }
+
+        public Duration getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public Integer getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(Integer maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Integer getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+
+        public void setMaxConnectionsPerRoute(Integer maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        }
+
+        public Boolean getHttp2() {
+            return http2;
+        }
+
+        public void setHttp2(Boolean http2) {
+            this.http2 = http2;
+        }
+    }
+}
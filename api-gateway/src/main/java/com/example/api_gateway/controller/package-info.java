@@ -1,4 +0,0 @@
-/**
- * Controller package for api-gateway.
- */
-package com.example.api_gateway.controller;
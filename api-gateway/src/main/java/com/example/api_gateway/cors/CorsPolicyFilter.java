@@ -0,0 +1,210 @@
+package com.example.api_gateway.cors;
+
+import com.example.api_gateway.routing.CompiledRoute;
+import com.example.api_gateway.routing.RouteMatch;
+import com.example.api_gateway.routing.RouteTable;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies the gateway's CORS configuration without Spring's per-request CORS
+ * processing. Everything that does not depend on the request is computed
+ * once: the Allow-Methods value of every route, from the methods the route
+ * table serves on its path, and the Expose-Headers, Max-Age and Credentials
+ * values of the configuration.
+ * <p>
+ * A preflight is answered here and never reaches the dispatcher. Its route
+ * is looked up in the route table with the requested method; preflights for
+ * paths outside the route table (aggregates, /batch, actuator) are answered
+ * with the configuration's methods. Actual cross-origin requests get their
+ * Allow-Origin header and continue down the chain.
+ * <p>
+ * Requests are counted in {@code gateway.cors.requests}, tagged with a type
+ * of preflight, cors or plain, and preflights again in
+ * {@code gateway.cors.preflights}, tagged with the route ("none" outside the
+ * route table) and a result of answered or rejected.
+ */
+public class CorsPolicyFilter extends OncePerRequestFilter {
+
+    private static final String PREFLIGHT_VARY = String.join(", ", HttpHeaders.ORIGIN,
+            HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+    private static final byte[] REJECTED = "Invalid CORS request".getBytes(StandardCharsets.UTF_8);
+
+    private final CorsConfiguration configuration;
+    private final RouteTable routeTable;
+    private final boolean anyHeader;
+    private final boolean credentials;
+    private final String exposedHeaders;
+    private final String maxAge;
+    private final Map<String, Policy> policies = new HashMap<>();
+    private final Policy outsideRouteTable;
+    private final Counter preflights;
+    private final Counter cors;
+    private final Counter plain;
+
+    /**
+     * Create the filter.
+     *
+     * @param configuration the allowed origins, methods and headers
+     * @param routeTable    the routes whose preflights are answered per route
+     * @param meterRegistry registry for CORS metrics
+     */
+    public CorsPolicyFilter(CorsConfiguration configuration, RouteTable routeTable, MeterRegistry meterRegistry) {
+        this.configuration = configuration;
+        this.routeTable = routeTable;
+        List<String> allowedHeaders = configuration.getAllowedHeaders();
+        this.anyHeader = allowedHeaders != null && allowedHeaders.contains(CorsConfiguration.ALL);
+        this.credentials = Boolean.TRUE.equals(configuration.getAllowCredentials());
+        this.exposedHeaders = configuration.getExposedHeaders() != null
+                ? String.join(", ", configuration.getExposedHeaders()) : null;
+        this.maxAge = configuration.getMaxAge() != null ? configuration.getMaxAge().toString() : null;
+
+        Map<String, Set<String>> methodsByPath = new LinkedHashMap<>();
+        for (CompiledRoute route : routeTable.getRoutes()) {
+            methodsByPath.computeIfAbsent(pathKey(route), path -> new LinkedHashSet<>())
+                    .add(route.getMethod().name());
+        }
+        for (CompiledRoute route : routeTable.getRoutes()) {
+            Set<String> methods = methodsByPath.get(pathKey(route));
+            policies.put(route.getId(), new Policy(String.join(", ", methods),
+                    preflightCounter(meterRegistry, route.getId(), "answered"),
+                    preflightCounter(meterRegistry, route.getId(), "rejected")));
+        }
+        List<String> allowedMethods = configuration.getAllowedMethods();
+        this.outsideRouteTable = new Policy(allowedMethods != null ? String.join(", ", allowedMethods) : "",
+                preflightCounter(meterRegistry, "none", "answered"),
+                preflightCounter(meterRegistry, "none", "rejected"));
+
+        this.preflights = requestCounter(meterRegistry, "preflight");
+        this.cors = requestCounter(meterRegistry, "cors");
+        this.plain = requestCounter(meterRegistry, "plain");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String origin = request.getHeader(HttpHeaders.ORIGIN);
+        if (origin == null) {
+            plain.increment();
+            chain.doFilter(request, response);
+            return;
+        }
+        if (CorsUtils.isPreFlightRequest(request)) {
+            preflights.increment();
+            preflight(request, response, origin);
+            return;
+        }
+        if (!CorsUtils.isCorsRequest(request)) {
+            plain.increment();
+            chain.doFilter(request, response);
+            return;
+        }
+        cors.increment();
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ORIGIN);
+        String allowedOrigin = configuration.checkOrigin(origin);
+        if (allowedOrigin == null) {
+            reject(response);
+            return;
+        }
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, allowedOrigin);
+        if (credentials) {
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+        }
+        if (exposedHeaders != null) {
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, exposedHeaders);
+        }
+        chain.doFilter(request, response);
+    }
+
+    private void preflight(HttpServletRequest request, HttpServletResponse response, String origin)
+            throws IOException {
+        response.addHeader(HttpHeaders.VARY, PREFLIGHT_VARY);
+        String method = request.getHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD);
+        RouteMatch match = routeTable.match(method, request.getRequestURI());
+        Policy policy = match != null ? policies.get(match.route().getId()) : outsideRouteTable;
+
+        String allowedOrigin = configuration.checkOrigin(origin);
+        // A route-table match means the method is served on the path
+        boolean allowed = allowedOrigin != null
+                && (match != null || configuration.checkHttpMethod(HttpMethod.valueOf(method)) != null);
+        String headers = request.getHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+        if (allowed && headers != null && !anyHeader) {
+            List<String> allowedHeaders = configuration.checkHeaders(
+                    Arrays.asList(StringUtils.tokenizeToStringArray(headers, ",")));
+            allowed = allowedHeaders != null;
+            headers = allowed ? String.join(", ", allowedHeaders) : null;
+        }
+        if (!allowed) {
+            policy.rejected().increment();
+            reject(response);
+            return;
+        }
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, allowedOrigin);
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS, policy.allowMethods());
+        if (StringUtils.hasText(headers)) {
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, headers);
+        }
+        if (credentials) {
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+        }
+        if (maxAge != null) {
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_MAX_AGE, maxAge);
+        }
+        policy.answered().increment();
+    }
+
+    private static void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.FORBIDDEN.value());
+        response.getOutputStream().write(REJECTED);
+        response.flushBuffer();
+    }
+
+    /**
+     * The route's path with variable names dropped, so /users/{id} and
+     * /users/{userId} count as one path.
+     */
+    private static String pathKey(CompiledRoute route) {
+        return route.getPath().replaceAll("\\{[^}]*}", "{}");
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("gateway.cors.requests")
+                .description("Requests by CORS type")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private static Counter preflightCounter(MeterRegistry meterRegistry, String route, String result) {
+        return Counter.builder("gateway.cors.preflights")
+                .description("CORS preflights answered by the gateway")
+                .tag("route", route)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Policy(String allowMethods, Counter answered, Counter rejected) {
+    }
+}
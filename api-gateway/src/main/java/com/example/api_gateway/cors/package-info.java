@@ -0,0 +1,5 @@
+/**
+ * CORS at the api-gateway edge: preflights answered from a per-route policy
+ * table computed at startup, and cross-origin headers on actual requests.
+ */
+package com.example.api_gateway.cors;
@@ -0,0 +1,201 @@
+package com.example.api_gateway.hedging;
+
+import com.example.api_gateway.client.UpstreamInstance;
+import com.example.api_gateway.client.UpstreamInstances;
+import com.example.api_gateway.config.HedgingProperties;
+import com.example.api_gateway.resilience.CallBudget;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Hedges the upstream calls of idempotent routes. A call goes to the
+ * instance chosen for it as usual; if it has not answered after the route's
+ * latency percentile (at least {@code min-delay}), a second call goes to
+ * another instance of the service, the first answer wins and the other call
+ * is cancelled. A call that fails outright is no answer: the other one is
+ * awaited.
+ * <p>
+ * The percentile is taken over the route's recent first calls, and a route
+ * is hedged once it has {@code min-samples} of them. Second calls to a
+ * service are capped by a {@link CallBudget} of {@code budget} per regular
+ * call. Both calls run on virtual threads; the losing one is interrupted,
+ * which closes its connection or resets its HTTP/2 stream.
+ * <p>
+ * Calls slow enough to hedge are counted in {@code gateway.hedging.requests},
+ * tagged with the route and a result of won (the second call answered
+ * first), lost, budget_exhausted or no_instance (nowhere else to send it).
+ * {@code gateway.hedging.delay} is the current delay of each route.
+ */
+public class Hedging implements DisposableBean {
+
+    private final HedgingProperties properties;
+    private final UpstreamInstances upstreamInstances;
+    private final MeterRegistry meterRegistry;
+    private final long minDelayNanos;
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("gateway-hedge-", 0).factory());
+    private final Map<String, RouteHedging> routes = new ConcurrentHashMap<>();
+    private final Map<String, CallBudget> budgets = new ConcurrentHashMap<>();
+
+    /**
+     * Create the hedger.
+     *
+     * @param properties        delay, window and budget settings
+     * @param upstreamInstances chooses the instance of second calls
+     * @param meterRegistry     registry for hedging metrics
+     */
+    public Hedging(HedgingProperties properties, UpstreamInstances upstreamInstances, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.upstreamInstances = upstreamInstances;
+        this.meterRegistry = meterRegistry;
+        this.minDelayNanos = properties.getMinDelay().toNanos();
+    }
+
+    /**
+     * Whether hedged routes send second calls at all.
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Make a call, hedged if it turns out slow. The call must be idempotent
+     * and must give up when its thread is interrupted.
+     *
+     * @param routeId   the route, whose latencies set the delay
+     * @param serviceId the upstream service, whose budget pays for second calls
+     * @param primary   the instance of the first call
+     * @param call      makes the call to an instance
+     * @param <T>       the call's result
+     * @return the first answer
+     */
+    public <T> T execute(String routeId, String serviceId, UpstreamInstance primary,
+            Function<UpstreamInstance, T> call) {
+        RouteHedging route = route(routeId);
+        CallBudget budget = budget(serviceId);
+        budget.deposit();
+        long threshold = route.window().percentile();
+        if (threshold < 0) {
+            // Too few samples to tell a slow call from a usual one yet
+            return timed(route, primary, call);
+        }
+
+        ExecutorCompletionService<T> race = new ExecutorCompletionService<>(executor);
+        Future<T> first = race.submit(() -> timed(route, primary, call));
+        Future<T> second = null;
+        try {
+            if (race.poll(Math.max(minDelayNanos, threshold), TimeUnit.NANOSECONDS) != null) {
+                return result(first);
+            }
+            UpstreamInstance other = upstreamInstances.chooseOther(serviceId, primary);
+            if (other == null) {
+                route.noInstance().increment();
+                return result(first);
+            }
+            if (!budget.tryWithdraw()) {
+                route.budgetExhausted().increment();
+                return result(first);
+            }
+            second = race.submit(() -> call.apply(other));
+            Future<T> winner = race.take();
+            Future<T> loser = winner == first ? second : first;
+            if (winner.state() == Future.State.FAILED) {
+                race.take();
+                if (loser.state() == Future.State.SUCCESS) {
+                    winner = loser;
+                }
+            } else {
+                loser.cancel(true);
+            }
+            (winner == second ? route.won() : route.lost()).increment();
+            return result(winner);
+        } catch (InterruptedException e) {
+            first.cancel(true);
+            if (second != null) {
+                second.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted while waiting for " + serviceId);
+        }
+    }
+
+    /**
+     * A first call, whose duration goes into the route's window. A call
+     * cancelled for a faster hedge counts with the time it had taken so far,
+     * which is beyond the delay and so still in the tail.
+     */
+    private static <T> T timed(RouteHedging route, UpstreamInstance instance, Function<UpstreamInstance, T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.apply(instance);
+        } finally {
+            route.window().record(System.nanoTime() - start);
+        }
+    }
+
+    private static <T> T result(Future<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException failure) {
+                throw failure;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private CallBudget budget(String serviceId) {
+        return budgets.computeIfAbsent(serviceId.toLowerCase(Locale.ROOT),
+                id -> new CallBudget(properties.getBudget(), properties.getBurst()));
+    }
+
+    private RouteHedging route(String routeId) {
+        return routes.computeIfAbsent(routeId, id -> {
+            LatencyWindow window = new LatencyWindow(properties.getWindow(), properties.getPercentile(),
+                    properties.getMinSamples());
+            TimeGauge.builder("gateway.hedging.delay", window, TimeUnit.NANOSECONDS,
+                            w -> w.percentile() < 0 ? Double.NaN : Math.max(minDelayNanos, w.percentile()))
+                    .description("Time after which a call of a hedged route gets a second call")
+                    .tag("route", id)
+                    .register(meterRegistry);
+            return new RouteHedging(window, counter(id, "won"), counter(id, "lost"),
+                    counter(id, "budget_exhausted"), counter(id, "no_instance"));
+        });
+    }
+
+    private Counter counter(String routeId, String result) {
+        return Counter.builder("gateway.hedging.requests")
+                .description("Calls of hedged routes slow enough to hedge, by result")
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private record RouteHedging(LatencyWindow window, Counter won, Counter lost, Counter budgetExhausted,
+            Counter noInstance) {
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.api_gateway.hedging;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The most recent call latencies of one route and a percentile of them.
+ * Samples go into a ring without locking; the percentile is recomputed from
+ * a sorted copy of the ring every {@link #RECOMPUTE_EVERY} samples by the
+ * caller that records the last of them, and read as a plain volatile.
+ */
+final class LatencyWindow {
+
+    /**
+     * Samples between two recomputations of the percentile.
+     */
+    static final int RECOMPUTE_EVERY = 32;
+
+    private final AtomicLongArray samples;
+    private final AtomicLong recorded = new AtomicLong();
+    private final double percentile;
+    private final int minSamples;
+    private volatile long value = -1;
+
+    /**
+     * Create an empty window.
+     *
+     * @param size       samples kept
+     * @param percentile the percentile to track, e.g. 0.95
+     * @param minSamples samples needed before the percentile is known
+     */
+    LatencyWindow(int size, double percentile, int minSamples) {
+        if (size < 1 || minSamples > size || percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("Latency window needs 0 < percentile <= 1 and min-samples <= window");
+        }
+        this.samples = new AtomicLongArray(size);
+        this.percentile = percentile;
+        this.minSamples = Math.max(1, minSamples);
+    }
+
+    /**
+     * Add one latency.
+     *
+     * @param nanos the call's duration
+     */
+    void record(long nanos) {
+        long count = recorded.incrementAndGet();
+        samples.set((int) ((count - 1) % samples.length()), nanos);
+        if (count >= minSamples && (count % RECOMPUTE_EVERY == 0 || count == minSamples)) {
+            recompute((int) Math.min(count, samples.length()));
+        }
+    }
+
+    /**
+     * The tracked percentile of the window, as of its last recomputation.
+     *
+     * @return nanoseconds, or -1 until min-samples latencies were recorded
+     */
+    long percentile() {
+        return value;
+    }
+
+    private void recompute(int size) {
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        value = sorted[Math.max(0, (int) Math.ceil(percentile * size) - 1)];
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Request hedging for idempotent api-gateway routes: a call slower than the
+ * route's usual tail latency is raced against a second one to another
+ * instance.
+ */
+package com.example.api_gateway.hedging;
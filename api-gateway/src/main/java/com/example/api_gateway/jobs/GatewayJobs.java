@@ -0,0 +1,177 @@
+package com.example.api_gateway.jobs;
+
+import com.example.api_gateway.cache.BufferedResponse;
+import com.example.api_gateway.config.JobsProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs upstream calls of async routes in the background and keeps their
+ * responses until they are fetched or expire.
+ * <p>
+ * Calls run on virtual threads, at most {@code max-concurrent} at a time,
+ * with up to {@code max-queued} waiting; beyond that submissions are
+ * refused. Jobs live in a Caffeine cache bounded by the total size of their
+ * bodies; a job expires {@code ttl} after it was submitted or, once done,
+ * after it finished.
+ * <p>
+ * Submissions are counted in {@code gateway.jobs.requests}, tagged with the
+ * route and a result of accepted or rejected; {@code gateway.jobs.running},
+ * {@code gateway.jobs.queued} and {@code gateway.jobs.stored} are gauges.
+ */
+public class GatewayJobs implements DisposableBean {
+
+    private final boolean enabled;
+    private final Duration maxWait;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, Job> jobs;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteMeters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * Create the executor and the store.
+     *
+     * @param properties    limits and expiry
+     * @param meterRegistry registry for job metrics
+     */
+    public GatewayJobs(JobsProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.maxWait = properties.getMaxWait();
+        this.executor = new ThreadPoolExecutor(properties.getMaxConcurrent(), properties.getMaxConcurrent(),
+                30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(properties.getMaxQueued()),
+                Thread.ofVirtual().name("gateway-job-", 0).factory());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.jobs = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((String id, Job job) -> id.length() + job.weight())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("gateway.jobs.running", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Async route calls in progress")
+                .register(meterRegistry);
+        Gauge.builder("gateway.jobs.queued", executor, e -> e.getQueue().size())
+                .description("Async route calls waiting for the job executor")
+                .register(meterRegistry);
+        Gauge.builder("gateway.jobs.stored", jobs, Cache::estimatedSize)
+                .description("Jobs held by the gateway, running or with a result")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether async routes accept jobs at all.
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start a job.
+     *
+     * @param routeId the route whose upstream call the job makes
+     * @param owner   the verified user submitting it, or null
+     * @param call    the upstream call, run on the job executor
+     * @return the job, already stored
+     * @throws RejectedExecutionException if the executor and its queue are full
+     */
+    public Job submit(String routeId, String owner, Supplier<BufferedResponse> call) {
+        Job job = new Job(UUID.randomUUID().toString(), routeId, owner);
+        jobs.put(job.id(), job);
+        RouteMeters routeMeters = meters(routeId);
+        try {
+            executor.execute(() -> run(job, call));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.id());
+            routeMeters.rejected().increment();
+            throw e;
+        }
+        routeMeters.accepted().increment();
+        return job;
+    }
+
+    /**
+     * Look a job up for a caller. A job submitted with a verified user is
+     * only visible to that user.
+     *
+     * @param id     the job id
+     * @param caller the verified user asking, or null
+     * @return the job, or null if unknown, expired or someone else's
+     */
+    public Job find(String id, String caller) {
+        Job job = jobs.getIfPresent(id);
+        if (job == null || job.owner() != null && !Objects.equals(job.owner(), caller)) {
+            return null;
+        }
+        return job;
+    }
+
+    /**
+     * How long a request may wait for a job's result.
+     *
+     * @param requested the requested wait in seconds, possibly null or invalid
+     * @return the wait, zero if none was requested, at most max-wait
+     */
+    public Duration waitTime(String requested) {
+        if (requested == null) {
+            return Duration.ZERO;
+        }
+        try {
+            Duration wait = Duration.ofSeconds(Math.max(0, Long.parseLong(requested.trim())));
+            return wait.compareTo(maxWait) > 0 ? maxWait : wait;
+        } catch (NumberFormatException e) {
+            return Duration.ZERO;
+        }
+    }
+
+    private void run(Job job, Supplier<BufferedResponse> call) {
+        try {
+            job.result().complete(call.get());
+        } catch (Throwable e) {
+            // Errors too, or pollers would see the job running until it expires
+            job.result().completeExceptionally(e);
+            if (e instanceof Error error) {
+                throw error;
+            }
+        } finally {
+            // Weigh the result and start its time to live, unless the job was evicted meanwhile
+            jobs.asMap().replace(job.id(), job, job);
+        }
+    }
+
+    private RouteMeters meters(String routeId) {
+        return meters.computeIfAbsent(routeId, id -> new RouteMeters(counter(id, "accepted"), counter(id, "rejected")));
+    }
+
+    private Counter counter(String routeId, String result) {
+        return Counter.builder("gateway.jobs.requests")
+                .description("Async route calls submitted as jobs, by outcome")
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private record RouteMeters(Counter accepted, Counter rejected) {
+    }
+}
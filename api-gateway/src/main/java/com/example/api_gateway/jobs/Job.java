@@ -0,0 +1,77 @@
+package com.example.api_gateway.jobs;
+
+import com.example.api_gateway.cache.BufferedResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One upstream call accepted for asynchronous execution, and its result once
+ * it is done.
+ */
+public final class Job {
+
+    private final String id;
+    private final String routeId;
+    private final String owner;
+    private final CompletableFuture<BufferedResponse> result = new CompletableFuture<>();
+
+    Job(String id, String routeId, String owner) {
+        this.id = id;
+        this.routeId = routeId;
+        this.owner = owner;
+    }
+
+    /**
+     * The job id, random and unguessable.
+     *
+     * @return the id
+     */
+    public String id() {
+        return id;
+    }
+
+    /**
+     * The route whose upstream call the job makes.
+     *
+     * @return the route id
+     */
+    public String routeId() {
+        return routeId;
+    }
+
+    /**
+     * The verified user who submitted the job.
+     *
+     * @return the user id, or null for an anonymous job
+     */
+    public String owner() {
+        return owner;
+    }
+
+    /**
+     * The upstream response, completed exceptionally if the call failed.
+     *
+     * @return the result future
+     */
+    public CompletableFuture<BufferedResponse> result() {
+        return result;
+    }
+
+    /**
+     * Whether the upstream call has finished, successfully or not.
+     *
+     * @return true once the result is available
+     */
+    public boolean isDone() {
+        return result.isDone();
+    }
+
+    /**
+     * Size counted against the store bound: the body of a finished job plus
+     * a rough allowance for the rest.
+     */
+    int weight() {
+        BufferedResponse response = result.isDone() && !result.isCompletedExceptionally() ? result.join() : null;
+        return (response != null && response.body() != null ? response.body().length : 0) + 256;
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Job-style asynchronous execution of long-running api-gateway routes, with
+ * a bounded executor and a bounded, expiring result store.
+ */
+package com.example.api_gateway.jobs;
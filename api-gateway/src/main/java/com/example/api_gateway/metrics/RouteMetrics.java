@@ -0,0 +1,74 @@
+package com.example.api_gateway.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of gateway routes, published as {@code gateway.route.requests}
+ * with a percentile histogram and tagged with the route id, its path
+ * template (uri), the upstream service, the instance that served the call
+ * and the outcome of the response status.
+ * <p>
+ * The instance is none for requests answered without an upstream call of
+ * their own: cache hits, coalesced joiners and fail-fast rejections.
+ */
+public class RouteMetrics {
+
+    private static final String NO_INSTANCE = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean serverTiming;
+    private final Map<Key, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Create the recorder.
+     *
+     * @param meterRegistry registry for the route timers
+     * @param serverTiming  whether responses carry a Server-Timing header
+     */
+    public RouteMetrics(MeterRegistry meterRegistry, boolean serverTiming) {
+        this.meterRegistry = meterRegistry;
+        this.serverTiming = serverTiming;
+    }
+
+    /**
+     * Whether responses carry a Server-Timing header with the phase breakdown.
+     *
+     * @return true if enabled
+     */
+    public boolean isServerTiming() {
+        return serverTiming;
+    }
+
+    /**
+     * Record one request.
+     *
+     * @param routeId   the route id
+     * @param uri       the route's path template
+     * @param serviceId the upstream service
+     * @param timing    the request's timing, for the instance and the duration
+     * @param status    the response status sent to the client
+     */
+    public void record(String routeId, String uri, String serviceId, ServerTiming timing, int status) {
+        String instance = timing.instance() != null ? timing.instance() : NO_INSTANCE;
+        Key key = new Key(routeId, instance, Outcome.forStatus(status));
+        timers.computeIfAbsent(key, k -> Timer.builder("gateway.route.requests")
+                        .description("Time spent by the gateway on a route request, up to the response headers")
+                        .tag("route", routeId)
+                        .tag("uri", uri)
+                        .tag("service", serviceId)
+                        .tag("instance", instance)
+                        .tag("outcome", k.outcome().name())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(timing.elapsedNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private record Key(String routeId, String instance, Outcome outcome) {
+    }
+}
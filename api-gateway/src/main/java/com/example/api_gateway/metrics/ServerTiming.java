@@ -0,0 +1,140 @@
+package com.example.api_gateway.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Phase breakdown of one gateway request. The request is split by
+ * {@link #mark(String) marks}: each mark charges the time since the previous
+ * one to a phase. The same phase may be marked more than once and its times
+ * add up.
+ * <p>
+ * While the pipeline works on a request the timing is {@link #bind bound}
+ * to the thread, so that code without access to the request (the upstream
+ * HTTP client) can mark phases too. Not thread-safe: a timing belongs to the
+ * request thread.
+ */
+public final class ServerTiming {
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private final long start;
+    private long last;
+    private String[] phases = new String[8];
+    private long[] nanos = new long[8];
+    private int size;
+    private String instance;
+
+    private ServerTiming(long start) {
+        this.start = start;
+        this.last = start;
+    }
+
+    /**
+     * Start timing a request now.
+     *
+     * @return the new timing
+     */
+    public static ServerTiming start() {
+        return new ServerTiming(System.nanoTime());
+    }
+
+    /**
+     * The timing bound to the current thread.
+     *
+     * @return the timing, or null outside of a forwarded request
+     */
+    public static ServerTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Bind a timing to the current thread until {@link #unbind()}.
+     *
+     * @param timing the request's timing
+     */
+    public static void bind(ServerTiming timing) {
+        CURRENT.set(timing);
+    }
+
+    /**
+     * Remove the timing bound to the current thread.
+     */
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Charge the time since the previous mark to a phase.
+     *
+     * @param phase the phase name, a Server-Timing metric name
+     */
+    public void mark(String phase) {
+        long now = System.nanoTime();
+        long elapsed = now - last;
+        last = now;
+        for (int i = 0; i < size; i++) {
+            if (phases[i].equals(phase)) {
+                nanos[i] += elapsed;
+                return;
+            }
+        }
+        if (size == phases.length) {
+            phases = Arrays.copyOf(phases, size * 2);
+            nanos = Arrays.copyOf(nanos, size * 2);
+        }
+        phases[size] = phase;
+        nanos[size++] = elapsed;
+    }
+
+    /**
+     * Record the upstream instance that served the request.
+     *
+     * @param instance instance key, host:port
+     */
+    public void instance(String instance) {
+        this.instance = instance;
+    }
+
+    /**
+     * The upstream instance that served the request.
+     *
+     * @return the instance key, or null if no upstream call was made
+     */
+    public String instance() {
+        return instance;
+    }
+
+    /**
+     * Time since the request started.
+     *
+     * @return elapsed nanoseconds
+     */
+    public long elapsedNanos() {
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Render the phases and the total so far as a Server-Timing header
+     * value, e.g. {@code choose;dur=0.021, upstream;dur=12.402, total;dur=12.61}.
+     * Durations are in milliseconds.
+     *
+     * @return the header value
+     */
+    public String header() {
+        StringBuilder header = new StringBuilder(24 * (size + 1));
+        for (int i = 0; i < size; i++) {
+            append(header, phases[i], nanos[i]).append(", ");
+        }
+        return append(header, "total", elapsedNanos()).toString();
+    }
+
+    private static StringBuilder append(StringBuilder header, String phase, long nanos) {
+        long micros = nanos / 1000;
+        header.append(phase).append(";dur=").append(micros / 1000).append('.');
+        long fraction = micros % 1000;
+        if (fraction < 100) {
+            header.append(fraction < 10 ? "00" : "0");
+        }
+        return header.append(fraction);
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Per-route latency metrics and the Server-Timing phase breakdown of
+ * api-gateway requests.
+ */
+package com.example.api_gateway.metrics;
@@ -0,0 +1,19 @@
+package com.example.api_gateway.ratelimit;
+
+/**
+ * What a rate-limit policy counts requests by.
+ */
+public enum RateLimitKey {
+
+    /**
+     * The client address as seen by the gateway.
+     */
+    IP,
+
+    /**
+     * The caller: the subject of a verified bearer token, or X-User-Id when
+     * the gateway does not verify tokens. Anonymous requests are counted by
+     * client address.
+     */
+    USER
+}
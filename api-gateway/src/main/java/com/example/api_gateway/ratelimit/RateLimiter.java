@@ -0,0 +1,164 @@
+package com.example.api_gateway.ratelimit;
+
+import com.example.api_gateway.config.RateLimitProperties;
+import com.example.api_gateway.routing.CompiledRoute;
+import com.example.api_gateway.routing.DecoratedResponse;
+import com.example.api_gateway.security.EdgeAuthenticator;
+import com.example.api_gateway.security.Identity;
+import com.example.api_gateway.security.IdentityHeaders;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.function.HandlerFilterFunction;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Per-route rate limits for routes that trigger expensive work upstream
+ * (password hashing, mail, LLM calls). Each named policy has its own
+ * {@link TokenBucketTable}; routes refer to a policy with {@code rate-limit}
+ * in gateway-routes.yml, and routes sharing a policy share its buckets.
+ * <p>
+ * Requests over the limit are answered with 429 and Retry-After without
+ * reaching admission control or the upstream. Every response of a limited
+ * route carries X-RateLimit-Limit and X-RateLimit-Remaining.
+ * <p>
+ * Limits are per gateway instance. Counted in {@code gateway.ratelimit.requests},
+ * tagged with the policy and a result of allowed or limited.
+ */
+public class RateLimiter {
+
+    static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private static final byte[] LIMITED_BODY =
+            "{\"success\":false,\"message\":\"Too many requests, please retry later\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private final boolean enabled;
+    private final EdgeAuthenticator edgeAuthenticator;
+    private final Map<String, Policy> routePolicies = new HashMap<>();
+
+    /**
+     * Create the limiter and resolve the policy of every route.
+     *
+     * @param properties        policies and table size
+     * @param routes            the route table's routes
+     * @param edgeAuthenticator resolves the caller for USER policies
+     * @param meterRegistry     registry for rate-limit metrics
+     */
+    public RateLimiter(RateLimitProperties properties, List<CompiledRoute> routes,
+            EdgeAuthenticator edgeAuthenticator, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.edgeAuthenticator = edgeAuthenticator;
+        Map<String, Policy> policies = new HashMap<>();
+        properties.getPolicies().forEach((name, settings) -> policies.put(name,
+                new Policy(name, settings.getKey(), table(properties.getSlots(), settings),
+                        counter(meterRegistry, name, "allowed"), counter(meterRegistry, name, "limited"))));
+        for (CompiledRoute route : routes) {
+            String name = route.getDefinition().getRateLimit();
+            if (name == null) {
+                continue;
+            }
+            Policy policy = policies.get(name);
+            if (policy == null) {
+                throw new IllegalArgumentException("Route " + route.getId() + " uses unknown rate-limit " + name);
+            }
+            routePolicies.put(route.getId(), policy);
+        }
+    }
+
+    private static TokenBucketTable table(int slots, RateLimitProperties.Policy settings) {
+        long intervalMicros = settings.getPeriod().toNanos() / 1000 / settings.getCapacity();
+        return new TokenBucketTable(slots, settings.getCapacity(), intervalMicros);
+    }
+
+    /**
+     * Filter applying the route's policy, if it has one.
+     *
+     * @param route the route a request belongs to
+     * @return the rate-limit filter
+     */
+    public HandlerFilterFunction<ServerResponse, ServerResponse> filter(Function<ServerRequest, CompiledRoute> route) {
+        if (!enabled || routePolicies.isEmpty()) {
+            return (request, next) -> next.handle(request);
+        }
+        return (request, next) -> {
+            Policy policy = routePolicies.get(route.apply(request).getId());
+            if (policy == null) {
+                return next.handle(request);
+            }
+            TokenBucketTable table = policy.table();
+            long result = table.tryAcquire(hash(key(policy.key(), request)), table.now());
+            String limit = Integer.toString(table.capacity());
+            if (result < 0) {
+                policy.limited().increment();
+                long retryAfter = Math.max(1, TimeUnit.MICROSECONDS.toSeconds(-result + 999_999));
+                return ServerResponse.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(LIMIT_HEADER, limit)
+                        .header(REMAINING_HEADER, "0")
+                        .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(LIMITED_BODY);
+            }
+            policy.allowed().increment();
+            String remaining = Long.toString(result);
+            return DecoratedResponse.of(next.handle(request), response -> {
+                response.setHeader(LIMIT_HEADER, limit);
+                response.setHeader(REMAINING_HEADER, remaining);
+            });
+        };
+    }
+
+    private String key(RateLimitKey key, ServerRequest request) {
+        if (key == RateLimitKey.USER) {
+            String user;
+            if (edgeAuthenticator.isEnabled()) {
+                Identity identity = edgeAuthenticator.resolve(request.headers().firstHeader(HttpHeaders.AUTHORIZATION));
+                user = identity != null ? identity.userId() : null;
+            } else {
+                user = request.headers().firstHeader(IdentityHeaders.USER_ID);
+            }
+            if (user != null) {
+                return "u:" + user;
+            }
+        }
+        return "i:" + request.servletRequest().getRemoteAddr();
+    }
+
+    /**
+     * 64-bit hash of a key, mixed so that the low bits pick the slot and the
+     * high bits make the fingerprint.
+     */
+    static long hash(String key) {
+        long h = 1125899906842597L;
+        for (int i = 0; i < key.length(); i++) {
+            h = 31 * h + key.charAt(i);
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String policy, String result) {
+        return Counter.builder("gateway.ratelimit.requests")
+                .description("Requests to rate-limited routes")
+                .tag("policy", policy)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Policy(String name, RateLimitKey key, TokenBucketTable table, Counter allowed, Counter limited) {
+    }
+}
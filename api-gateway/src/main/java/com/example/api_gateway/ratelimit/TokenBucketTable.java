@@ -0,0 +1,113 @@
+package com.example.api_gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token buckets for any number of keys in a fixed amount of memory, updated
+ * without locks.
+ * <p>
+ * Each bucket is kept as its theoretical arrival time (GCRA): the time at
+ * which it would be full again. Taking a token moves that time one interval
+ * forward, and a request is refused when it would move it more than
+ * capacity intervals past now. A bucket is therefore one long, updated with
+ * a single compare-and-set.
+ * <p>
+ * Keys are hashed into a fixed table of slots; each slot holds a 16-bit key
+ * fingerprint and the arrival time in microseconds (48 bits, about eight
+ * years from the table's creation). A key may live in either of two
+ * neighbouring slots. When both hold other keys, the one whose bucket is
+ * fullest is taken over; the evicted key starts again with a full bucket,
+ * so an overfull table errs on the side of letting requests through.
+ * Contention is per slot, so threads only race when they hit the same key.
+ */
+final class TokenBucketTable {
+
+    private static final int FINGERPRINT_SHIFT = 48;
+    private static final long TIME_MASK = (1L << FINGERPRINT_SHIFT) - 1;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final int capacity;
+    private final long intervalMicros;
+    private final long burstMicros;
+    private final long origin = System.nanoTime();
+
+    /**
+     * Create the table.
+     *
+     * @param slots          number of slots, rounded up to a power of two
+     * @param capacity       tokens in a full bucket
+     * @param intervalMicros time to refill one token
+     */
+    TokenBucketTable(int slots, int capacity, long intervalMicros) {
+        if (capacity < 1 || intervalMicros < 1) {
+            throw new IllegalArgumentException("Rate limit needs at least one token per period");
+        }
+        int size = Integer.highestOneBit(Math.max(2, slots - 1)) << 1;
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.capacity = capacity;
+        this.intervalMicros = intervalMicros;
+        this.burstMicros = capacity * intervalMicros;
+    }
+
+    /**
+     * Current time on the table's clock.
+     *
+     * @return microseconds since the table was created
+     */
+    long now() {
+        return (System.nanoTime() - origin) / 1000;
+    }
+
+    /**
+     * Take a token from a key's bucket.
+     *
+     * @param hash 64-bit hash of the key
+     * @param now  the value of {@link #now()}
+     * @return tokens left after this request when it is allowed (0 or more),
+     *         otherwise minus the microseconds until a token is available
+     */
+    long tryAcquire(long hash, long now) {
+        int first = (int) hash & mask;
+        int second = first ^ 1;
+        long fingerprint = ((hash >>> FINGERPRINT_SHIFT) | 1) << FINGERPRINT_SHIFT;
+        while (true) {
+            long a = slots.get(first);
+            long b = slots.get(second);
+            int slot;
+            long state;
+            long arrival;
+            if ((a & ~TIME_MASK) == fingerprint) {
+                slot = first;
+                state = a;
+                arrival = Math.max(a & TIME_MASK, now);
+            } else if ((b & ~TIME_MASK) == fingerprint) {
+                slot = second;
+                state = b;
+                arrival = Math.max(b & TIME_MASK, now);
+            } else {
+                // New key: take over the slot whose bucket refills first (empty slots are 0)
+                boolean useFirst = (a & TIME_MASK) <= (b & TIME_MASK);
+                slot = useFirst ? first : second;
+                state = useFirst ? a : b;
+                arrival = now;
+            }
+            long next = arrival + intervalMicros;
+            long ahead = next - now;
+            if (ahead > burstMicros) {
+                return -(ahead - burstMicros);
+            }
+            if (slots.compareAndSet(slot, state, fingerprint | (next & TIME_MASK))) {
+                return (burstMicros - ahead) / intervalMicros;
+            }
+        }
+    }
+
+    /**
+     * Tokens in a full bucket.
+     */
+    int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Lock-free token-bucket rate limits for expensive api-gateway routes.
+ */
+package com.example.api_gateway.ratelimit;
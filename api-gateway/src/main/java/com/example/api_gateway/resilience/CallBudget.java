@@ -0,0 +1,64 @@
+package com.example.api_gateway.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the extra calls the gateway makes on its own, such as hedges, to a
+ * fraction of the regular calls to a service. Every regular call deposits
+ * that fraction of a token, every extra call withdraws a whole one, and the
+ * balance is capped so a quiet period cannot save up a flood.
+ * <p>
+ * Lock-free: the balance is a single atomic in thousandths of a token.
+ */
+public final class CallBudget {
+
+    private static final long TOKEN = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    /**
+     * Create a budget with a full balance.
+     *
+     * @param ratio extra calls allowed per regular call, e.g. 0.05
+     * @param burst extra calls allowed back to back
+     */
+    public CallBudget(double ratio, int burst) {
+        if (ratio < 0 || burst < 1) {
+            throw new IllegalArgumentException("Budget needs a ratio >= 0 and a burst >= 1");
+        }
+        this.deposit = Math.round(ratio * TOKEN);
+        this.capacity = burst * TOKEN;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    /**
+     * Credit one regular call.
+     */
+    public void deposit() {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= capacity) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(capacity, current + deposit)));
+    }
+
+    /**
+     * Take the allowance of one extra call.
+     *
+     * @return true if the call may be made
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+}
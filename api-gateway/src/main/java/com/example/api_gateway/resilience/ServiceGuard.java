@@ -0,0 +1,75 @@
+package com.example.api_gateway.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The circuit breaker and bulkhead of one upstream service. Every call to the
+ * service is bracketed by {@link #acquire()} and {@link #release(long, boolean)}.
+ */
+public final class ServiceGuard {
+
+    /**
+     * Recorded with failed calls; the breaker only counts it.
+     */
+    private static final Exception FAILURE = new Exception("upstream call failed", null, false, false) {
+    };
+
+    private final String serviceId;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Counter circuitOpenRejections;
+    private final Counter bulkheadFullRejections;
+
+    ServiceGuard(String serviceId, CircuitBreaker circuitBreaker, Bulkhead bulkhead,
+            Counter circuitOpenRejections, Counter bulkheadFullRejections) {
+        this.serviceId = serviceId;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.circuitOpenRejections = circuitOpenRejections;
+        this.bulkheadFullRejections = bulkheadFullRejections;
+    }
+
+    /**
+     * Take a bulkhead slot and a breaker permission for one call.
+     *
+     * @return the start time to pass to {@link #release(long, boolean)}
+     * @throws UpstreamRejectedException if the bulkhead is full or the breaker is open
+     */
+    public long acquire() {
+        if (!bulkhead.tryAcquirePermission()) {
+            bulkheadFullRejections.increment();
+            throw new UpstreamRejectedException(serviceId, "bulkhead_full");
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            bulkhead.onComplete();
+            circuitOpenRejections.increment();
+            throw new UpstreamRejectedException(serviceId, "circuit_open");
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Give back the slot taken by {@link #acquire()} and report the outcome
+     * to the breaker.
+     *
+     * @param start  the value returned by {@link #acquire()}
+     * @param failed whether the call failed (no response, or a 5xx)
+     */
+    public void release(long start, boolean failed) {
+        bulkhead.onComplete();
+        long elapsed = System.nanoTime() - start;
+        if (failed) {
+            circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS, FAILURE);
+        } else {
+            circuitBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public CircuitBreaker.State state() {
+        return circuitBreaker.getState();
+    }
+}
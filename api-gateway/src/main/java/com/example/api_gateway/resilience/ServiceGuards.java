@@ -0,0 +1,98 @@
+package com.example.api_gateway.resilience;
+
+import com.example.api_gateway.config.ResilienceProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of {@link ServiceGuard}s, one per upstream service, so a slow or
+ * failing service is cut off without holding gateway threads that cheap
+ * routes need.
+ * <p>
+ * Breaker state and call counts are published by Resilience4j as
+ * {@code resilience4j.circuitbreaker.*} and {@code resilience4j.bulkhead.*};
+ * rejections as {@code gateway.upstream.rejections}, tagged with the service
+ * and a reason of circuit_open or bulkhead_full.
+ */
+public class ServiceGuards {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceGuards.class);
+
+    private final ResilienceProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+    private final BulkheadRegistry bulkheads = BulkheadRegistry.ofDefaults();
+    private final Map<String, ServiceGuard> guards = new ConcurrentHashMap<>();
+
+    /**
+     * Create the registry.
+     *
+     * @param properties    per-service settings
+     * @param meterRegistry registry for breaker and bulkhead metrics
+     */
+    public ServiceGuards(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+    }
+
+    /**
+     * Get the guard of a service, creating it on first use.
+     *
+     * @param serviceId the service id as registered in Eureka (case-insensitive)
+     * @return the service's guard
+     */
+    public ServiceGuard forService(String serviceId) {
+        return guards.computeIfAbsent(serviceId.toLowerCase(Locale.ROOT), this::createGuard);
+    }
+
+    private ServiceGuard createGuard(String serviceId) {
+        ResilienceProperties.Guard settings = properties.resolve(serviceId);
+        CircuitBreaker circuitBreaker = circuitBreakers.circuitBreaker(serviceId, CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(settings.getSlidingWindowSize())
+                .minimumNumberOfCalls(settings.getMinimumNumberOfCalls())
+                .failureRateThreshold(settings.getFailureRateThreshold())
+                .slowCallDurationThreshold(settings.getSlowCallDuration())
+                .slowCallRateThreshold(settings.getSlowCallRateThreshold())
+                .waitDurationInOpenState(settings.getOpenDuration())
+                .permittedNumberOfCallsInHalfOpenState(settings.getHalfOpenCalls())
+                .build());
+        circuitBreaker.getEventPublisher().onStateTransition(event -> logger.warn(
+                "Circuit breaker for {}: {}", serviceId, event.getStateTransition()));
+        Bulkhead bulkhead = bulkheads.bulkhead(serviceId, BulkheadConfig.custom()
+                .maxConcurrentCalls(settings.getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+
+        logger.info("Created guard for {}: maxConcurrentCalls={}, failureRate={}%, slowCall={}",
+                serviceId, settings.getMaxConcurrentCalls(), settings.getFailureRateThreshold(),
+                settings.getSlowCallDuration());
+        return new ServiceGuard(serviceId, circuitBreaker, bulkhead,
+                rejections(serviceId, "circuit_open"), rejections(serviceId, "bulkhead_full"));
+    }
+
+    private Counter rejections(String serviceId, String reason) {
+        return Counter.builder("gateway.upstream.rejections")
+                .description("Upstream calls rejected without being attempted")
+                .tag("service", serviceId)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.api_gateway.resilience;
+
+/**
+ * Thrown instead of calling an upstream service whose circuit breaker is
+ * open or whose bulkhead is full. Answered with 503 without waiting.
+ */
+public class UpstreamRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String reason;
+
+    UpstreamRejectedException(String serviceId, String reason) {
+        super(serviceId + " rejected: " + reason.replace('_', ' '), null, false, false);
+        this.reason = reason;
+    }
+
+    /**
+     * Why the call was rejected: circuit_open or bulkhead_full.
+     */
+    public String getReason() {
+        return reason;
+    }
+}
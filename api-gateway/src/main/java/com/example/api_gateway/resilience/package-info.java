@@ -0,0 +1,5 @@
+/**
+ * Per-service circuit breakers and bulkheads guarding upstream calls of
+ * api-gateway, and budgets for the extra calls the gateway makes on its own.
+ */
+package com.example.api_gateway.resilience;
@@ -0,0 +1,202 @@
+package com.example.api_gateway.retry;
+
+import com.example.api_gateway.client.UpstreamInstance;
+import com.example.api_gateway.client.UpstreamInstances;
+import com.example.api_gateway.config.RetryProperties;
+import com.example.api_gateway.metrics.ServerTiming;
+import com.example.api_gateway.resilience.CallBudget;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.SocketTimeoutException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Retries failed upstream calls of idempotent routes. A call that could not
+ * reach the instance or that the instance refused with a gateway error is
+ * made again, on another instance of the service when there is one, up to
+ * {@code max-attempts} calls in all.
+ * <p>
+ * Before each retry the request waits a random time below a cap that starts
+ * at {@code initial-backoff} and doubles per retry up to {@code max-backoff}
+ * (full jitter), so the retries of many requests failing at once are spread
+ * out. Retries are paid from one gateway-wide {@link CallBudget} that every
+ * retryable request credits with {@code budget}: while an upstream is down
+ * the retries stop once the budget is spent, instead of multiplying its load.
+ * <p>
+ * A call that timed out waiting for the response is not retried: the
+ * instance may still be working on it, and a second wait would double the
+ * worst case.
+ * <p>
+ * Retry decisions are counted in {@code gateway.retry.requests}, tagged with
+ * the route and a result of retried (a retry was made), recovered (a retry
+ * answered), gave_up (attempts used up) or budget_exhausted.
+ */
+public class Retries {
+
+    private static final Logger logger = LoggerFactory.getLogger(Retries.class);
+
+    private final RetryProperties properties;
+    private final UpstreamInstances upstreamInstances;
+    private final MeterRegistry meterRegistry;
+    private final CallBudget budget;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final Map<String, RouteMeters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * Create the retrier.
+     *
+     * @param properties        attempts, backoff and budget
+     * @param upstreamInstances chooses the instance of each retry
+     * @param meterRegistry     registry for retry counts
+     */
+    public Retries(RetryProperties properties, UpstreamInstances upstreamInstances, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.upstreamInstances = upstreamInstances;
+        this.meterRegistry = meterRegistry;
+        this.budget = new CallBudget(properties.getBudget(), properties.getBurst());
+        this.initialBackoffNanos = properties.getInitialBackoff().toNanos();
+        this.maxBackoffNanos = properties.getMaxBackoff().toNanos();
+    }
+
+    /**
+     * Whether failed calls are retried at all.
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Make a call, retrying it while it fails. The call must be idempotent.
+     *
+     * @param routeId   the route, for logs and metrics
+     * @param serviceId the upstream service
+     * @param first     the instance of the first call
+     * @param call      makes the call to an instance
+     * @param failed    whether an answer is a failure worth retrying
+     * @param <T>       the call's result
+     * @return the first answer that is not a failure, or the last one
+     * @throws RuntimeException the last call's failure, if it threw
+     */
+    public <T> T execute(String routeId, String serviceId, UpstreamInstance first,
+            Function<UpstreamInstance, T> call, Predicate<T> failed) {
+        budget.deposit();
+        UpstreamInstance instance = first;
+        for (int attempt = 1; ; attempt++) {
+            T result = null;
+            RuntimeException failure = null;
+            try {
+                result = call.apply(instance);
+                if (!failed.test(result)) {
+                    if (attempt > 1) {
+                        meters(routeId).recovered().increment();
+                    }
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (!isRetryable(e)) {
+                    throw e;
+                }
+                failure = e;
+            }
+
+            if (attempt >= properties.getMaxAttempts()) {
+                meters(routeId).gaveUp().increment();
+                return giveUp(result, failure);
+            }
+            if (!budget.tryWithdraw()) {
+                meters(routeId).budgetExhausted().increment();
+                return giveUp(result, failure);
+            }
+            if (!backoff(attempt)) {
+                return giveUp(result, failure);
+            }
+            UpstreamInstance next = upstreamInstances.chooseOther(serviceId, instance);
+            if (next == null) {
+                // A single instance: a fresh connection to it may still get through
+                next = instance;
+            }
+            logger.warn("Route {}: call to {} failed ({}), retrying on {}", routeId, instance.id(),
+                    failure != null ? failure.getMessage() : "gateway error", next.id());
+            instance = next;
+            meters(routeId).retried().increment();
+        }
+    }
+
+    /**
+     * Whether a failed call may be made again: the request did not get
+     * through or the connection broke, but no response timeout expired and
+     * the call was not cancelled.
+     */
+    static boolean isRetryable(RuntimeException failure) {
+        if (!(failure instanceof ResourceAccessException) || Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        Throwable cause = failure.getCause();
+        // Connect timeouts never reached the service, whichever client raised them
+        if (cause instanceof ConnectTimeoutException || cause instanceof HttpConnectTimeoutException) {
+            return true;
+        }
+        return !(cause instanceof SocketTimeoutException || cause instanceof HttpTimeoutException);
+    }
+
+    /**
+     * Wait before a retry, charging the time to the request's backoff phase.
+     *
+     * @return false if the thread was interrupted meanwhile
+     */
+    private boolean backoff(int attempt) {
+        long cap = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+        try {
+            if (cap > 0) {
+                TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            ServerTiming timing = ServerTiming.current();
+            if (timing != null) {
+                timing.mark("backoff");
+            }
+        }
+    }
+
+    private static <T> T giveUp(T result, RuntimeException failure) {
+        if (failure != null) {
+            throw failure;
+        }
+        return result;
+    }
+
+    private RouteMeters meters(String routeId) {
+        return meters.computeIfAbsent(routeId, id -> new RouteMeters(counter(id, "retried"),
+                counter(id, "recovered"), counter(id, "gave_up"), counter(id, "budget_exhausted")));
+    }
+
+    private Counter counter(String routeId, String result) {
+        return Counter.builder("gateway.retry.requests")
+                .description("Retry decisions for failed upstream calls, by result")
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record RouteMeters(Counter retried, Counter recovered, Counter gaveUp, Counter budgetExhausted) {
+    }
+}
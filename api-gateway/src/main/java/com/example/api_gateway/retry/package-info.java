@@ -0,0 +1,5 @@
+/**
+ * Retries of failed upstream calls of idempotent api-gateway routes, with
+ * jittered backoff and a gateway-wide retry budget.
+ */
+package com.example.api_gateway.retry;
@@ -0,0 +1,16 @@
+package com.example.api_gateway.routing;
+
+import java.io.IOException;
+
+/**
+ * Thrown while streaming a request body that turns out to be larger than the
+ * route's {@code max-body-size}.
+ */
+class BodyTooLargeException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    BodyTooLargeException(long limit) {
+        super("Request body exceeds " + limit + " bytes");
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.api_gateway.routing;
+
+import org.springframework.http.HttpMethod;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A route definition prepared for the request path: templates are parsed,
+ * the upstream path is reduced to literal chunks and variable indexes, and
+ * header names are copied into an array.
+ */
+public final class CompiledRoute {
+
+    private final RouteDefinition definition;
+    private final HttpMethod method;
+    private final String serviceId;
+    private final PathTemplate path;
+    private final List<String> variableNames;
+    private final String[] upstreamChunks;
+    private final int[] upstreamVariables;
+    private final int upstreamLength;
+    private final String[] forwardHeaders;
+    private final boolean coalesced;
+    private final boolean retried;
+    private final long maxBodySize;
+
+    CompiledRoute(RouteDefinition definition) {
+        if (definition.getId() == null || definition.getService() == null) {
+            throw new IllegalArgumentException("Route needs an id and a service: " + definition.getPath());
+        }
+        this.definition = definition;
+        this.method = HttpMethod.valueOf(definition.getMethod().toUpperCase(Locale.ROOT));
+        this.serviceId = definition.getService();
+        this.path = PathTemplate.parse(definition.getPath());
+        this.variableNames = path.variableNames();
+
+        PathTemplate upstream = definition.getUpstreamPath() != null
+                ? PathTemplate.parse(definition.getUpstreamPath())
+                : path;
+        // "/a/{x}/b" becomes chunks ["/a/", "/b"] around variable indexes [0]
+        String[] chunks = new String[upstream.size() + 1];
+        int[] variables = new int[upstream.size()];
+        StringBuilder chunk = new StringBuilder();
+        int count = 0;
+        int literalLength = 0;
+        for (int i = 0; i < upstream.size(); i++) {
+            chunk.append('/');
+            if (upstream.isVariable(i)) {
+                int index = variableNames.indexOf(upstream.segment(i));
+                if (index < 0) {
+                    throw new IllegalArgumentException("Route " + definition.getId()
+                            + " uses unknown variable {" + upstream.segment(i) + "}");
+                }
+                chunks[count] = chunk.toString();
+                literalLength += chunk.length();
+                variables[count++] = index;
+                chunk.setLength(0);
+            } else {
+                chunk.append(upstream.segment(i));
+            }
+        }
+        if (upstream.size() == 0) {
+            chunk.append('/');
+        }
+        chunks[count] = chunk.toString();
+        literalLength += chunk.length();
+        this.upstreamChunks = Arrays.copyOf(chunks, count + 1);
+        this.upstreamVariables = Arrays.copyOf(variables, count);
+        this.upstreamLength = literalLength;
+        this.forwardHeaders = definition.getForwardHeaders().toArray(new String[0]);
+        this.maxBodySize = definition.getMaxBodySize() != null ? definition.getMaxBodySize().toBytes() : -1;
+        if (definition.getCacheTtl() != null
+                && (method != HttpMethod.GET || definition.getMode() != ForwardingMode.BUFFERED)) {
+            throw new IllegalArgumentException("Route " + definition.getId()
+                    + " sets cache-ttl but is not a buffered GET route");
+        }
+        if (definition.isAsync() && definition.getMode() == ForwardingMode.STREAMING) {
+            throw new IllegalArgumentException("Route " + definition.getId()
+                    + " sets async but streams its response");
+        }
+        if (definition.isHedge()
+                && (method != HttpMethod.GET || definition.getMode() != ForwardingMode.BUFFERED)) {
+            throw new IllegalArgumentException("Route " + definition.getId()
+                    + " sets hedge but is not a buffered GET route");
+        }
+        if (Boolean.TRUE.equals(definition.getRetry()) && definition.getMode() != ForwardingMode.BUFFERED) {
+            throw new IllegalArgumentException("Route " + definition.getId()
+                    + " sets retry but does not buffer its request body");
+        }
+        this.retried = definition.getMode() == ForwardingMode.BUFFERED && (definition.getRetry() != null
+                ? definition.getRetry()
+                : method == HttpMethod.GET || method == HttpMethod.HEAD);
+        this.coalesced = definition.isCoalesce() && definition.getCacheTtl() == null
+                && method == HttpMethod.GET && definition.getMode() == ForwardingMode.BUFFERED;
+    }
+
+    /**
+     * Build the upstream path for a match.
+     *
+     * @param values variable values in the order of the gateway path template
+     * @param query  raw query string, or null
+     * @return the upstream path and query
+     */
+    String upstreamPath(String[] values, String query) {
+        int length = upstreamLength + (query != null ? query.length() + 1 : 0);
+        for (int index : upstreamVariables) {
+            length += values[index].length();
+        }
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < upstreamVariables.length; i++) {
+            builder.append(upstreamChunks[i]).append(values[upstreamVariables[i]]);
+        }
+        builder.append(upstreamChunks[upstreamVariables.length]);
+        if (query != null) {
+            builder.append('?').append(query);
+        }
+        return builder.toString();
+    }
+
+    PathTemplate pathTemplate() {
+        return path;
+    }
+
+    public RouteDefinition getDefinition() {
+        return definition;
+    }
+
+    public String getId() {
+        return definition.getId();
+    }
+
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public String getPath() {
+        return path.template();
+    }
+
+    public List<String> getVariableNames() {
+        return variableNames;
+    }
+
+    String[] forwardHeaders() {
+        return forwardHeaders;
+    }
+
+    /**
+     * Whether identical concurrent requests share one upstream call.
+     */
+    boolean coalesced() {
+        return coalesced;
+    }
+
+    /**
+     * Whether failed upstream calls are made again.
+     */
+    boolean retried() {
+        return retried;
+    }
+
+    /**
+     * Largest accepted request body in bytes, or -1 when unlimited.
+     */
+    long maxBodySize() {
+        return maxBodySize;
+    }
+}
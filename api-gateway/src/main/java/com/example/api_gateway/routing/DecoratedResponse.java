@@ -0,0 +1,93 @@
+package com.example.api_gateway.routing;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * A response that runs a step just before another response writes its
+ * status and headers, and optionally one once it has written its body.
+ * Built responses have read-only headers, so handlers and filters that add
+ * headers late (timings, quotas) decorate them instead; filters that hold
+ * something for the whole exchange (admission slots) release it after the
+ * write, which for streamed bodies is long after the handler returned.
+ */
+public final class DecoratedResponse implements ServerResponse {
+
+    private final ServerResponse delegate;
+    private final Consumer<HttpServletResponse> beforeWrite;
+    private final Runnable afterWrite;
+
+    private DecoratedResponse(ServerResponse delegate, Consumer<HttpServletResponse> beforeWrite,
+            Runnable afterWrite) {
+        this.delegate = delegate;
+        this.beforeWrite = beforeWrite;
+        this.afterWrite = afterWrite;
+    }
+
+    /**
+     * Decorate a response.
+     *
+     * @param response    the response to write
+     * @param beforeWrite runs on the servlet response before the status and headers are written
+     * @return the decorated response
+     */
+    public static ServerResponse of(ServerResponse response, Consumer<HttpServletResponse> beforeWrite) {
+        return new DecoratedResponse(response, beforeWrite, null);
+    }
+
+    /**
+     * Decorate a response with a step that runs once it is written.
+     *
+     * @param response   the response to write
+     * @param afterWrite runs after the body is written, or the write failed
+     * @return the decorated response
+     */
+    public static ServerResponse afterWrite(ServerResponse response, Runnable afterWrite) {
+        return new DecoratedResponse(response, servletResponse -> {
+        }, afterWrite);
+    }
+
+    @Override
+    public HttpStatusCode statusCode() {
+        return delegate.statusCode();
+    }
+
+    @Override
+    @SuppressWarnings("removal")
+    public int rawStatusCode() {
+        return delegate.statusCode().value();
+    }
+
+    @Override
+    public HttpHeaders headers() {
+        return delegate.headers();
+    }
+
+    @Override
+    public MultiValueMap<String, Cookie> cookies() {
+        return delegate.cookies();
+    }
+
+    @Override
+    public ModelAndView writeTo(HttpServletRequest request, HttpServletResponse response, Context context)
+            throws ServletException, IOException {
+        try {
+            beforeWrite.accept(response);
+            return delegate.writeTo(request, response, context);
+        } finally {
+            if (afterWrite != null) {
+                afterWrite.run();
+            }
+        }
+    }
+}
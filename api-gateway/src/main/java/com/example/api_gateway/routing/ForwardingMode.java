@@ -0,0 +1,28 @@
+package com.example.api_gateway.routing;
+
+/**
+ * How the forwarding pipeline moves request and response bodies.
+ */
+public enum ForwardingMode {
+
+    /**
+     * Read the whole request body, exchange it as a byte array and relay the
+     * buffered response. Only the route's forward headers are copied.
+     */
+    BUFFERED,
+
+    /**
+     * Stream bytes straight between the client socket and the upstream
+     * connection without holding the body in memory. All end-to-end request
+     * and response headers are passed on.
+     */
+    PASSTHROUGH,
+
+    /**
+     * Passthrough for incremental responses such as Server-Sent Events: the
+     * response is flushed to the client as soon as each piece arrives from
+     * the upstream, through one small buffer, instead of when the buffer is
+     * full.
+     */
+    STREAMING
+}
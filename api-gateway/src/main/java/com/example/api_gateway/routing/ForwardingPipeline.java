@@ -0,0 +1,902 @@
+package com.example.api_gateway.routing;
+
+import com.example.api_gateway.cache.BufferedResponse;
+import com.example.api_gateway.cache.RequestCoalescer;
+import com.example.api_gateway.cache.ResponseCache;
+import com.example.api_gateway.client.UpstreamClients;
+import com.example.api_gateway.client.UpstreamInstance;
+import com.example.api_gateway.client.UpstreamInstances;
+import com.example.api_gateway.hedging.Hedging;
+import com.example.api_gateway.jobs.GatewayJobs;
+import com.example.api_gateway.jobs.Job;
+import com.example.api_gateway.metrics.RouteMetrics;
+import com.example.api_gateway.metrics.ServerTiming;
+import com.example.api_gateway.resilience.ServiceGuard;
+import com.example.api_gateway.resilience.ServiceGuards;
+import com.example.api_gateway.resilience.UpstreamRejectedException;
+import com.example.api_gateway.retry.Retries;
+import com.example.api_gateway.security.EdgeAuthenticator;
+import com.example.api_gateway.security.Identity;
+import com.example.api_gateway.security.IdentityHeaders;
+import com.example.api_gateway.tracing.UpstreamTracing;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.tracing.Span;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.io.EofSensorInputStream;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.InputStreamEntity;
+import org.apache.hc.core5.http.message.BasicClassicHttpRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * The single forwarding path shared by every route in the route table:
+ * resolve an instance, build the upstream request, exchange raw bytes and
+ * answer errors through {@link UpstreamErrors}, which relays upstream error
+ * bodies unparsed and holds the gateway's own JSON errors ready-made. Routes in
+ * {@link ForwardingMode#PASSTHROUGH} mode stream bodies instead of buffering
+ * them, and {@link ForwardingMode#STREAMING} routes relay each piece of the
+ * response as it arrives; GET routes with a cache TTL are served through the {@link ResponseCache},
+ * and other buffered GET routes share concurrent identical calls through the
+ * {@link RequestCoalescer}. Calls of hedge routes that turn out slow are
+ * raced against a second call to another instance by {@link Hedging}, and
+ * failed calls of idempotent routes are made again by {@link Retries}.
+ * <p>
+ * Identity headers sent by clients are dropped. Requests that forward a valid
+ * bearer token get signed identity headers from the {@link EdgeAuthenticator}
+ * instead, so services need not verify the token again.
+ * <p>
+ * Each request is timed by phase with a {@link ServerTiming}, recorded in
+ * {@link RouteMetrics} when its response headers are written and, unless
+ * disabled, returned to the client as a Server-Timing header. Every upstream
+ * call is a client span whose W3C trace context goes out with the request.
+ * <p>
+ * Requests to async routes that carry {@code Prefer: respond-async} are
+ * answered with 202 and a job id; the upstream call runs as a job on
+ * {@link GatewayJobs} and its response is served by {@link #job}.
+ */
+public class ForwardingPipeline {
+
+    /**
+     * Request attribute holding the {@link RouteMatch} chosen for the request.
+     */
+    public static final String MATCH_ATTRIBUTE = ForwardingPipeline.class.getName() + ".match";
+
+    /**
+     * Request attribute holding the request's {@link ServerTiming}, started
+     * before the route was matched.
+     */
+    public static final String TIMING_ATTRIBUTE = ForwardingPipeline.class.getName() + ".timing";
+
+    private static final String SERVER_TIMING = "Server-Timing";
+
+    private static final HttpHeaders JSON_HEADERS = HttpHeaders.readOnlyHttpHeaders(jsonHeaders());
+
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+
+    private static final String RESPOND_ASYNC = "respond-async";
+
+    private static final Logger logger = LoggerFactory.getLogger(ForwardingPipeline.class);
+
+    /**
+     * Hop-by-hop headers, which apply to one connection and are never passed
+     * on. Upstream CORS response headers are not in this set: copyHeaders and
+     * relay drop them separately by their access-control- prefix, since the
+     * gateway's own CORS filter owns them.
+     */
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection", "keep-alive", "proxy-connection", "transfer-encoding", "te", "trailer", "upgrade");
+
+    /**
+     * Client request headers not copied in passthrough mode, besides the
+     * hop-by-hop ones: the upstream connection sets its own host and framing,
+     * and Tomcat has already answered any Expect: 100-continue.
+     */
+    private static final Set<String> PASSTHROUGH_DROPPED_REQUEST_HEADERS = Set.of(
+            "host", "content-length", "expect");
+
+    /**
+     * Upstream statuses of a call that did not get to the service proper, a
+     * bad gateway, an instance shutting down or a proxy timing out; retried
+     * for retryable routes.
+     */
+    private static final Set<Integer> RETRIED_STATUSES = Set.of(502, 503, 504);
+
+    /**
+     * Most bytes held per streaming response between the upstream and the
+     * client.
+     */
+    private static final int STREAM_BUFFER_SIZE = 8192;
+
+    private final UpstreamInstances upstreamInstances;
+    private final UpstreamClients upstreamClients;
+    private final ServiceGuards serviceGuards;
+    private final ObjectMapper objectMapper;
+    private final ResponseCache responseCache;
+    private final RequestCoalescer requestCoalescer;
+    private final EdgeAuthenticator edgeAuthenticator;
+    private final RouteMetrics routeMetrics;
+    private final UpstreamTracing upstreamTracing;
+    private final GatewayJobs jobs;
+    private final Hedging hedging;
+    private final Retries retries;
+    private final Map<String, CompiledRoute> routes = new HashMap<>();
+    private final UpstreamErrors errors;
+    private final Map<String, byte[]> successBodies = new HashMap<>();
+
+    public ForwardingPipeline(RouteTable routeTable, UpstreamInstances upstreamInstances,
+            UpstreamClients upstreamClients, ServiceGuards serviceGuards, ObjectMapper objectMapper,
+            ResponseCache responseCache, RequestCoalescer requestCoalescer, EdgeAuthenticator edgeAuthenticator,
+            RouteMetrics routeMetrics, UpstreamTracing upstreamTracing, GatewayJobs jobs, Hedging hedging,
+            Retries retries, UpstreamErrors errors) {
+        this.upstreamInstances = upstreamInstances;
+        this.upstreamClients = upstreamClients;
+        this.serviceGuards = serviceGuards;
+        this.objectMapper = objectMapper;
+        this.responseCache = responseCache;
+        this.requestCoalescer = requestCoalescer;
+        this.edgeAuthenticator = edgeAuthenticator;
+        this.routeMetrics = routeMetrics;
+        this.upstreamTracing = upstreamTracing;
+        this.jobs = jobs;
+        this.hedging = hedging;
+        this.retries = retries;
+        this.errors = errors;
+        for (CompiledRoute route : routeTable.getRoutes()) {
+            RouteDefinition definition = route.getDefinition();
+            routes.put(route.getId(), route);
+            if (definition.getSuccessMessage() != null) {
+                successBodies.put(route.getId(), json(message(true, definition.getSuccessMessage())));
+            }
+        }
+    }
+
+    /**
+     * Handler function for every route-table request.
+     *
+     * @param request the incoming request, carrying a {@link RouteMatch} attribute
+     * @return the upstream response, or a JSON error
+     * @throws IOException if the client request body cannot be read
+     */
+    public ServerResponse forward(ServerRequest request) throws IOException {
+        RouteMatch match = (RouteMatch) request.attribute(MATCH_ATTRIBUTE)
+                .orElseThrow(() -> new IllegalStateException("No route matched " + request.path()));
+        ServerTiming timing = (ServerTiming) request.attribute(TIMING_ATTRIBUTE).orElseGet(ServerTiming::start);
+        timing.mark("admission");
+        ServerTiming.bind(timing);
+        try {
+            return timed(forward(match, request.servletRequest(), timing), match.route(), timing);
+        } finally {
+            ServerTiming.unbind();
+        }
+    }
+
+    private ServerResponse forward(RouteMatch match, HttpServletRequest servletRequest, ServerTiming timing)
+            throws IOException {
+        CompiledRoute route = match.route();
+        if (route.maxBodySize() >= 0 && servletRequest.getContentLengthLong() > route.maxBodySize()) {
+            return bodyTooLarge(route);
+        }
+
+        String pathAndQuery = match.upstreamPath(servletRequest.getQueryString());
+        if (route.getDefinition().isAsync() && jobs.isEnabled() && prefersAsync(servletRequest)) {
+            return submitJob(route, servletRequest, pathAndQuery);
+        }
+        if (route.getDefinition().getMode() != ForwardingMode.BUFFERED) {
+            UpstreamInstance instance = upstreamInstances.choose(route.getServiceId());
+            if (instance == null) {
+                logger.error("{} not available in discovery", route.getServiceId());
+                return errorResponse(route, HttpStatus.SERVICE_UNAVAILABLE, null);
+            }
+            return passthrough(route, servletRequest, instance, pathAndQuery, timing);
+        }
+
+        HttpHeaders headers = forwardHeaders(route, servletRequest::getHeader);
+        byte[] body;
+        try {
+            body = readBody(route, servletRequest);
+        } catch (BodyTooLargeException e) {
+            return bodyTooLarge(route);
+        }
+        timing.mark("prepare");
+        try {
+            BufferedResponse response = buffered(route, pathAndQuery, headers, body, timing);
+            ServerResponse relayed = relay(route, response, servletRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            timing.mark("relay");
+            return relayed;
+        } catch (NoInstanceAvailableException e) {
+            logger.error("{} not available in discovery", route.getServiceId());
+            return errorResponse(route, HttpStatus.SERVICE_UNAVAILABLE, null);
+        } catch (UpstreamRejectedException e) {
+            return rejected(route, e);
+        } catch (RestClientException e) {
+            logger.error("Error forwarding route {} to {} ({}) after {} ms: {}", route.getId(), route.getServiceId(),
+                    timing.instance(), TimeUnit.NANOSECONDS.toMillis(timing.elapsedNanos()), e.getMessage());
+            return errorResponse(route, HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    /**
+     * The upstream response of a buffered route: from the cache for routes
+     * with a cache TTL, shared with identical concurrent calls for coalesced
+     * routes, otherwise exchanged for this request alone.
+     */
+    private BufferedResponse buffered(CompiledRoute route, String pathAndQuery, HttpHeaders headers, byte[] body,
+            ServerTiming timing) {
+        Duration cacheTtl = route.getDefinition().getCacheTtl();
+        if (cacheTtl != null) {
+            BufferedResponse response = responseCache.get(route.getId(), cacheKey(route, pathAndQuery, headers),
+                    cacheTtl, () -> exchange(route, pathAndQuery, headers, body, timing));
+            timing.mark("cache");
+            return response;
+        }
+        if (route.coalesced()) {
+            BufferedResponse response = requestCoalescer.execute(route.getId(),
+                    cacheKey(route, pathAndQuery, headers), () -> exchange(route, pathAndQuery, headers, body, timing));
+            timing.mark("coalesce");
+            return response;
+        }
+        return exchange(route, pathAndQuery, headers, body, timing);
+    }
+
+    /**
+     * Whether requests to a route can be {@link #dispatch dispatched} without
+     * a client connection of their own: buffered routes that are not rate
+     * limited, since a batch must not multiply a caller's allowance.
+     *
+     * @param route the route
+     * @return true if dispatchable
+     */
+    public static boolean isDispatchable(CompiledRoute route) {
+        return route.getDefinition().getMode() == ForwardingMode.BUFFERED && route.getDefinition().getRateLimit() == null;
+    }
+
+    /**
+     * Forward a request that has no servlet request of its own, such as one
+     * entry of a batch, through the same cache, coalescing, hedging and
+     * retries as a buffered route request. Timed and recorded like one.
+     *
+     * @param match  the route match, which must be {@link #isDispatchable dispatchable}
+     * @param query  the raw query string, or null
+     * @param header looks up a client request header by name
+     * @param body   the request body, or null
+     * @return the response with an uncompressed body, or the route's JSON error
+     */
+    public BufferedResponse dispatch(RouteMatch match, String query, UnaryOperator<String> header, byte[] body) {
+        CompiledRoute route = match.route();
+        ServerTiming timing = ServerTiming.start();
+        ServerTiming.bind(timing);
+        BufferedResponse response;
+        try {
+            if (route.maxBodySize() >= 0 && body != null && body.length > route.maxBodySize()) {
+                response = new BufferedResponse(HttpStatus.PAYLOAD_TOO_LARGE, JSON_HEADERS, errors.tooLarge(route));
+            } else {
+                HttpHeaders headers = forwardHeaders(route, header);
+                timing.mark("prepare");
+                response = decoded(route, buffered(route, match.upstreamPath(query), headers,
+                        route.getMethod() == HttpMethod.GET || route.getMethod() == HttpMethod.HEAD ? null : body,
+                        timing));
+            }
+        } catch (NoInstanceAvailableException e) {
+            logger.error("{} not available in discovery", route.getServiceId());
+            response = new BufferedResponse(HttpStatus.SERVICE_UNAVAILABLE, JSON_HEADERS,
+                    errors.gateway(route, HttpStatus.SERVICE_UNAVAILABLE, null));
+        } catch (UpstreamRejectedException e) {
+            logger.debug("Route {}: {}", route.getId(), e.getMessage());
+            response = new BufferedResponse(HttpStatus.SERVICE_UNAVAILABLE, JSON_HEADERS,
+                    errors.gateway(route, HttpStatus.SERVICE_UNAVAILABLE, e));
+        } catch (RestClientException e) {
+            logger.error("Error forwarding route {} to {} ({}) after {} ms: {}", route.getId(), route.getServiceId(),
+                    timing.instance(), TimeUnit.NANOSECONDS.toMillis(timing.elapsedNanos()), e.getMessage());
+            response = new BufferedResponse(HttpStatus.INTERNAL_SERVER_ERROR, JSON_HEADERS,
+                    errors.gateway(route, HttpStatus.INTERNAL_SERVER_ERROR, e));
+        } finally {
+            ServerTiming.unbind();
+        }
+        routeMetrics.record(route.getId(), route.getPath(), route.getServiceId(), timing, response.status().value());
+        return response;
+    }
+
+    /**
+     * A buffered response as a dispatched request gets it: with the route's
+     * success message for an empty body, and a gzip body inflated.
+     */
+    private BufferedResponse decoded(CompiledRoute route, BufferedResponse response) {
+        byte[] body = response.body();
+        byte[] successBody = successBodies.get(route.getId());
+        if ((body == null || body.length == 0) && successBody != null && response.status().is2xxSuccessful()) {
+            return new BufferedResponse(response.status(), JSON_HEADERS, successBody);
+        }
+        if (body == null || body.length == 0 || !GzipCoding.isEncoded(response.headers())) {
+            return response;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.headers());
+        headers.remove(HttpHeaders.CONTENT_ENCODING);
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        return new BufferedResponse(response.status(), headers, GzipCoding.decode(body));
+    }
+
+    /**
+     * Record the route's latency and add the Server-Timing header just before
+     * the response headers are written, so the total covers building the
+     * response but not streaming a passthrough body.
+     */
+    private ServerResponse timed(ServerResponse response, CompiledRoute route, ServerTiming timing) {
+        return DecoratedResponse.of(response, servletResponse -> {
+            routeMetrics.record(route.getId(), route.getPath(), route.getServiceId(), timing,
+                    response.statusCode().value());
+            if (routeMetrics.isServerTiming()) {
+                servletResponse.setHeader(SERVER_TIMING, timing.header());
+            }
+        });
+    }
+
+    /**
+     * Exchange raw bytes with an instance of the route's service, retried
+     * for retryable routes and hedged for hedge routes. Upstream 4xx/5xx
+     * answers are returned like any other response.
+     */
+    private BufferedResponse exchange(CompiledRoute route, String pathAndQuery, HttpHeaders headers, byte[] body,
+            ServerTiming timing) {
+        UpstreamInstance instance = upstreamInstances.choose(route.getServiceId());
+        if (instance == null) {
+            throw new NoInstanceAvailableException(route.getServiceId());
+        }
+        if (route.retried() && retries.isEnabled()) {
+            return retries.execute(route.getId(), route.getServiceId(), instance,
+                    candidate -> attempt(route, candidate, pathAndQuery, headers, body, timing),
+                    response -> RETRIED_STATUSES.contains(response.status().value()));
+        }
+        return attempt(route, instance, pathAndQuery, headers, body, timing);
+    }
+
+    private BufferedResponse attempt(CompiledRoute route, UpstreamInstance instance, String pathAndQuery,
+            HttpHeaders headers, byte[] body, ServerTiming timing) {
+        if (!route.getDefinition().isHedge() || !hedging.isEnabled()) {
+            return call(route, instance, pathAndQuery, headers, body, null, timing);
+        }
+        // The calls run on their own threads: they get the request's span and
+        // a copy of the headers each, and leave the timing to this thread
+        Span parent = upstreamTracing.currentSpan();
+        timing.mark("choose");
+        Answer answer = hedging.execute(route.getId(), route.getServiceId(), instance, candidate -> {
+            HttpHeaders copy = new HttpHeaders();
+            copy.addAll(headers);
+            return new Answer(candidate, call(route, candidate, pathAndQuery, copy, body, parent, null));
+        });
+        timing.instance(answer.instance().id());
+        timing.mark("upstream");
+        return answer.response();
+    }
+
+    /**
+     * One call to an instance, inside the service's guard. A call interrupted
+     * because a hedge answered first is not held against the instance.
+     *
+     * @param parent the request's span, or null on the request thread
+     * @param timing the request's timing, or null off the request thread
+     */
+    private BufferedResponse call(CompiledRoute route, UpstreamInstance instance, String pathAndQuery,
+            HttpHeaders headers, byte[] body, Span parent, ServerTiming timing) {
+        URI uri = URI.create(instance.baseUrl() + pathAndQuery);
+        ServiceGuard guard = serviceGuards.forService(route.getServiceId());
+        long guarded = guard.acquire();
+        if (timing != null) {
+            timing.mark("choose");
+            timing.instance(instance.id());
+        }
+        // The headers are only read for the cache key before this point
+        Span span = upstreamTracing.start(parent, route.getServiceId(), instance.id(), route.getMethod().name(),
+                headers, HttpHeaders::set);
+        long start = instance.begin();
+        boolean failed = true;
+        int status = 0;
+        RuntimeException error = null;
+        try {
+            ResponseEntity<byte[]> response = upstreamClients.forService(route.getServiceId())
+                    .exchange(uri, route.getMethod(), new HttpEntity<>(body, headers), byte[].class);
+            failed = false;
+            status = response.getStatusCode().value();
+            return new BufferedResponse(response.getStatusCode(), response.getHeaders(), response.getBody());
+        } catch (HttpStatusCodeException e) {
+            // Upstream answered with 4xx/5xx: its bytes go to the client unparsed
+            logger.debug("{} returned {} for route {}", route.getServiceId(), e.getStatusCode(), route.getId());
+            failed = e.getStatusCode().is5xxServerError();
+            status = e.getStatusCode().value();
+            return errors.upstream(route, e.getStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
+        } catch (RuntimeException e) {
+            failed = !Thread.currentThread().isInterrupted();
+            error = e;
+            throw e;
+        } finally {
+            upstreamTracing.end(span, status, error);
+            instance.end(start, failed);
+            guard.release(guarded, failed);
+            if (timing != null) {
+                timing.mark("upstream");
+            }
+        }
+    }
+
+    /**
+     * Route, upstream path and query, and the forwarded header values: all
+     * the request contributes to the upstream call of a GET route. Identity
+     * headers follow from the forwarded Authorization, so one caller never
+     * gets another's response.
+     */
+    private static String cacheKey(CompiledRoute route, String pathAndQuery, HttpHeaders headers) {
+        StringBuilder key = new StringBuilder(route.getId()).append(' ').append(pathAndQuery);
+        for (String name : route.forwardHeaders()) {
+            String value = headers.getFirst(name);
+            key.append('\n').append(value != null ? value : "");
+        }
+        return key.toString();
+    }
+
+    /**
+     * Stream the request body to the upstream and the upstream response back
+     * to the client. The upstream connection stays leased until the response
+     * body has been copied; the instance and the service's guard are charged
+     * with the time to the response headers.
+     */
+    private ServerResponse passthrough(CompiledRoute route, HttpServletRequest servletRequest,
+            UpstreamInstance instance, String pathAndQuery, ServerTiming timing) throws IOException {
+        URI uri = URI.create(instance.baseUrl() + pathAndQuery);
+        BasicClassicHttpRequest upstreamRequest = new BasicClassicHttpRequest(route.getMethod().name(), uri);
+        Enumeration<String> names = servletRequest.getHeaderNames();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            if (!isForwarded(name)) {
+                continue;
+            }
+            Enumeration<String> values = servletRequest.getHeaders(name);
+            while (values.hasMoreElements()) {
+                upstreamRequest.addHeader(name, values.nextElement());
+            }
+        }
+        Identity identity = edgeAuthenticator.resolve(servletRequest.getHeader(HttpHeaders.AUTHORIZATION));
+        if (identity != null) {
+            identity.forEachHeader(upstreamRequest::setHeader);
+        }
+        if (hasBody(route.getMethod(), servletRequest)) {
+            // Content-Type travels as a copied header; -1 length means chunked upstream.
+            // The entity copies through a small fixed buffer, and blocking writes to the
+            // upstream socket keep us from reading the client faster than it drains.
+            upstreamRequest.setEntity(new InputStreamEntity(bodyStream(route, servletRequest),
+                    servletRequest.getContentLengthLong(), null));
+        }
+
+        timing.mark("prepare");
+
+        ServiceGuard guard = serviceGuards.forService(route.getServiceId());
+        long guarded;
+        try {
+            guarded = guard.acquire();
+        } catch (UpstreamRejectedException e) {
+            return rejected(route, e);
+        }
+        timing.mark("choose");
+        timing.instance(instance.id());
+        // The span ends with the response headers, not with the streamed body
+        Span span = upstreamTracing.start(null, route.getServiceId(), instance.id(), route.getMethod().name(),
+                upstreamRequest, BasicClassicHttpRequest::setHeader);
+        ClassicHttpResponse response;
+        long start = instance.begin();
+        try {
+            response = upstreamClients.httpClient(route.getServiceId())
+                    .executeOpen(null, upstreamRequest, null);
+            timing.mark("upstream");
+            upstreamTracing.end(span, response.getCode(), null);
+        } catch (BodyTooLargeException e) {
+            upstreamTracing.end(span, 0, e);
+            instance.end(start, false);
+            guard.release(guarded, false);
+            logger.warn("Request body for route {} exceeded {} bytes", route.getId(), route.maxBodySize());
+            return bodyTooLarge(route);
+        } catch (IOException e) {
+            upstreamTracing.end(span, 0, e);
+            instance.end(start, true);
+            guard.release(guarded, true);
+            logger.error("Error forwarding route {} to {} ({}) after {} ms: {}", route.getId(), route.getServiceId(),
+                    instance.id(), TimeUnit.NANOSECONDS.toMillis(timing.elapsedNanos()), e.getMessage());
+            return errorResponse(route, HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+
+        HttpStatusCode status = HttpStatusCode.valueOf(response.getCode());
+        instance.end(start, status.is5xxServerError());
+        guard.release(guarded, status.is5xxServerError());
+        if (status.isError()) {
+            errors.counted(route, status.value());
+        }
+        org.apache.hc.core5.http.HttpEntity entity = response.getEntity();
+        if (entity == null || entity.getContentLength() == 0) {
+            try (response) {
+                EntityUtils.consume(entity);
+            }
+            byte[] successBody = successBodies.get(route.getId());
+            if (successBody != null && status.is2xxSuccessful()) {
+                return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(successBody);
+            }
+            if (status.isError()) {
+                return ServerResponse.status(status)
+                        .headers(headers -> {
+                            copyHeaders(response, headers);
+                            headers.remove(HttpHeaders.CONTENT_LENGTH);
+                        })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(errors.statusBody(status.value()));
+            }
+            return ServerResponse.status(status).headers(headers -> copyHeaders(response, headers)).build();
+        }
+        boolean streaming = route.getDefinition().getMode() == ForwardingMode.STREAMING;
+        return ServerResponse.status(status)
+                .headers(headers -> {
+                    copyHeaders(response, headers);
+                    if (streaming) {
+                        // Keep proxies in front of the gateway from holding the stream back
+                        headers.set("X-Accel-Buffering", "no");
+                    }
+                })
+                .build((req, res) -> {
+                    try (response) {
+                        if (streaming) {
+                            stream(entity, res);
+                        } else {
+                            entity.writeTo(res.getOutputStream());
+                        }
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Copy a response body to the client piece by piece: each read returns
+     * what the upstream has sent so far, up to one buffer, and is flushed
+     * right away. A client that goes away fails the write, which aborts the
+     * upstream connection rather than reading the rest of the body, so the
+     * upstream stops generating.
+     */
+    private static void stream(org.apache.hc.core5.http.HttpEntity entity, HttpServletResponse response)
+            throws IOException {
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        ServletOutputStream out = response.getOutputStream();
+        InputStream in = entity.getContent();
+        try {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                out.flush();
+            }
+        } catch (IOException e) {
+            if (in instanceof EofSensorInputStream upstream) {
+                upstream.abort();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Handler for {@code GET /jobs/{id}}: the job's upstream response once it
+     * is done, otherwise 202. With {@code ?wait=<seconds>} the request waits
+     * for the result, up to gateway.jobs.max-wait, without holding a servlet
+     * thread. Jobs submitted with a bearer token are only visible with a
+     * token of the same user.
+     *
+     * @param request the poll request
+     * @return the job's response, its status or 404
+     */
+    public ServerResponse job(ServerRequest request) {
+        Identity identity = edgeAuthenticator.resolve(request.headers().firstHeader(HttpHeaders.AUTHORIZATION));
+        Job job = jobs.find(request.pathVariable("id"), identity != null ? identity.userId() : null);
+        if (job == null) {
+            return ServerResponse.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON)
+                    .body(json(message(false, "Job not found or expired")));
+        }
+        String acceptEncoding = request.headers().firstHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (job.isDone()) {
+            return finished(job, acceptEncoding);
+        }
+        Duration wait = jobs.waitTime(request.param("wait").orElse(null));
+        if (wait.isZero()) {
+            return pending(job);
+        }
+        return ServerResponse.async(job.result()
+                .handle((response, error) -> finished(job, acceptEncoding))
+                .completeOnTimeout(pending(job), wait.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    private static boolean prefersAsync(HttpServletRequest request) {
+        Enumeration<String> values = request.getHeaders("Prefer");
+        while (values.hasMoreElements()) {
+            for (String preference : values.nextElement().split(",")) {
+                if (RESPOND_ASYNC.equalsIgnoreCase(preference.trim())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Answer 202 at once and make the upstream call on the job executor. The
+     * request body is read here, since the call outlives the client request,
+     * and every end-to-end header is forwarded as in passthrough mode.
+     */
+    private ServerResponse submitJob(CompiledRoute route, HttpServletRequest servletRequest, String pathAndQuery)
+            throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        Enumeration<String> names = servletRequest.getHeaderNames();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            if (isForwarded(name) && !"prefer".equalsIgnoreCase(name)) {
+                headers.addAll(name, Collections.list(servletRequest.getHeaders(name)));
+            }
+        }
+        Identity identity = edgeAuthenticator.resolve(servletRequest.getHeader(HttpHeaders.AUTHORIZATION));
+        if (identity != null) {
+            identity.forEachHeader(headers::set);
+        }
+        // Whoever polls may accept other codings than the submitter; see relay
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        byte[] body;
+        try {
+            body = readBody(route, servletRequest);
+        } catch (BodyTooLargeException e) {
+            return bodyTooLarge(route);
+        }
+
+        Job job;
+        try {
+            job = jobs.submit(route.getId(), identity != null ? identity.userId() : null,
+                    () -> runJob(route, pathAndQuery, headers, body));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Job executor full, refusing async request for route {}", route.getId());
+            return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(json(message(false, "Too many requests in progress, retry later")));
+        }
+        return DecoratedResponse.of(pending(job),
+                response -> response.setHeader(PREFERENCE_APPLIED, RESPOND_ASYNC));
+    }
+
+    /**
+     * The upstream call of a job, on the job executor: timed and recorded
+     * like a forwarded request, from the moment it starts running.
+     */
+    private BufferedResponse runJob(CompiledRoute route, String pathAndQuery, HttpHeaders headers, byte[] body) {
+        ServerTiming timing = ServerTiming.start();
+        ServerTiming.bind(timing);
+        int status = HttpStatus.INTERNAL_SERVER_ERROR.value();
+        try {
+            BufferedResponse response = exchange(route, pathAndQuery, headers, body, timing);
+            status = response.status().value();
+            return response;
+        } catch (NoInstanceAvailableException | UpstreamRejectedException e) {
+            status = HttpStatus.SERVICE_UNAVAILABLE.value();
+            throw e;
+        } catch (RestClientException e) {
+            logger.error("Error forwarding job for route {} to {} ({}) after {} ms: {}", route.getId(),
+                    route.getServiceId(), timing.instance(), TimeUnit.NANOSECONDS.toMillis(timing.elapsedNanos()),
+                    e.getMessage());
+            throw e;
+        } finally {
+            ServerTiming.unbind();
+            routeMetrics.record(route.getId(), route.getPath(), route.getServiceId(), timing, status);
+        }
+    }
+
+    private ServerResponse pending(Job job) {
+        Map<String, Object> body = message(true, "Request accepted, poll /jobs/" + job.id() + " for the result");
+        body.put("jobId", job.id());
+        body.put("status", "running");
+        return ServerResponse.accepted()
+                .location(URI.create("/jobs/" + job.id()))
+                .header(HttpHeaders.RETRY_AFTER, "2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json(body));
+    }
+
+    private ServerResponse finished(Job job, String acceptEncoding) {
+        CompiledRoute route = routes.get(job.routeId());
+        try {
+            return relay(route, job.result().join(), acceptEncoding);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof NoInstanceAvailableException) {
+                return errorResponse(route, HttpStatus.SERVICE_UNAVAILABLE, null);
+            }
+            if (e.getCause() instanceof UpstreamRejectedException rejected) {
+                return rejected(route, rejected);
+            }
+            return errorResponse(route, HttpStatus.INTERNAL_SERVER_ERROR,
+                    e.getCause() instanceof Exception cause ? cause : e);
+        } catch (RestClientException e) {
+            // A stored gzip body that cannot be inflated for this client
+            return errorResponse(route, HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    /**
+     * Whether a client request header is passed on by the header-copying
+     * modes: not hop-by-hop, not set by the upstream connection, and not an
+     * identity header while identities are verified here.
+     */
+    private boolean isForwarded(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        return !HOP_BY_HOP_HEADERS.contains(lower) && !PASSTHROUGH_DROPPED_REQUEST_HEADERS.contains(lower)
+                && !(edgeAuthenticator.isEnabled() && IdentityHeaders.isReserved(lower));
+    }
+
+    private static void copyHeaders(ClassicHttpResponse response, HttpHeaders headers) {
+        for (Header header : response.getHeaders()) {
+            String lower = header.getName().toLowerCase(Locale.ROOT);
+            if (!HOP_BY_HOP_HEADERS.contains(lower) && !lower.startsWith("access-control-")) {
+                headers.add(header.getName(), header.getValue());
+            }
+        }
+    }
+
+    /**
+     * Content type plus the route's forward-headers. Identity headers come
+     * only from the verified token, and only along with the Authorization
+     * header they were derived from, which also keeps them in the cache key.
+     * The upstream is always asked for gzip, whatever the client accepts; see
+     * {@link #relay}.
+     */
+    private HttpHeaders forwardHeaders(CompiledRoute route, UnaryOperator<String> header) {
+        HttpHeaders headers = new HttpHeaders();
+        String contentType = header.apply(HttpHeaders.CONTENT_TYPE);
+        if (contentType != null) {
+            headers.set(HttpHeaders.CONTENT_TYPE, contentType);
+        }
+        boolean verifying = edgeAuthenticator.isEnabled();
+        for (String name : route.forwardHeaders()) {
+            if (verifying && IdentityHeaders.isReserved(name)) {
+                continue;
+            }
+            String value = header.apply(name);
+            if (value != null) {
+                headers.set(name, value);
+            }
+        }
+        Identity identity = edgeAuthenticator.resolve(headers.getFirst(HttpHeaders.AUTHORIZATION));
+        if (identity != null) {
+            identity.forEachHeader(headers::set);
+        }
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        return headers;
+    }
+
+    private static boolean hasBody(HttpMethod method, HttpServletRequest request) {
+        if (method == HttpMethod.GET || method == HttpMethod.HEAD) {
+            return false;
+        }
+        return request.getContentLengthLong() > 0 || request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+    }
+
+    private static InputStream bodyStream(CompiledRoute route, HttpServletRequest request) throws IOException {
+        InputStream in = request.getInputStream();
+        return route.maxBodySize() >= 0 ? new LimitedInputStream(in, route.maxBodySize()) : in;
+    }
+
+    private static byte[] readBody(CompiledRoute route, HttpServletRequest request) throws IOException {
+        if (route.getMethod() == HttpMethod.GET || route.getMethod() == HttpMethod.HEAD) {
+            return null;
+        }
+        byte[] body = bodyStream(route, request).readAllBytes();
+        return body.length > 0 ? body : null;
+    }
+
+    /**
+     * Build the client response from a buffered (possibly cached) upstream
+     * response. A gzip body goes out as it is to clients that accept gzip,
+     * so cached entries stay compressed and are never compressed again; other
+     * clients get it inflated. Uncompressed bodies are left to the server's
+     * response compression.
+     */
+    private ServerResponse relay(CompiledRoute route, BufferedResponse response, String acceptEncoding) {
+        HttpHeaders upstreamHeaders = response.headers();
+        byte[] upstreamBody = response.body();
+        boolean empty = upstreamBody == null || upstreamBody.length == 0;
+        byte[] successBody = successBodies.get(route.getId());
+        if (empty && successBody != null && response.status().is2xxSuccessful()) {
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(successBody);
+        }
+        boolean decode = !empty && GzipCoding.isEncoded(upstreamHeaders)
+                && !GzipCoding.isAccepted(acceptEncoding);
+        byte[] body = decode ? GzipCoding.decode(upstreamBody) : upstreamBody;
+        ServerResponse.BodyBuilder builder = ServerResponse.status(response.status()).headers(headers -> {
+            if (upstreamHeaders != null) {
+                upstreamHeaders.forEach((name, values) -> {
+                    String lower = name.toLowerCase(Locale.ROOT);
+                    // The length is recomputed when the buffered body is written
+                    if (!HOP_BY_HOP_HEADERS.contains(lower) && !"content-length".equals(lower)
+                            && !lower.startsWith("access-control-")
+                            && !(decode && "content-encoding".equals(lower))) {
+                        headers.put(name, values);
+                    }
+                });
+            }
+        });
+        return empty ? builder.build() : builder.body(body);
+    }
+
+    private ServerResponse errorResponse(CompiledRoute route, HttpStatus status, Exception cause) {
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON)
+                .body(errors.gateway(route, status, cause));
+    }
+
+    /**
+     * Fail fast for a service that is cut off; not logged per request, the
+     * breaker logs its transitions and rejections are counted.
+     */
+    private ServerResponse rejected(CompiledRoute route, UpstreamRejectedException e) {
+        logger.debug("Route {}: {}", route.getId(), e.getMessage());
+        return errorResponse(route, HttpStatus.SERVICE_UNAVAILABLE, e);
+    }
+
+    private ServerResponse bodyTooLarge(CompiledRoute route) {
+        return ServerResponse.status(HttpStatus.PAYLOAD_TOO_LARGE).contentType(MediaType.APPLICATION_JSON)
+                .body(errors.tooLarge(route));
+    }
+
+    private static HttpHeaders jsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
+    }
+
+    private static Map<String, Object> message(boolean success, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", success);
+        body.put("message", message);
+        return body;
+    }
+
+    private byte[] json(Map<String, Object> value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize gateway error body", e);
+        }
+    }
+
+    /**
+     * A hedged call's response and the instance that gave it.
+     */
+    private record Answer(UpstreamInstance instance, BufferedResponse response) {
+    }
+}
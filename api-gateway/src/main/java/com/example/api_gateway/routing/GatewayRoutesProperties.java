@@ -0,0 +1,27 @@
+package com.example.api_gateway.routing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The gateway route table, bound from {@code gateway.routes} (see
+ * gateway-routes.yml).
+ */
+@ConfigurationProperties(prefix = "gateway")
+public class GatewayRoutesProperties {
+
+    /**
+     * Routes forwarded by the shared forwarding pipeline.
+     */
+    private List<RouteDefinition> routes = new ArrayList<>();
+
+    public List<RouteDefinition> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<RouteDefinition> routes) {
+        this.routes = routes;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.api_gateway.routing;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.RestClientException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The gzip content coding of buffered bodies. Buffered routes always ask the
+ * upstream for gzip; a gzip body is relayed as it is to clients that accept
+ * it and inflated once for those that do not.
+ */
+final class GzipCoding {
+
+    private GzipCoding() {
+    }
+
+    /**
+     * Whether a response body is gzip-encoded.
+     *
+     * @param headers response headers, possibly null
+     * @return true for a Content-Encoding of gzip or x-gzip
+     */
+    static boolean isEncoded(HttpHeaders headers) {
+        String encoding = headers != null ? headers.getFirst(HttpHeaders.CONTENT_ENCODING) : null;
+        return encoding != null && isGzip(encoding.trim());
+    }
+
+    /**
+     * Whether a client accepts gzip bodies, following the codings and
+     * q-values of its Accept-Encoding header. An explicit gzip entry wins
+     * over a * entry.
+     *
+     * @param acceptEncoding the Accept-Encoding header, possibly null
+     * @return true if gzip has a non-zero quality
+     */
+    static boolean isAccepted(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String entry : acceptEncoding.split(",")) {
+            int semicolon = entry.indexOf(';');
+            String coding = (semicolon >= 0 ? entry.substring(0, semicolon) : entry).trim();
+            boolean accepted = semicolon < 0 || quality(entry.substring(semicolon + 1)) > 0;
+            if (isGzip(coding)) {
+                return accepted;
+            }
+            if ("*".equals(coding)) {
+                wildcard = accepted;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    /**
+     * Inflate a gzip body.
+     *
+     * @param body the encoded body
+     * @return the decoded body
+     * @throws RestClientException if the upstream sent a corrupt body
+     */
+    static byte[] decode(byte[] body) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new RestClientException("Upstream sent a corrupt gzip body", e);
+        }
+    }
+
+    private static boolean isGzip(String coding) {
+        return "gzip".equalsIgnoreCase(coding) || "x-gzip".equalsIgnoreCase(coding);
+    }
+
+    private static double quality(String parameters) {
+        for (String parameter : parameters.split(";")) {
+            String trimmed = parameter.trim().toLowerCase(Locale.ROOT);
+            if (trimmed.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(trimmed.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
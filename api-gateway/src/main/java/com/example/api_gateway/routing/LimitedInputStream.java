@@ -0,0 +1,53 @@
+package com.example.api_gateway.routing;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream that fails with {@link BodyTooLargeException} once more than
+ * a fixed number of bytes has been read. Used for streamed bodies whose
+ * length is not announced up front.
+ */
+final class LimitedInputStream extends FilterInputStream {
+
+    private final long limit;
+    private long count;
+
+    LimitedInputStream(InputStream in, long limit) {
+        super(in);
+        this.limit = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            count(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    private void count(long n) throws BodyTooLargeException {
+        count += n;
+        if (count > limit) {
+            throw new BodyTooLargeException(limit);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.api_gateway.routing;
+
+/**
+ * Thrown when a service has no instance in the load balancer and no fallback
+ * URL; answered with 503.
+ */
+class NoInstanceAvailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    NoInstanceAvailableException(String serviceId) {
+        super(serviceId + " not available in load balancer");
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.api_gateway.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A path template such as {@code /plans/{user_id}/{plan_id}}, split into
+ * segments once at startup.
+ */
+final class PathTemplate {
+
+    private final String template;
+    private final String[] segments;
+    private final boolean[] variable;
+
+    private PathTemplate(String template, String[] segments, boolean[] variable) {
+        this.template = template;
+        this.segments = segments;
+        this.variable = variable;
+    }
+
+    /**
+     * Parse a template. A segment written as {name} is a variable; every other
+     * segment is matched literally.
+     *
+     * @param template the template, starting with '/'
+     * @return the parsed template
+     */
+    static PathTemplate parse(String template) {
+        if (template == null || !template.startsWith("/")) {
+            throw new IllegalArgumentException("Path template must start with '/': " + template);
+        }
+        List<String> parts = split(template);
+        String[] segments = new String[parts.size()];
+        boolean[] variable = new boolean[parts.size()];
+        for (int i = 0; i < segments.length; i++) {
+            String part = parts.get(i);
+            if (part.startsWith("{") && part.endsWith("}")) {
+                segments[i] = part.substring(1, part.length() - 1);
+                variable[i] = true;
+            } else if (part.indexOf('{') >= 0 || part.indexOf('}') >= 0) {
+                throw new IllegalArgumentException("Variables must span a whole segment: " + template);
+            } else {
+                segments[i] = part;
+            }
+        }
+        return new PathTemplate(template, segments, variable);
+    }
+
+    /**
+     * Split a path on '/', dropping empty segments.
+     */
+    static List<String> split(String path) {
+        List<String> parts = new ArrayList<>(8);
+        int start = 0;
+        int length = path.length();
+        while (start < length) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                parts.add(path.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return parts;
+    }
+
+    String template() {
+        return template;
+    }
+
+    int size() {
+        return segments.length;
+    }
+
+    boolean isVariable(int index) {
+        return variable[index];
+    }
+
+    /**
+     * The literal text of a segment, or the variable name for a variable segment.
+     */
+    String segment(int index) {
+        return segments[index];
+    }
+
+    /**
+     * Names of the variables in declaration order.
+     */
+    List<String> variableNames() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < segments.length; i++) {
+            if (variable[i]) {
+                names.add(segments[i]);
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.api_gateway.routing;
+
+import com.example.api_gateway.admission.Priority;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One entry of the gateway route table, bound from {@code gateway.routes}.
+ */
+public class RouteDefinition {
+
+    /**
+     * Unique route id, used in logs and metrics.
+     */
+    private String id;
+
+    /**
+     * HTTP method the route answers to.
+     */
+    private String method = "GET";
+
+    /**
+     * Gateway path template, e.g. /users/{id}.
+     */
+    private String path;
+
+    /**
+     * Eureka service id the route forwards to.
+     */
+    private String service;
+
+    /**
+     * Upstream path template; defaults to the gateway path. May use the
+     * variables of the gateway path, e.g. /chat or /plan-statistics.
+     */
+    private String upstreamPath;
+
+    /**
+     * Client request headers copied to the upstream request, in addition to
+     * Content-Type.
+     */
+    private List<String> forwardHeaders = new ArrayList<>();
+
+    /**
+     * Message returned when the upstream cannot be reached.
+     */
+    private String errorMessage = "Service temporarily unavailable";
+
+    /**
+     * Whether to include the underlying error text in the failure response.
+     */
+    private boolean exposeErrorDetail;
+
+    /**
+     * When set, a successful upstream response without a body is answered with
+     * {"success": true, "message": successMessage}.
+     */
+    private String successMessage;
+
+    /**
+     * How bodies are forwarded; PASSTHROUGH streams large payloads without
+     * buffering them, STREAMING also flushes every piece of the response as
+     * it arrives (token streams, SSE).
+     */
+    private ForwardingMode mode = ForwardingMode.BUFFERED;
+
+    /**
+     * Largest request body accepted, e.g. 100MB; larger bodies are answered
+     * with 413. Unlimited when not set.
+     */
+    private DataSize maxBodySize;
+
+    /**
+     * When set, successful responses are cached in the gateway for this long.
+     * Only for buffered GET routes; the cache key covers the upstream path,
+     * the query and the forwarded headers.
+     */
+    private Duration cacheTtl;
+
+    /**
+     * Whether concurrent identical requests share one upstream call. Applies
+     * to buffered GET routes without a cache-ttl (the cache coalesces on its
+     * own); turn off for routes whose responses must not be shared.
+     */
+    private boolean coalesce = true;
+
+    /**
+     * Admission class when the gateway is short of capacity; LOW routes are
+     * shed first, CRITICAL routes last.
+     */
+    private Priority priority = Priority.NORMAL;
+
+    /**
+     * Name of the rate-limit policy under gateway.rate-limit.policies that
+     * applies to the route; not limited when not set.
+     */
+    private String rateLimit;
+
+    /**
+     * Whether clients may run the request as a job: with Prefer:
+     * respond-async they get 202 and a job id at once, and fetch the
+     * upstream response from /jobs/{id}.
+     */
+    private boolean async;
+
+    /**
+     * Whether a slow upstream call is hedged: once it takes longer than the
+     * route usually does, a second call goes to another instance and the
+     * first answer wins. Only for buffered GET routes.
+     */
+    private boolean hedge;
+
+    /**
+     * Whether failed upstream calls are retried, on another instance when
+     * there is one. Defaults to true for GET routes and false otherwise; set
+     * it only on other routes the service treats as idempotent. Only for
+     * buffered routes: retries work on whole answers, while passthrough and
+     * streaming routes relay the upstream response as it arrives, so those
+     * routes are never retried, body-less GETs included.
+     */
+    private Boolean retry;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public void setService(String service) {
+        this.service = service;
+    }
+
+    public String getUpstreamPath() {
+        return upstreamPath;
+    }
+
+    public void setUpstreamPath(String upstreamPath) {
+        this.upstreamPath = upstreamPath;
+    }
+
+    public List<String> getForwardHeaders() {
+        return forwardHeaders;
+    }
+
+    public void setForwardHeaders(List<String> forwardHeaders) {
+        this.forwardHeaders = forwardHeaders;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public boolean isExposeErrorDetail() {
+        return exposeErrorDetail;
+    }
+
+    public void setExposeErrorDetail(boolean exposeErrorDetail) {
+        this.exposeErrorDetail = exposeErrorDetail;
+    }
+
+    public String getSuccessMessage() {
+        return successMessage;
+    }
+
+    public void setSuccessMessage(String successMessage) {
+        this.successMessage = successMessage;
+    }
+
+    public ForwardingMode getMode() {
+        return mode;
+    }
+
+    public void setMode(ForwardingMode mode) {
+        this.mode = mode;
+    }
+
+    public DataSize getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    public void setMaxBodySize(DataSize maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public void setCacheTtl(Duration cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    public boolean isCoalesce() {
+        return coalesce;
+    }
+
+    public void setCoalesce(boolean coalesce) {
+        this.coalesce = coalesce;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+
+    public String getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(String rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    public boolean isHedge() {
+        return hedge;
+    }
+
+    public void setHedge(boolean hedge) {
+        this.hedge = hedge;
+    }
+
+    public Boolean getRetry() {
+        return retry;
+    }
+
+    public void setRetry(Boolean retry) {
+        this.retry = retry;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.api_gateway.routing;
+
+/**
+ * The route chosen for a request together with the raw (still URL-encoded)
+ * values of its path variables, in template order.
+ *
+ * @param route  the matched route
+ * @param values the path variable values
+ */
+public record RouteMatch(CompiledRoute route, String[] values) {
+
+    /**
+     * Look up a path variable by name.
+     *
+     * @param name the variable name from the route's path template
+     * @return the raw value, or null if the route has no such variable
+     */
+    public String variable(String name) {
+        int index = route.getVariableNames().indexOf(name);
+        return index < 0 ? null : values[index];
+    }
+
+    /**
+     * Build the upstream path and query for this match.
+     *
+     * @param query the raw query string, or null
+     * @return the upstream path
+     */
+    public String upstreamPath(String query) {
+        return route.upstreamPath(values, query);
+    }
+}
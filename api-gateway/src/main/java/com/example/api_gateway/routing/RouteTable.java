@@ -0,0 +1,50 @@
+package com.example.api_gateway.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The compiled route table. Routes are validated and indexed into a
+ * {@link RouteTrie} once at startup; matching a request is a walk over its
+ * path segments.
+ */
+public class RouteTable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteTable.class);
+
+    private final List<CompiledRoute> routes;
+    private final RouteTrie trie = new RouteTrie();
+
+    public RouteTable(List<RouteDefinition> definitions) {
+        List<CompiledRoute> compiled = new ArrayList<>(definitions.size());
+        for (RouteDefinition definition : definitions) {
+            CompiledRoute route = new CompiledRoute(definition);
+            trie.add(route);
+            compiled.add(route);
+        }
+        this.routes = Collections.unmodifiableList(compiled);
+        logger.info("Loaded {} gateway routes", routes.size());
+    }
+
+    /**
+     * Find the route for a request.
+     *
+     * @param method the request method
+     * @param path   the raw request path
+     * @return the match, or null if no route applies
+     */
+    public RouteMatch match(String method, String path) {
+        return trie.match(method, path);
+    }
+
+    /**
+     * All routes in declaration order.
+     */
+    public List<CompiledRoute> getRoutes() {
+        return routes;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.api_gateway.routing;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Segment trie over the path templates of the route table. Literal segments
+ * are tried before variables, so /users/search wins over /users/{id}, and the
+ * search backtracks when a literal branch dead-ends.
+ */
+final class RouteTrie {
+
+    private final Node root = new Node();
+    private int maxVariables;
+
+    /**
+     * Add a route to the trie.
+     *
+     * @param route the compiled route
+     * @throws IllegalStateException if another route already uses the same method and path shape
+     */
+    void add(CompiledRoute route) {
+        PathTemplate template = route.pathTemplate();
+        Node node = root;
+        for (int i = 0; i < template.size(); i++) {
+            if (template.isVariable(i)) {
+                if (node.variable == null) {
+                    node.variable = new Node();
+                }
+                node = node.variable;
+            } else {
+                node = node.literals.computeIfAbsent(template.segment(i), key -> new Node());
+            }
+        }
+        CompiledRoute existing = node.routes.putIfAbsent(route.getMethod().name(), route);
+        if (existing != null) {
+            throw new IllegalStateException("Routes " + existing.getId() + " and " + route.getId()
+                    + " both map " + route.getMethod() + " " + route.getPath());
+        }
+        maxVariables = Math.max(maxVariables, route.getVariableNames().size());
+    }
+
+    /**
+     * Find the route for a request.
+     *
+     * @param method the request method
+     * @param path   the raw request path
+     * @return the match, or null if no route applies
+     */
+    RouteMatch match(String method, String path) {
+        String[] segments = PathTemplate.split(path).toArray(new String[0]);
+        String[] values = new String[maxVariables];
+        CompiledRoute route = find(root, segments, 0, values, 0, method);
+        if (route == null) {
+            return null;
+        }
+        return new RouteMatch(route, Arrays.copyOf(values, route.getVariableNames().size()));
+    }
+
+    private CompiledRoute find(Node node, String[] segments, int index, String[] values, int captured,
+            String method) {
+        if (index == segments.length) {
+            return node.routes.get(method);
+        }
+        Node literal = node.literals.get(segments[index]);
+        if (literal != null) {
+            CompiledRoute route = find(literal, segments, index + 1, values, captured, method);
+            if (route != null) {
+                return route;
+            }
+        }
+        if (node.variable != null && captured < values.length) {
+            values[captured] = segments[index];
+            return find(node.variable, segments, index + 1, values, captured + 1, method);
+        }
+        return null;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> literals = new HashMap<>();
+        private final Map<String, CompiledRoute> routes = new HashMap<>(4);
+        private Node variable;
+    }
+}
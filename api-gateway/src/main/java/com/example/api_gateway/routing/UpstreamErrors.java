@@ -0,0 +1,178 @@
+package com.example.api_gateway.routing;
+
+import com.example.api_gateway.cache.BufferedResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The error stage of the forwarding pipeline, which every error answer of a
+ * route request goes through.
+ * <p>
+ * An upstream 4xx/5xx answer keeps its bytes and its Content-Type and is
+ * never parsed or serialized again. Only an empty one gets a body: the JSON
+ * message of its status. Errors the gateway raises itself (no instance, the
+ * service cut off, a failed call, a body too large) get the route's JSON
+ * error. All these bodies are serialized once at startup, one per status and
+ * one per route.
+ * <p>
+ * Errors are counted in {@code gateway.upstream.errors}, tagged with the
+ * service, the status and an origin: upstream when the service answered
+ * with the error, gateway when the gateway answered for it. Divided by the
+ * service's count in {@code gateway.route.requests}, this gives the
+ * service's error rate.
+ */
+public class UpstreamErrors {
+
+    private static final String UPSTREAM = "upstream";
+    private static final String GATEWAY = "gateway";
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final byte[][] statusBodies = new byte[600][];
+    private final byte[] unknownStatusBody;
+    private final Map<String, byte[]> routeBodies = new HashMap<>();
+    private final Map<String, byte[]> tooLargeBodies = new HashMap<>();
+    private final Map<Key, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Create the stage, serializing the error bodies of every status and route.
+     *
+     * @param routeTable    the routes and their error messages
+     * @param objectMapper  mapper for the error bodies
+     * @param meterRegistry registry for the error counters
+     */
+    public UpstreamErrors(RouteTable routeTable, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        for (HttpStatus status : HttpStatus.values()) {
+            if (status.isError()) {
+                statusBodies[status.value()] = json(message(status.getReasonPhrase()));
+            }
+        }
+        this.unknownStatusBody = json(message("Upstream error"));
+        for (CompiledRoute route : routeTable.getRoutes()) {
+            RouteDefinition definition = route.getDefinition();
+            routeBodies.put(route.getId(), json(message(definition.getErrorMessage())));
+            if (definition.getMaxBodySize() != null) {
+                tooLargeBodies.put(route.getId(),
+                        json(message("Request body exceeds " + definition.getMaxBodySize())));
+            }
+        }
+    }
+
+    /**
+     * An upstream's error answer to one call, as the client gets it.
+     *
+     * @param route   the route called
+     * @param status  the upstream status, 4xx or 5xx
+     * @param headers the upstream response headers, or null
+     * @param body    the upstream response body, or null
+     * @return the answer, with the status's message if it had no body
+     */
+    BufferedResponse upstream(CompiledRoute route, HttpStatusCode status, HttpHeaders headers, byte[] body) {
+        counted(route, status.value());
+        if (body != null && body.length > 0) {
+            return new BufferedResponse(status, headers, body);
+        }
+        HttpHeaders translated = new HttpHeaders();
+        if (headers != null) {
+            translated.putAll(headers);
+            translated.remove(HttpHeaders.CONTENT_LENGTH);
+            translated.remove(HttpHeaders.CONTENT_ENCODING);
+        }
+        translated.setContentType(MediaType.APPLICATION_JSON);
+        return new BufferedResponse(status, translated, statusBody(status.value()));
+    }
+
+    /**
+     * Count an upstream's error answer that is relayed as it arrives.
+     *
+     * @param route  the route called
+     * @param status the upstream status, 4xx or 5xx
+     */
+    void counted(CompiledRoute route, int status) {
+        counter(route.getServiceId(), status, UPSTREAM).increment();
+    }
+
+    /**
+     * The body of an error status the upstream sent without one.
+     *
+     * @param status the status
+     * @return its JSON message
+     */
+    byte[] statusBody(int status) {
+        byte[] body = status >= 0 && status < statusBodies.length ? statusBodies[status] : null;
+        return body != null ? body : unknownStatusBody;
+    }
+
+    /**
+     * The body of an error the gateway answers a route request with, which
+     * is counted against the route's service.
+     *
+     * @param route  the route
+     * @param status the status answered
+     * @param cause  what failed, or null
+     * @return the route's JSON error, with the cause's message if the route
+     *         exposes error detail
+     */
+    byte[] gateway(CompiledRoute route, HttpStatus status, Exception cause) {
+        counter(route.getServiceId(), status.value(), GATEWAY).increment();
+        if (cause != null && route.getDefinition().isExposeErrorDetail()) {
+            Map<String, Object> detailed = message(route.getDefinition().getErrorMessage());
+            detailed.put("error", String.valueOf(cause.getMessage()));
+            return json(detailed);
+        }
+        return routeBodies.get(route.getId());
+    }
+
+    /**
+     * The body of a 413 for a request over the route's max-body-size. Not
+     * counted, since the service is not at fault.
+     *
+     * @param route the route
+     * @return its JSON error
+     */
+    byte[] tooLarge(CompiledRoute route) {
+        byte[] body = tooLargeBodies.get(route.getId());
+        return body != null ? body : statusBody(HttpStatus.PAYLOAD_TOO_LARGE.value());
+    }
+
+    private Counter counter(String serviceId, int status, String origin) {
+        return counters.computeIfAbsent(new Key(serviceId, status, origin), key -> Counter
+                .builder("gateway.upstream.errors")
+                .description("Error answers of route requests, by upstream service")
+                .tag("service", serviceId)
+                .tag("status", String.valueOf(status))
+                .tag("origin", origin)
+                .register(meterRegistry));
+    }
+
+    private static Map<String, Object> message(String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", false);
+        body.put("message", message);
+        return body;
+    }
+
+    private byte[] json(Map<String, Object> value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize gateway error body", e);
+        }
+    }
+
+    private record Key(String serviceId, int status, String origin) {
+    }
+}
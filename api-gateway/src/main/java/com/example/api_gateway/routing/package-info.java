@@ -0,0 +1,4 @@
+/**
+ * Declarative route table and shared forwarding pipeline for api-gateway.
+ */
+package com.example.api_gateway.routing;
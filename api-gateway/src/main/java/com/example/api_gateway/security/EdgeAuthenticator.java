@@ -0,0 +1,142 @@
+package com.example.api_gateway.security;
+
+import com.example.api_gateway.config.IdentityProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies bearer tokens once at the edge and turns them into signed
+ * {@link Identity identities} for the services behind the gateway.
+ * <p>
+ * Verified tokens are cached until their {@code exp}, keyed by the SHA-256
+ * of the token, so a client's repeated requests cost one hash instead of a
+ * signature check and a claims parse. Invalid tokens are not cached and
+ * not rejected here: the request goes on without identity headers and the
+ * service answers it as before.
+ * <p>
+ * Tokens are counted in {@code gateway.identity.tokens}, tagged with a
+ * result of cached, verified or rejected.
+ */
+public class EdgeAuthenticator {
+
+    private static final String BEARER = "Bearer ";
+
+    private final boolean enabled;
+    private final JwtVerifier verifier;
+    private final IdentitySigner signer;
+    private final Cache<String, Identity> identities;
+    private final Counter cached;
+    private final Counter verified;
+    private final Counter rejected;
+
+    /**
+     * Create the authenticator.
+     *
+     * @param properties    keys and cache bound
+     * @param objectMapper  reads token claims
+     * @param meterRegistry registry for token metrics
+     */
+    public EdgeAuthenticator(IdentityProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        if (enabled && (properties.getJwtSecret() == null || properties.getSigningSecret() == null)) {
+            throw new IllegalStateException("gateway.identity.jwt-secret and signing-secret are required");
+        }
+        this.verifier = enabled ? new JwtVerifier(properties.getJwtSecret(), objectMapper) : null;
+        this.signer = enabled ? new IdentitySigner(properties.getSigningSecret()) : null;
+        this.identities = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfter(new Expiry<String, Identity>() {
+                    @Override
+                    public long expireAfterCreate(String key, Identity identity, long currentTime) {
+                        long remainingMillis = identity.expires() * 1000 - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Identity identity, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Identity identity, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.cached = counter(meterRegistry, "cached");
+        this.verified = counter(meterRegistry, "verified");
+        this.rejected = counter(meterRegistry, "rejected");
+        Gauge.builder("gateway.identity.cached", identities, Cache::estimatedSize)
+                .description("Verified tokens held until they expire")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether tokens are verified here; when not, identity headers sent by
+     * clients are forwarded unchanged.
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Resolve the caller of a request.
+     *
+     * @param authorization the request's Authorization header, or null
+     * @return the verified identity, or null for a missing or invalid token
+     */
+    public Identity resolve(String authorization) {
+        if (!enabled || authorization == null || !authorization.startsWith(BEARER)) {
+            return null;
+        }
+        String token = authorization.substring(BEARER.length()).trim();
+        String key = sha256(token);
+        Identity identity = identities.getIfPresent(key);
+        if (identity != null) {
+            cached.increment();
+            return identity;
+        }
+        JwtVerifier.Claims claims = verifier.verify(token, System.currentTimeMillis() / 1000);
+        if (claims == null) {
+            rejected.increment();
+            return null;
+        }
+        verified.increment();
+        String roles = String.join(",", claims.roles());
+        identity = new Identity(claims.subject(), roles, claims.expires(),
+                signer.sign(claims.subject(), roles, claims.expires()));
+        identities.put(key, identity);
+        return identity;
+    }
+
+    private static String sha256(String token) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.identity.tokens")
+                .description("Bearer tokens seen by the gateway")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.api_gateway.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+
+/**
+ * A keyed HMAC usable from any thread: each call works on a clone of a Mac
+ * initialised once, which skips the provider lookup and key setup.
+ */
+final class Hmac {
+
+    private final Mac prototype;
+
+    Hmac(String algorithm, byte[] key) {
+        try {
+            prototype = Mac.getInstance(algorithm);
+            prototype.init(new SecretKeySpec(key, algorithm));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise " + algorithm, e);
+        }
+    }
+
+    byte[] sign(byte[] data) {
+        try {
+            return ((Mac) prototype.clone()).doFinal(data);
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HMAC provider does not support cloning", e);
+        }
+    }
+
+    byte[] sign(byte[] data, int offset, int length) {
+        try {
+            Mac mac = (Mac) prototype.clone();
+            mac.update(data, offset, length);
+            return mac.doFinal();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HMAC provider does not support cloning", e);
+        }
+    }
+}
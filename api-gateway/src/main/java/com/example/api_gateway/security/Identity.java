@@ -0,0 +1,26 @@
+package com.example.api_gateway.security;
+
+import java.util.function.BiConsumer;
+
+/**
+ * A verified caller, with its identity headers already signed.
+ *
+ * @param userId    subject of the token
+ * @param roles     roles of the token, comma separated
+ * @param expires   expiry of the token in epoch seconds
+ * @param signature gateway signature over the three
+ */
+public record Identity(String userId, String roles, long expires, String signature) {
+
+    /**
+     * Pass each identity header to a consumer, e.g. a header setter.
+     *
+     * @param header receives header name and value
+     */
+    public void forEachHeader(BiConsumer<String, String> header) {
+        header.accept(IdentityHeaders.USER_ID, userId);
+        header.accept(IdentityHeaders.USER_ROLES, roles);
+        header.accept(IdentityHeaders.EXPIRES, Long.toString(expires));
+        header.accept(IdentityHeaders.SIGNATURE, signature);
+    }
+}
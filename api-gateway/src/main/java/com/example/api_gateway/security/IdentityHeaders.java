@@ -0,0 +1,51 @@
+package com.example.api_gateway.security;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Names of the identity headers the gateway sends upstream. Downstream
+ * services trust them only when {@value #SIGNATURE} checks out, see
+ * {@link IdentitySigner}.
+ */
+public final class IdentityHeaders {
+
+    /**
+     * Subject of the verified token.
+     */
+    public static final String USER_ID = "X-User-Id";
+
+    /**
+     * Roles of the verified token, comma separated.
+     */
+    public static final String USER_ROLES = "X-User-Roles";
+
+    /**
+     * Expiry of the verified token, in epoch seconds; the headers are not
+     * valid after it.
+     */
+    public static final String EXPIRES = "X-Identity-Expires";
+
+    /**
+     * Gateway signature over the other three headers.
+     */
+    public static final String SIGNATURE = "X-Identity-Signature";
+
+    private static final Set<String> RESERVED = Set.of(
+            USER_ID.toLowerCase(Locale.ROOT), USER_ROLES.toLowerCase(Locale.ROOT),
+            EXPIRES.toLowerCase(Locale.ROOT), SIGNATURE.toLowerCase(Locale.ROOT));
+
+    private IdentityHeaders() {
+    }
+
+    /**
+     * Whether a header is set only by the gateway, and dropped when a client
+     * sends it.
+     *
+     * @param name header name, in any case
+     * @return true for the identity headers
+     */
+    public static boolean isReserved(String name) {
+        return RESERVED.contains(name.toLowerCase(Locale.ROOT));
+    }
+}
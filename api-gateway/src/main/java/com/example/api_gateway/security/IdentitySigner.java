@@ -0,0 +1,69 @@
+package com.example.api_gateway.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Signs identity headers with HMAC-SHA256 over
+ * {@code userId + "\n" + roles + "\n" + expires}, base64url without padding.
+ * A service holding the same key checks a request with
+ * {@link #verify(String, String, String, String, long)} instead of
+ * verifying the bearer token again.
+ */
+public class IdentitySigner {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final Hmac hmac;
+
+    /**
+     * Create a signer.
+     *
+     * @param base64Key the shared signing key
+     */
+    public IdentitySigner(String base64Key) {
+        this.hmac = new Hmac("HmacSHA256", Base64.getDecoder().decode(base64Key));
+    }
+
+    /**
+     * Sign one identity.
+     *
+     * @param userId  the {@link IdentityHeaders#USER_ID} value
+     * @param roles   the {@link IdentityHeaders#USER_ROLES} value
+     * @param expires the {@link IdentityHeaders#EXPIRES} value
+     * @return the {@link IdentityHeaders#SIGNATURE} value
+     */
+    public String sign(String userId, String roles, long expires) {
+        return ENCODER.encodeToString(mac(userId, roles, Long.toString(expires)));
+    }
+
+    /**
+     * Check identity headers as received by a downstream service.
+     *
+     * @param userId    the {@link IdentityHeaders#USER_ID} value
+     * @param roles     the {@link IdentityHeaders#USER_ROLES} value, or null
+     * @param expires   the {@link IdentityHeaders#EXPIRES} value
+     * @param signature the {@link IdentityHeaders#SIGNATURE} value
+     * @param now       the current time in epoch seconds
+     * @return true if the headers were signed with this key and have not expired
+     */
+    public boolean verify(String userId, String roles, String expires, String signature, long now) {
+        if (userId == null || expires == null || signature == null) {
+            return false;
+        }
+        try {
+            if (Long.parseLong(expires) <= now) {
+                return false;
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        byte[] expected = ENCODER.encode(mac(userId, roles != null ? roles : "", expires));
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private byte[] mac(String userId, String roles, String expires) {
+        return hmac.sign((userId + '\n' + roles + '\n' + expires).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.api_gateway.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Verifies compact HS512 JWTs as issued by auth-service: the signature, the
+ * algorithm, {@code exp} and, when present, {@code nbf}. Roles are read from
+ * a {@code roles} array or a single {@code role} claim, as blog-service does.
+ */
+public class JwtVerifier {
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Hmac hmac;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Create a verifier.
+     *
+     * @param base64Secret the HS512 key, base64 encoded
+     * @param objectMapper reads the token header and claims
+     */
+    public JwtVerifier(String base64Secret, ObjectMapper objectMapper) {
+        this.hmac = new Hmac("HmacSHA512", Base64.getDecoder().decode(base64Secret));
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Verify a token.
+     *
+     * @param token the compact token, without the "Bearer " prefix
+     * @param now   the current time in epoch seconds
+     * @return the verified claims, or null if the token is malformed, not
+     *         signed with the key, expired, not yet valid or has no expiry
+     */
+    public Claims verify(String token, long now) {
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot <= 0 || lastDot == firstDot || lastDot == token.length() - 1) {
+            return null;
+        }
+        try {
+            byte[] ascii = token.getBytes(StandardCharsets.US_ASCII);
+            byte[] expected = hmac.sign(ascii, 0, lastDot);
+            if (!MessageDigest.isEqual(expected, DECODER.decode(token.substring(lastDot + 1)))) {
+                return null;
+            }
+            JsonNode header = objectMapper.readTree(DECODER.decode(token.substring(0, firstDot)));
+            if (!"HS512".equals(header.path("alg").asText())) {
+                return null;
+            }
+            JsonNode claims = objectMapper.readTree(DECODER.decode(token.substring(firstDot + 1, lastDot)));
+            long expires = claims.path("exp").asLong(0);
+            if (expires <= now || claims.path("nbf").asLong(Long.MIN_VALUE) > now) {
+                return null;
+            }
+            String subject = claims.path("sub").asText(null);
+            if (subject == null) {
+                return null;
+            }
+            return new Claims(subject, roles(claims), expires);
+        } catch (IllegalArgumentException | IOException e) {
+            // Bad base64 or JSON
+            return null;
+        }
+    }
+
+    private static List<String> roles(JsonNode claims) {
+        JsonNode roles = claims.get("roles");
+        if (roles != null && roles.isArray()) {
+            List<String> values = new ArrayList<>(roles.size());
+            roles.forEach(role -> values.add(role.asText()));
+            return values;
+        }
+        JsonNode role = claims.get("role");
+        return role != null && role.isTextual() ? List.of(role.asText()) : List.of();
+    }
+
+    /**
+     * The claims of a verified token the gateway uses.
+     *
+     * @param subject the user id
+     * @param roles   the user's roles
+     * @param expires expiry in epoch seconds
+     */
+    public record Claims(String subject, List<String> roles, long expires) {
+    }
+}
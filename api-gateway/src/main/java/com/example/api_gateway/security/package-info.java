@@ -0,0 +1,5 @@
+/**
+ * Bearer token verification at the edge of api-gateway, and the signed
+ * identity headers that carry its result to the services behind it.
+ */
+package com.example.api_gateway.security;
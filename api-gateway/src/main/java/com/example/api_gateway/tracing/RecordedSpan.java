@@ -0,0 +1,21 @@
+package com.example.api_gateway.tracing;
+
+import java.util.Map;
+
+/**
+ * A finished span as kept by the {@link SpanCollector}.
+ *
+ * @param traceId        trace id, 32 hex digits
+ * @param spanId         span id, 16 hex digits
+ * @param parentSpanId   parent span id, or null for a root span
+ * @param service        service that recorded the span
+ * @param name           span name
+ * @param kind           SERVER, CLIENT or INTERNAL
+ * @param startMicros    start, in microseconds since the epoch
+ * @param durationMicros duration in microseconds
+ * @param error          whether the span ended with an error
+ * @param tags           span attributes
+ */
+public record RecordedSpan(String traceId, String spanId, String parentSpanId, String service, String name,
+        String kind, long startMicros, long durationMicros, boolean error, Map<String, String> tags) {
+}
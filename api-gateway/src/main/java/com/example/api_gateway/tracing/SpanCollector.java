@@ -0,0 +1,159 @@
+package com.example.api_gateway.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local span exporter: keeps the most recent finished spans in memory and,
+ * when a file is configured, appends each span to it as one JSON line. Lets
+ * tail latency be broken down by hop without a tracing backend; the spans of
+ * the services behind the gateway are in their own logs, under the same
+ * trace id.
+ */
+public class SpanCollector implements SpanExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpanCollector.class);
+
+    private static final AttributeKey<String> SERVICE_NAME = AttributeKey.stringKey("service.name");
+
+    private final int capacity;
+    private final ObjectMapper objectMapper;
+    private final ArrayDeque<RecordedSpan> spans;
+    private final BufferedWriter file;
+
+    /**
+     * Create the collector.
+     *
+     * @param capacity     number of recent spans kept in memory
+     * @param file         file the spans are appended to, or null
+     * @param objectMapper writes the JSON lines
+     * @throws IOException if the file cannot be opened
+     */
+    public SpanCollector(int capacity, Path file, ObjectMapper objectMapper) throws IOException {
+        this.capacity = capacity;
+        this.objectMapper = objectMapper;
+        this.spans = new ArrayDeque<>(Math.min(capacity, 1024));
+        if (file != null) {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.file = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            logger.info("Writing spans to {}", file.toAbsolutePath());
+        } else {
+            this.file = null;
+        }
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> batch) {
+        List<RecordedSpan> recorded = new ArrayList<>(batch.size());
+        for (SpanData span : batch) {
+            recorded.add(record(span));
+        }
+        synchronized (spans) {
+            for (RecordedSpan span : recorded) {
+                if (spans.size() == capacity) {
+                    spans.pollFirst();
+                }
+                spans.addLast(span);
+            }
+        }
+        if (file != null) {
+            synchronized (file) {
+                try {
+                    for (RecordedSpan span : recorded) {
+                        file.write(objectMapper.writeValueAsString(span));
+                        file.newLine();
+                    }
+                    file.flush();
+                } catch (IOException e) {
+                    logger.warn("Cannot write spans: {}", e.getMessage());
+                    return CompletableResultCode.ofFailure();
+                }
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    /**
+     * The spans in memory, oldest first.
+     *
+     * @return a copy of the recent spans
+     */
+    public List<RecordedSpan> recent() {
+        synchronized (spans) {
+            return new ArrayList<>(spans);
+        }
+    }
+
+    /**
+     * The spans of one trace still in memory, in start order.
+     *
+     * @param traceId the trace id
+     * @return the trace's spans
+     */
+    public List<RecordedSpan> trace(String traceId) {
+        List<RecordedSpan> trace = new ArrayList<>();
+        synchronized (spans) {
+            for (RecordedSpan span : spans) {
+                if (span.traceId().equals(traceId)) {
+                    trace.add(span);
+                }
+            }
+        }
+        trace.sort((a, b) -> Long.compare(a.startMicros(), b.startMicros()));
+        return trace;
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        if (file != null) {
+            synchronized (file) {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    logger.warn("Cannot close span file: {}", e.getMessage());
+                }
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    private static RecordedSpan record(SpanData span) {
+        Map<String, String> tags = new LinkedHashMap<>();
+        span.getAttributes().forEach((key, value) -> tags.put(key.getKey(), String.valueOf(value)));
+        String parent = SpanId.isValid(span.getParentSpanId()) ? span.getParentSpanId() : null;
+        return new RecordedSpan(span.getTraceId(), span.getSpanId(), parent,
+                span.getResource().getAttribute(SERVICE_NAME), span.getName(), span.getKind().name(),
+                TimeUnit.NANOSECONDS.toMicros(span.getStartEpochNanos()),
+                TimeUnit.NANOSECONDS.toMicros(span.getEndEpochNanos() - span.getStartEpochNanos()),
+                span.getStatus().getStatusCode() == StatusCode.ERROR, tags);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.api_gateway.tracing;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint over the {@link SpanCollector}: {@code /actuator/spans}
+ * lists the recent spans, {@code /actuator/spans/{traceId}} one trace.
+ */
+@Endpoint(id = "spans")
+public class SpansEndpoint {
+
+    private final SpanCollector collector;
+
+    public SpansEndpoint(SpanCollector collector) {
+        this.collector = collector;
+    }
+
+    @ReadOperation
+    public List<RecordedSpan> spans() {
+        return collector.recent();
+    }
+
+    @ReadOperation
+    public List<RecordedSpan> trace(@Selector String traceId) {
+        return collector.trace(traceId);
+    }
+}
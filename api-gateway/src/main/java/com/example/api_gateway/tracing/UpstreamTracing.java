@@ -0,0 +1,101 @@
+package com.example.api_gateway.tracing;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+
+/**
+ * Client spans for upstream calls. Each call gets a child span of the
+ * request's server span, and its context is written into the outgoing
+ * request as W3C {@code traceparent} (and {@code tracestate}), replacing
+ * any the client sent, so the service continues the same trace.
+ * <p>
+ * Upstream clients are built by hand rather than through an observed
+ * RestTemplateBuilder, so the gateway creates these spans itself.
+ */
+public class UpstreamTracing {
+
+    private final Tracer tracer;
+    private final Propagator propagator;
+
+    /**
+     * Create the helper.
+     *
+     * @param tracer     the application tracer, or {@link Tracer#NOOP}
+     * @param propagator writes trace context into requests, or {@link Propagator#NOOP}
+     */
+    public UpstreamTracing(Tracer tracer, Propagator propagator) {
+        this.tracer = tracer;
+        this.propagator = propagator;
+    }
+
+    /**
+     * The span of the request being handled on this thread, to pass to
+     * calls made from other threads.
+     *
+     * @return the current span, or null
+     */
+    public Span currentSpan() {
+        return tracer.currentSpan();
+    }
+
+    /**
+     * Make a span current on this thread, so calls made from a worker thread
+     * belong to the request that started them.
+     *
+     * @param span the span from {@link #currentSpan()}, or null
+     * @return the scope, to close when the work is done
+     */
+    public Tracer.SpanInScope withSpan(Span span) {
+        return tracer.withSpan(span);
+    }
+
+    /**
+     * Start the client span of one upstream call and write its context
+     * into the outgoing request. The span must be ended with
+     * {@link #end(Span, int, Throwable)}.
+     *
+     * @param parent    the request's span, or null to use the current span
+     * @param serviceId the upstream service
+     * @param instance  the instance called, host:port
+     * @param method    the HTTP method
+     * @param carrier   the outgoing request
+     * @param setter    sets a header on the outgoing request
+     * @param <C>       type of the outgoing request
+     * @return the started span
+     */
+    public <C> Span start(Span parent, String serviceId, String instance, String method, C carrier,
+            Propagator.Setter<C> setter) {
+        // Only the builder takes a span kind
+        Span.Builder builder = tracer.spanBuilder();
+        Span current = parent != null ? parent : tracer.currentSpan();
+        if (current != null) {
+            builder.setParent(current.context());
+        }
+        Span span = builder
+                .name(method + " " + serviceId)
+                .kind(Span.Kind.CLIENT)
+                .tag("peer.service", serviceId)
+                .tag("server.address", instance)
+                .start();
+        propagator.inject(span.context(), carrier, setter);
+        return span;
+    }
+
+    /**
+     * End the client span of an upstream call.
+     *
+     * @param span   the span returned by {@link #start}
+     * @param status the upstream status, or 0 if there was no response
+     * @param error  the failure, or null
+     */
+    public void end(Span span, int status, Throwable error) {
+        if (status > 0) {
+            span.tag("http.response.status_code", Integer.toString(status));
+        }
+        if (error != null) {
+            span.error(error);
+        }
+        span.end();
+    }
+}
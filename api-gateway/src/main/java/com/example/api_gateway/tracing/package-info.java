@@ -0,0 +1,5 @@
+/**
+ * Trace-context propagation to upstream services and a local span collector
+ * for api-gateway.
+ */
+package com.example.api_gateway.tracing;
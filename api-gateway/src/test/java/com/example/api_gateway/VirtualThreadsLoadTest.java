@@ -0,0 +1,160 @@
+package com.example.api_gateway;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * Load test for the virtual-thread execution mode: with Tomcat limited to a
+ * handful of platform threads, slow agent calls must not block cheap routes.
+ * <p>
+ * Run with {@code mvn test -Dtest=VirtualThreadsLoadTest -Dgateway.load=true}.
+ */
+@EnabledIfSystemProperty(named = "gateway.load", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.threads.virtual.enabled=true",
+		"server.tomcat.threads.max=4",
+		"eureka.client.enabled=false"
+})
+class VirtualThreadsLoadTest {
+
+	private static final int SLOW_CALLS = 16;
+	private static final int FAST_CALLS = 200;
+	private static final long SLOW_UPSTREAM_MILLIS = 4000;
+
+	private static HttpServer upstream;
+
+	private static String previousNodelay;
+
+	@LocalServerPort
+	private int port;
+
+	@MockBean
+	private DiscoveryClient discoveryClient;
+
+	@BeforeAll
+	static void startUpstream() throws IOException {
+		// Without TCP_NODELAY the JDK server adds ~40ms of delayed-ACK latency per response
+		previousNodelay = System.setProperty("sun.net.httpserver.nodelay", "true");
+		upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		upstream.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		upstream.createContext("/agent/chat", exchange -> {
+			exchange.getRequestBody().readAllBytes();
+			sleep(SLOW_UPSTREAM_MILLIS);
+			respond(exchange, "{\"reply\":\"done\"}");
+		});
+		upstream.createContext("/users/", exchange -> respond(exchange, "{\"id\":\"1\"}"));
+		upstream.start();
+	}
+
+	@AfterAll
+	static void stopUpstream() {
+		upstream.stop(0);
+		if (previousNodelay != null) {
+			System.setProperty("sun.net.httpserver.nodelay", previousNodelay);
+		} else {
+			System.clearProperty("sun.net.httpserver.nodelay");
+		}
+	}
+
+	@BeforeEach
+	void routeEverythingToStub() {
+		given(discoveryClient.getInstances(anyString())).willAnswer(invocation -> List.of(new DefaultServiceInstance(
+				"stub", invocation.getArgument(0), "127.0.0.1", upstream.getAddress().getPort(), false)));
+	}
+
+	@Test
+	void fastRoutesKeepFlowingWhileAgentCallsAreInFlight() throws Exception {
+		HttpClient client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(2))
+				.build();
+		// Warm up the gateway (JIT, upstream pool) so the measurement reflects steady state
+		for (int i = 0; i < 50; i++) {
+			client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/1")).build(),
+					HttpResponse.BodyHandlers.discarding());
+		}
+
+		List<CompletableFuture<HttpResponse<String>>> slowCalls = new ArrayList<>();
+		for (int i = 0; i < SLOW_CALLS; i++) {
+			HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/agent/chat"))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString("{\"message\":\"plan a trip\"}"))
+					.build();
+			slowCalls.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+		}
+		Thread.sleep(300);
+
+		long start = System.nanoTime();
+		try (ExecutorService callers = Executors.newFixedThreadPool(8)) {
+			List<CompletableFuture<Integer>> fastCalls = new ArrayList<>();
+			for (int i = 0; i < FAST_CALLS; i++) {
+				fastCalls.add(CompletableFuture.supplyAsync(() -> {
+					HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/1"))
+							.timeout(Duration.ofSeconds(2))
+							.build();
+					try {
+						return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+					} catch (Exception e) {
+						return -1;
+					}
+				}, callers));
+			}
+			for (CompletableFuture<Integer> call : fastCalls) {
+				assertThat(call.get(5, TimeUnit.SECONDS)).isEqualTo(200);
+			}
+		}
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		// Every fast call finished while the slow agent calls were still waiting upstream
+		assertThat(elapsedMillis).isLessThan(SLOW_UPSTREAM_MILLIS - 1000);
+		assertThat(slowCalls).noneMatch(CompletableFuture::isDone);
+
+		for (CompletableFuture<HttpResponse<String>> call : slowCalls) {
+			assertThat(call.get(10, TimeUnit.SECONDS).statusCode()).isEqualTo(200);
+		}
+	}
+
+	private static void respond(HttpExchange exchange, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, bytes.length);
+		exchange.getResponseBody().write(bytes);
+		exchange.close();
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.example.api_gateway.admission;
+
+import com.example.api_gateway.config.AdmissionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class ConcurrencyLimiterTests {
+
+	@Test
+	void lowPriorityIsShedBeforeCritical() {
+		AdmissionProperties properties = new AdmissionProperties();
+		properties.setInitialLimit(100);
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties);
+
+		assertThat(admitted(limiter, Priority.LOW)).isEqualTo(70);
+		assertThat(admitted(limiter, Priority.NORMAL)).isEqualTo(20);
+		assertThat(admitted(limiter, Priority.CRITICAL)).isEqualTo(10);
+	}
+
+	@Test
+	void limitGrowsWhileLatencyHoldsAndShrinksWhenItRises() {
+		AdmissionProperties properties = new AdmissionProperties();
+		properties.setWindow(Duration.ZERO);
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties);
+
+		for (int window = 0; window < 20; window++) {
+			busyWindow(limiter, 150, TimeUnit.MILLISECONDS.toNanos(10));
+		}
+		int steady = limiter.getLimit();
+		assertThat(steady).isGreaterThan(properties.getInitialLimit());
+
+		for (int window = 0; window < 10; window++) {
+			busyWindow(limiter, 150, TimeUnit.MILLISECONDS.toNanos(80));
+		}
+		assertThat(limiter.getLimit()).isLessThan(steady / 2);
+		assertThat(limiter.getInflight()).isZero();
+	}
+
+	@Test
+	void shedRequestsGetServiceUnavailableWithRetryAfter() throws Exception {
+		AdmissionProperties properties = new AdmissionProperties();
+		properties.setInitialLimit(1);
+		properties.setMinLimit(1);
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties);
+		AdmissionControl admission = new AdmissionControl(limiter, properties, new SimpleMeterRegistry());
+		List<HttpMessageConverter<?>> converters = List.of(new MappingJackson2HttpMessageConverter());
+		ServerRequest request = ServerRequest.create(new MockHttpServletRequest("GET", "/agent/status"), converters);
+
+		assertThat(limiter.tryAcquire(Priority.CRITICAL)).isTrue();
+		ServerResponse response = admission.filter(r -> "agent-status", r -> Priority.LOW)
+				.filter(request, r -> ServerResponse.ok().build());
+
+		assertThat(response.statusCode().value()).isEqualTo(503);
+		assertThat(response.headers().getFirst("Retry-After")).isEqualTo("1");
+	}
+
+	@Test
+	void slotIsHeldUntilTheResponseIsWritten() throws Exception {
+		AdmissionProperties properties = new AdmissionProperties();
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties);
+		AdmissionControl admission = new AdmissionControl(limiter, properties, new SimpleMeterRegistry());
+		List<HttpMessageConverter<?>> converters = List.of(new MappingJackson2HttpMessageConverter());
+		ServerRequest request = ServerRequest.create(new MockHttpServletRequest("GET", "/api/files/1"), converters);
+		AtomicInteger inflightWhileWriting = new AtomicInteger(-1);
+
+		ServerResponse response = admission.filter(r -> "files-get", r -> Priority.NORMAL)
+				.filter(request, r -> ServerResponse.ok().build((req, res) -> {
+					inflightWhileWriting.set(limiter.getInflight());
+					return null;
+				}));
+		assertThat(limiter.getInflight()).isEqualTo(1);
+
+		response.writeTo(request.servletRequest(), new MockHttpServletResponse(), () -> converters);
+		assertThat(inflightWhileWriting).hasValue(1);
+		assertThat(limiter.getInflight()).isZero();
+	}
+
+	@Test
+	void slotIsReleasedWhenTheHandlerFails() {
+		AdmissionProperties properties = new AdmissionProperties();
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties);
+		AdmissionControl admission = new AdmissionControl(limiter, properties, new SimpleMeterRegistry());
+		ServerRequest request = ServerRequest.create(new MockHttpServletRequest("GET", "/api/files/1"),
+				List.of(new MappingJackson2HttpMessageConverter()));
+
+		assertThatIllegalStateException().isThrownBy(() -> admission.filter(r -> "files-get", r -> Priority.NORMAL)
+				.filter(request, r -> {
+					throw new IllegalStateException("upstream gone");
+				}));
+		assertThat(limiter.getInflight()).isZero();
+	}
+
+	private static int admitted(ConcurrencyLimiter limiter, Priority priority) {
+		int admitted = 0;
+		while (limiter.tryAcquire(priority)) {
+			admitted++;
+		}
+		return admitted;
+	}
+
+	/**
+	 * Admit a burst of requests, then release them all with the given latency.
+	 */
+	private static void busyWindow(ConcurrencyLimiter limiter, int requests, long latencyNanos) {
+		int admitted = 0;
+		while (admitted < requests && limiter.tryAcquire(Priority.CRITICAL)) {
+			admitted++;
+		}
+		long start = System.nanoTime() - latencyNanos;
+		for (int i = 0; i < admitted; i++) {
+			limiter.release("users-get", start, true);
+		}
+	}
+}
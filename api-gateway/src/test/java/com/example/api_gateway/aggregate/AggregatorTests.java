@@ -0,0 +1,291 @@
+package com.example.api_gateway.aggregate;
+
+import com.example.api_gateway.client.UpstreamClients;
+import com.example.api_gateway.client.UpstreamInstances;
+import com.example.api_gateway.config.IdentityProperties;
+import com.example.api_gateway.config.ResilienceProperties;
+import com.example.api_gateway.config.ResponseCacheProperties;
+import com.example.api_gateway.config.UpstreamClientProperties;
+import com.example.api_gateway.resilience.ServiceGuards;
+import com.example.api_gateway.routing.GatewayRoutesProperties;
+import com.example.api_gateway.routing.RouteDefinition;
+import com.example.api_gateway.routing.RouteTable;
+import com.example.api_gateway.security.EdgeAuthenticator;
+import com.example.api_gateway.tracing.UpstreamTracing;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class AggregatorTests {
+
+	private static final List<HttpMessageConverter<?>> CONVERTERS = List.of(new MappingJackson2HttpMessageConverter());
+
+	private static final AtomicInteger PROFILE_CALLS = new AtomicInteger();
+
+	private static HttpServer upstream;
+	private static DiscoveryClient discoveryClient;
+	private static EdgeAuthenticator edgeAuthenticator;
+	private static Aggregator aggregator;
+	private static UpstreamClients upstreamClients;
+	private static RouteTable routeTable;
+	private static FragmentCache fragmentCache;
+	private static String previousNodelay;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@BeforeAll
+	static void startUpstream() throws Exception {
+		previousNodelay = System.setProperty("sun.net.httpserver.nodelay", "true");
+		upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		upstream.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		upstream.createContext("/users/statistics", exchange -> respond(exchange, 200, "{\"total_users\":42}"));
+		upstream.createContext("/plan-statistics", exchange -> {
+			sleep(1500);
+			respond(exchange, 200, "{\"total_plans\":7}");
+		});
+		upstream.createContext("/broken", exchange -> respond(exchange, 500, "{}"));
+		upstream.createContext("/profiles/", exchange -> respond(exchange, 200,
+				"{\"success\":true,\"data\":{\"calls\":" + PROFILE_CALLS.incrementAndGet() + "}}"));
+		// The endpoints of the profile aggregate's sources, as the services map them
+		upstream.createContext("/users/", exchange -> {
+			String path = exchange.getRequestURI().getPath();
+			if (path.equals("/users/friends/accepted") && exchange.getRequestMethod().equals("POST")) {
+				String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+				respond(exchange, 200, "{\"success\":true,\"data\":{\"request\":" + request + "}}");
+			} else if (path.matches("/users/[^/]+") && exchange.getRequestMethod().equals("GET")) {
+				respond(exchange, 200, "{\"success\":true,\"data\":{\"first_name\":\"An\"}}");
+			} else {
+				respond(exchange, 404, "{}");
+			}
+		});
+		upstream.createContext("/api/posts/stats/", exchange -> respond(exchange, 200,
+				"{\"success\":true,\"data\":{\"totalPosts\":3,\"totalLikes\":12,\"totalViews\":90}}"));
+		upstream.createContext("/api/gallery/user/", exchange -> respond(exchange,
+				exchange.getRequestURI().getPath().matches("/api/gallery/user/[^/]+/galleries") ? 200 : 404,
+				"[{\"id\":\"g1\"}]"));
+		upstream.start();
+
+		discoveryClient = mock(DiscoveryClient.class);
+		given(discoveryClient.getInstances(anyString())).willAnswer(invocation -> List.of(new DefaultServiceInstance(
+				"stub", invocation.getArgument(0), "127.0.0.1", upstream.getAddress().getPort(), false)));
+		UpstreamClientProperties properties = new UpstreamClientProperties();
+		upstreamClients = new UpstreamClients(properties,
+				new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+		IdentityProperties identity = new IdentityProperties();
+		identity.setEnabled(false);
+		edgeAuthenticator = new EdgeAuthenticator(identity, new ObjectMapper(),
+				new SimpleMeterRegistry());
+		RouteDefinition update = new RouteDefinition();
+		update.setId("profile-update");
+		update.setMethod("PUT");
+		update.setPath("/profiles/{id}");
+		update.setService("stats-service");
+		routeTable = new RouteTable(List.of(update));
+		fragmentCache = new FragmentCache(new ResponseCacheProperties(), routeTable, edgeAuthenticator,
+				new SimpleMeterRegistry());
+		aggregator = new Aggregator(new UpstreamInstances(discoveryClient, properties, null), upstreamClients,
+				new ServiceGuards(new ResilienceProperties(), new SimpleMeterRegistry()), new ObjectMapper(),
+				edgeAuthenticator, new UpstreamTracing(Tracer.NOOP, Propagator.NOOP), fragmentCache);
+		// First call pays for class loading and the first connection
+		call(aggregate(source("users", "/users/statistics")));
+	}
+
+	@AfterAll
+	static void stopUpstream() {
+		aggregator.destroy();
+		upstreamClients.destroy();
+		upstream.stop(0);
+		if (previousNodelay != null) {
+			System.setProperty("sun.net.httpserver.nodelay", previousNodelay);
+		} else {
+			System.clearProperty("sun.net.httpserver.nodelay");
+		}
+	}
+
+	@Test
+	void lateSourceIsReportedWithoutDelayingTheOthers() throws Exception {
+		AggregateDefinition statistics = aggregate(
+				source("users", "/users/statistics", "total_users"),
+				late(source("plans", "/plan-statistics", "total_plans")));
+
+		long start = System.nanoTime();
+		MockHttpServletResponse response = call(statistics);
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+		JsonNode body = objectMapper.readTree(response.getContentAsByteArray());
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(elapsedMillis).isLessThan(1000);
+		assertThat(body.get("success").asBoolean()).isTrue();
+		assertThat(body.get("total_users").asInt()).isEqualTo(42);
+		assertThat(body.has("total_plans")).isFalse();
+		assertThat(body.get("partial").asBoolean()).isTrue();
+		assertThat(body.at("/errors/plans").asText()).isEqualTo("timed out after 300ms");
+	}
+
+	@Test
+	void sourcesWithoutFieldsAreNestedUnderTheirName() throws Exception {
+		MockHttpServletResponse response = call(aggregate(source("users", "/users/statistics")));
+
+		JsonNode body = objectMapper.readTree(response.getContentAsByteArray());
+		assertThat(body.at("/users/total_users").asInt()).isEqualTo(42);
+		assertThat(body.has("partial")).isFalse();
+	}
+
+	@Test
+	void failsOnlyWhenEverySourceFails() throws Exception {
+		MockHttpServletResponse response = call(aggregate(
+				source("broken", "/broken"),
+				late(source("plans", "/plan-statistics", "total_plans"))));
+
+		JsonNode body = objectMapper.readTree(response.getContentAsByteArray());
+		assertThat(response.getStatus()).isEqualTo(502);
+		assertThat(body.get("success").asBoolean()).isFalse();
+		assertThat(body.at("/errors/broken").asText()).isEqualTo("upstream returned 500");
+	}
+
+	@Test
+	void cachedFragmentsAreSharedUntilAWriteInvalidatesThem() throws Exception {
+		AggregateSource profile = source("profile", "/profiles/{userId}");
+		profile.setUnwrap("data");
+		profile.setCacheTtl(Duration.ofMinutes(1));
+		profile.setInvalidatedBy(List.of("profile-update:id"));
+		AggregateDefinition definition = aggregate(profile);
+		definition.setId("profile");
+		definition.setPath("/composite/{userId}");
+		definition.setSubject("userId");
+
+		int first = profileCalls(definition, "u1");
+		assertThat(profileCalls(definition, "u1")).isEqualTo(first);
+		assertThat(profileCalls(definition, "u2")).isNotEqualTo(first);
+
+		fragmentCache.written(routeTable.match("PUT", "/profiles/u1"), name -> null);
+
+		assertThat(profileCalls(definition, "u1")).isGreaterThan(first);
+	}
+
+	@Test
+	void profileSourcesAnswerFromTheServicesEndpoints() throws Exception {
+		YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+		yaml.setResources(new ClassPathResource("gateway-routes.yml"));
+		Binder binder = new Binder(new MapConfigurationPropertySource(yaml.getObject()));
+		RouteTable routes = new RouteTable(binder.bind("gateway", GatewayRoutesProperties.class).get().getRoutes());
+		AggregateDefinition profile = binder.bind("gateway", GatewayAggregatesProperties.class).get()
+				.getAggregates().stream().filter(aggregate -> aggregate.getId().equals("profile"))
+				.findFirst().orElseThrow();
+		Aggregator real = new Aggregator(new UpstreamInstances(discoveryClient, new UpstreamClientProperties(), null),
+				upstreamClients, new ServiceGuards(new ResilienceProperties(), new SimpleMeterRegistry()),
+				new ObjectMapper(), edgeAuthenticator, new UpstreamTracing(Tracer.NOOP, Propagator.NOOP),
+				new FragmentCache(new ResponseCacheProperties(), routes, edgeAuthenticator, new SimpleMeterRegistry()));
+		try {
+			MockHttpServletResponse response = call(real, profile, Map.of("userId", "u1"));
+
+			JsonNode body = objectMapper.readTree(response.getContentAsByteArray());
+			assertThat(response.getStatus()).isEqualTo(200);
+			assertThat(body.has("partial")).as(body.toString()).isFalse();
+			assertThat(body.at("/user/first_name").asText()).isEqualTo("An");
+			assertThat(body.at("/postStats/totalPosts").asInt()).isEqualTo(3);
+			assertThat(body.at("/galleries/0/id").asText()).isEqualTo("g1");
+			assertThat(body.at("/friends/request/user_id").asText()).isEqualTo("u1");
+		} finally {
+			real.destroy();
+		}
+	}
+
+	private int profileCalls(AggregateDefinition definition, String userId) throws Exception {
+		MockHttpServletResponse response = call(definition, Map.of("userId", userId));
+		return objectMapper.readTree(response.getContentAsByteArray()).at("/profile/calls").asInt();
+	}
+
+	private static MockHttpServletResponse call(AggregateDefinition definition) throws Exception {
+		return call(definition, Map.of());
+	}
+
+	private static MockHttpServletResponse call(AggregateDefinition definition, Map<String, String> variables)
+			throws Exception {
+		return call(aggregator, definition, variables);
+	}
+
+	private static MockHttpServletResponse call(Aggregator aggregator, AggregateDefinition definition,
+			Map<String, String> variables) throws Exception {
+		MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", definition.getPath());
+		servletRequest.setAttribute(RouterFunctions.URI_TEMPLATE_VARIABLES_ATTRIBUTE, variables);
+		ServerResponse response = aggregator.handler(definition).handle(ServerRequest.create(servletRequest, CONVERTERS));
+		MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+		response.writeTo(servletRequest, servletResponse, () -> CONVERTERS);
+		return servletResponse;
+	}
+
+	private static AggregateDefinition aggregate(AggregateSource... sources) {
+		AggregateDefinition definition = new AggregateDefinition();
+		definition.setId("test");
+		definition.setPath("/statistics");
+		definition.setSources(List.of(sources));
+		return definition;
+	}
+
+	private static AggregateSource source(String name, String path, String... fields) {
+		AggregateSource source = new AggregateSource();
+		source.setName(name);
+		source.setService("stats-service");
+		source.setPath(path);
+		source.setFields(List.of(fields));
+		return source;
+	}
+
+	private static AggregateSource late(AggregateSource source) {
+		source.setTimeout(Duration.ofMillis(300));
+		return source;
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		exchange.getResponseBody().write(bytes);
+		exchange.close();
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package com.example.api_gateway.batch;
+
+import com.example.api_gateway.aggregate.FragmentCache;
+import com.example.api_gateway.cache.BufferedResponse;
+import com.example.api_gateway.config.BatchProperties;
+import com.example.api_gateway.routing.ForwardingMode;
+import com.example.api_gateway.routing.ForwardingPipeline;
+import com.example.api_gateway.routing.RouteDefinition;
+import com.example.api_gateway.routing.RouteMatch;
+import com.example.api_gateway.routing.RouteTable;
+import com.example.api_gateway.tracing.UpstreamTracing;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.function.ServerRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class BatchDispatcherTests {
+
+	private static final List<HttpMessageConverter<?>> CONVERTERS = List.of(new ByteArrayHttpMessageConverter(),
+			new MappingJackson2HttpMessageConverter());
+
+	private final RouteTable routeTable = new RouteTable(List.of(
+			route("users-get", "GET", "/users/{id}", ForwardingMode.BUFFERED, null),
+			route("friends-accept", "PUT", "/users/friends/accept", ForwardingMode.BUFFERED, null),
+			route("otp-send", "POST", "/otp/send", ForwardingMode.BUFFERED, "otp-mail"),
+			route("upload", "POST", "/api/gallery/upload", ForwardingMode.STREAMING, null)));
+
+	private final ForwardingPipeline pipeline = mock(ForwardingPipeline.class);
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final BatchProperties properties = new BatchProperties();
+
+	private BatchDispatcher dispatcher;
+
+	@AfterEach
+	void shutDown() {
+		dispatcher.destroy();
+	}
+
+	@Test
+	void answersEveryRequestInOrderWithItsOwnStatus() throws Exception {
+		given(pipeline.dispatch(any(), any(), any(), any())).willAnswer(invocation -> {
+			RouteMatch match = invocation.getArgument(0);
+			UnaryOperator<String> header = invocation.getArgument(2);
+			byte[] body = invocation.getArgument(3);
+			String echo = "{\"route\":\"" + match.upstreamPath(invocation.getArgument(1)) + "\",\"auth\":\""
+					+ header.apply(HttpHeaders.AUTHORIZATION) + "\",\"body\":"
+					+ (body != null ? new String(body, StandardCharsets.UTF_8) : "null") + "}";
+			return json(HttpStatus.OK, echo);
+		});
+		dispatcher = dispatcher();
+
+		JsonNode body = call("""
+				{"requests": [
+				  {"id": "user", "path": "/users/42?fields=name"},
+				  {"id": "accept", "method": "PUT", "path": "/users/friends/accept",
+				   "headers": {"Authorization": "Bearer other"}, "body": {"friendId": 7}},
+				  {"id": "missing", "path": "/nowhere"},
+				  {"id": "otp", "method": "POST", "path": "/otp/send"},
+				  {"id": "upload", "method": "POST", "path": "/api/gallery/upload"}
+				]}""", 200);
+
+		JsonNode responses = body.get("responses");
+		assertThat(responses).hasSize(5);
+		assertThat(responses.at("/0/id").asText()).isEqualTo("user");
+		assertThat(responses.at("/0/status").asInt()).isEqualTo(200);
+		assertThat(responses.at("/0/body/route").asText()).isEqualTo("/users/42?fields=name");
+		assertThat(responses.at("/0/body/auth").asText()).isEqualTo("Bearer batch");
+		assertThat(responses.at("/1/body/auth").asText()).isEqualTo("Bearer other");
+		assertThat(responses.at("/1/body/body/friendId").asInt()).isEqualTo(7);
+		assertThat(responses.at("/2/status").asInt()).isEqualTo(404);
+		assertThat(responses.at("/3/status").asInt()).isEqualTo(400);
+		assertThat(responses.at("/4/status").asInt()).isEqualTo(400);
+	}
+
+	@Test
+	void boundsRequestsInFlightPerBatch() throws Exception {
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger peak = new AtomicInteger();
+		given(pipeline.dispatch(any(), any(), any(), any())).willAnswer(invocation -> {
+			peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			Thread.sleep(50);
+			inFlight.decrementAndGet();
+			return json(HttpStatus.OK, "{}");
+		});
+		properties.setMaxConcurrency(2);
+		dispatcher = dispatcher();
+
+		JsonNode body = call(batchOf(8, "/users/1"), 200);
+
+		assertThat(body.get("responses")).hasSize(8);
+		assertThat(peak.get()).isEqualTo(2);
+	}
+
+	@Test
+	void lateRequestsAreCancelled() throws Exception {
+		given(pipeline.dispatch(any(), any(), any(), any())).willAnswer(invocation -> {
+			Thread.sleep(5_000);
+			return json(HttpStatus.OK, "{}");
+		});
+		properties.setTimeout(Duration.ofMillis(100));
+		dispatcher = dispatcher();
+
+		long start = System.nanoTime();
+		JsonNode body = call(batchOf(1, "/users/1"), 200);
+
+		assertThat(System.nanoTime() - start).isLessThan(Duration.ofSeconds(2).toNanos());
+		assertThat(body.at("/responses/0/status").asInt()).isEqualTo(504);
+	}
+
+	@Test
+	void oversizedBatchesAreRefusedWhole() throws Exception {
+		properties.setMaxRequests(3);
+		dispatcher = dispatcher();
+
+		JsonNode body = call(batchOf(4, "/users/1"), 400);
+
+		assertThat(body.get("success").asBoolean()).isFalse();
+		call("{\"requests\": []}", 400);
+		call("{\"requests\": [{\"path\": \"users/1\"}]}", 400);
+	}
+
+	private BatchDispatcher dispatcher() {
+		return new BatchDispatcher(properties, routeTable, pipeline, objectMapper,
+				new UpstreamTracing(Tracer.NOOP, Propagator.NOOP), mock(FragmentCache.class),
+				new SimpleMeterRegistry());
+	}
+
+	private JsonNode call(String batch, int status) throws Exception {
+		MockHttpServletRequest servletRequest = new MockHttpServletRequest("POST", "/batch");
+		servletRequest.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		servletRequest.addHeader(HttpHeaders.AUTHORIZATION, "Bearer batch");
+		servletRequest.setContent(batch.getBytes(StandardCharsets.UTF_8));
+		MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+		dispatcher.handle(ServerRequest.create(servletRequest, CONVERTERS))
+				.writeTo(servletRequest, servletResponse, () -> CONVERTERS);
+		assertThat(servletResponse.getStatus()).isEqualTo(status);
+		return objectMapper.readTree(servletResponse.getContentAsByteArray());
+	}
+
+	private static String batchOf(int size, String path) {
+		StringBuilder batch = new StringBuilder("{\"requests\": [");
+		for (int i = 0; i < size; i++) {
+			batch.append(i > 0 ? "," : "").append("{\"path\": \"").append(path).append("\"}");
+		}
+		return batch.append("]}").toString();
+	}
+
+	private static BufferedResponse json(HttpStatus status, String body) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		return new BufferedResponse(status, headers, body.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static RouteDefinition route(String id, String method, String path, ForwardingMode mode,
+			String rateLimit) {
+		RouteDefinition definition = new RouteDefinition();
+		definition.setId(id);
+		definition.setMethod(method);
+		definition.setPath(path);
+		definition.setService("test-service");
+		definition.setMode(mode);
+		definition.setRateLimit(rateLimit);
+		return definition;
+	}
+}
@@ -0,0 +1,119 @@
+package com.example.api_gateway.benchmark;
+
+import com.example.api_gateway.config.IdentityProperties;
+import com.example.api_gateway.security.EdgeAuthenticator;
+import com.example.api_gateway.security.Identity;
+import com.example.api_gateway.security.IdentitySigner;
+import com.example.api_gateway.security.JwtVerifier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authentication cost of one client request that fans out to
+ * {@code fanOut} services.
+ * <p>
+ * {@code verifyAtEveryService} is the current setup: each service verifies
+ * the HS512 token itself (signature and claims parse, with the gateway's
+ * verifier standing in for jjwt, which is slower still). {@code verifyAtEdge}
+ * resolves the token at the gateway, a cache hit for a returning client, and
+ * each service checks only the HMAC over the identity headers.
+ * <p>
+ * Run with {@code java -cp <test classpath> com.example.api_gateway.benchmark.EdgeIdentityBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EdgeIdentityBenchmark {
+
+    private static final String JWT_SECRET =
+            "4pMrj9Q5aOg/Qi9tYfYQLIww81gmtLda4MCRkwCtBhPLgx9bYCzJH0h8ojM0fZ9VQi/Gf0u6XMmiiA7si55glg==";
+    private static final String SIGNING_SECRET = "iER/dBhWaOZrN1Vhz3e+0qt5YjBzSJKSq/ySq6yUrxg=";
+
+    @Param({ "1", "3", "6" })
+    public int fanOut;
+
+    private String token;
+    private String authorization;
+    private JwtVerifier verifier;
+    private EdgeAuthenticator authenticator;
+    private IdentitySigner downstream;
+
+    @Setup
+    public void setUp() throws Exception {
+        long expires = System.currentTimeMillis() / 1000 + 3600;
+        token = token("{\"sub\":\"9b2e6f0c-3c1d-4a51-8d4e-2f7b9a0c1e55\",\"role\":\"USER\","
+                + "\"email\":\"traveller@example.com\",\"iat\":" + (expires - 600) + ",\"exp\":" + expires + "}");
+        authorization = "Bearer " + token;
+        ObjectMapper objectMapper = new ObjectMapper();
+        verifier = new JwtVerifier(JWT_SECRET, objectMapper);
+        IdentityProperties properties = new IdentityProperties();
+        properties.setJwtSecret(JWT_SECRET);
+        properties.setSigningSecret(SIGNING_SECRET);
+        authenticator = new EdgeAuthenticator(properties, objectMapper, new SimpleMeterRegistry());
+        downstream = new IdentitySigner(SIGNING_SECRET);
+        if (authenticator.resolve(authorization) == null) {
+            throw new IllegalStateException("Benchmark token does not verify");
+        }
+    }
+
+    @Benchmark
+    public void verifyAtEveryService(Blackhole blackhole) {
+        long now = System.currentTimeMillis() / 1000;
+        for (int i = 0; i < fanOut; i++) {
+            blackhole.consume(verifier.verify(token, now));
+        }
+    }
+
+    @Benchmark
+    public void verifyAtEdge(Blackhole blackhole) {
+        Identity identity = authenticator.resolve(authorization);
+        Map<String, String> headers = new HashMap<>();
+        identity.forEachHeader(headers::put);
+        long now = System.currentTimeMillis() / 1000;
+        for (int i = 0; i < fanOut; i++) {
+            blackhole.consume(downstream.verify(headers.get("X-User-Id"), headers.get("X-User-Roles"),
+                    headers.get("X-Identity-Expires"), headers.get("X-Identity-Signature"), now));
+        }
+    }
+
+    private static String token(String claims) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String signingInput = encoder.encodeToString("{\"alg\":\"HS512\"}".getBytes(StandardCharsets.UTF_8))
+                + "." + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(Base64.getDecoder().decode(JWT_SECRET), "HmacSHA512"));
+        return signingInput + "." + encoder.encodeToString(mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EdgeIdentityBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
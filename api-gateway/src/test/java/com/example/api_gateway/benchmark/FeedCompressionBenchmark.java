@@ -0,0 +1,290 @@
+package com.example.api_gateway.benchmark;
+
+import com.example.api_gateway.cache.RequestCoalescer;
+import com.example.api_gateway.cache.ResponseCache;
+import com.example.api_gateway.client.UpstreamClients;
+import com.example.api_gateway.client.UpstreamInstances;
+import com.example.api_gateway.config.HedgingProperties;
+import com.example.api_gateway.config.IdentityProperties;
+import com.example.api_gateway.config.JobsProperties;
+import com.example.api_gateway.config.ResilienceProperties;
+import com.example.api_gateway.config.RetryProperties;
+import com.example.api_gateway.config.UpstreamClientProperties;
+import com.example.api_gateway.hedging.Hedging;
+import com.example.api_gateway.jobs.GatewayJobs;
+import com.example.api_gateway.metrics.RouteMetrics;
+import com.example.api_gateway.resilience.ServiceGuards;
+import com.example.api_gateway.retry.Retries;
+import com.example.api_gateway.routing.ForwardingPipeline;
+import com.example.api_gateway.routing.RouteDefinition;
+import com.example.api_gateway.routing.RouteTable;
+import com.example.api_gateway.routing.UpstreamErrors;
+import com.example.api_gateway.security.EdgeAuthenticator;
+import com.example.api_gateway.tracing.UpstreamTracing;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.function.ServerRequest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bytes on the wire and latency percentiles of {@code /api/posts/feed}
+ * pages, end to end over loopback: an HTTP client, the gateway's forwarding
+ * pipeline in an embedded Tomcat, and a stub blog-service in another one.
+ * <p>
+ * {@code protocol} is used on both hops: {@code http1} is HTTP/1.1 with
+ * pooled keep-alive connections, {@code h2c} upgrades to HTTP/2 and
+ * multiplexes the benchmark threads over one connection per hop.
+ * {@code encoding} is {@code identity} (no compression anywhere, as before)
+ * or {@code gzip}: the stub compresses, the gateway relays the gzip body as
+ * it is and the client asks for it. Sample-time mode reports p0.99; the size
+ * of one response body is printed at setup for each configuration.
+ * <p>
+ * Run with {@code java -cp <test classpath> com.example.api_gateway.benchmark.FeedCompressionBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class FeedCompressionBenchmark {
+
+    private static final int POSTS_PER_PAGE = 20;
+    private static final String FEED_PATH = "/api/posts/feed";
+
+    @Param({"http1", "h2c"})
+    public String protocol;
+
+    @Param({"identity", "gzip"})
+    public String encoding;
+
+    private final List<HttpMessageConverter<?>> converters = List.of(
+            new ByteArrayHttpMessageConverter(), new MappingJackson2HttpMessageConverter());
+
+    private Tomcat upstream;
+    private Tomcat gateway;
+    private UpstreamClients upstreamClients;
+    private String upstreamUrl;
+    private HttpClient client;
+    private HttpRequest feedRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        boolean gzip = "gzip".equals(encoding);
+        boolean http2 = "h2c".equals(protocol);
+        byte[] feed = feed();
+
+        upstream = tomcat(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                response.setContentType("application/json");
+                response.setContentLength(feed.length);
+                response.getOutputStream().write(feed);
+            }
+        }, FEED_PATH, gzip);
+        upstreamUrl = "http://127.0.0.1:" + upstream.getConnector().getLocalPort();
+
+        UpstreamClientProperties properties = new UpstreamClientProperties();
+        properties.getDefaults().setHttp2(http2);
+        upstreamClients = new UpstreamClients(properties,
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        RouteDefinition definition = new RouteDefinition();
+        definition.setId("posts-feed");
+        definition.setMethod("GET");
+        definition.setPath(FEED_PATH);
+        definition.setService("blog-service");
+        RouteTable routeTable = new RouteTable(List.of(definition));
+        ObjectMapper objectMapper = new ObjectMapper();
+        IdentityProperties identity = new IdentityProperties();
+        identity.setEnabled(false);
+        UpstreamInstances instances = new UpstreamInstances(new StubDiscovery(), properties, null);
+        ForwardingPipeline pipeline = new ForwardingPipeline(routeTable, instances, upstreamClients,
+                new ServiceGuards(new ResilienceProperties(), new SimpleMeterRegistry()), objectMapper,
+                ResponseCache.NONE, new RequestCoalescer(false, new SimpleMeterRegistry()),
+                new EdgeAuthenticator(identity, objectMapper, new SimpleMeterRegistry()),
+                new RouteMetrics(new SimpleMeterRegistry(), false),
+                new UpstreamTracing(Tracer.NOOP, Propagator.NOOP),
+                new GatewayJobs(new JobsProperties(), new SimpleMeterRegistry()),
+                new Hedging(new HedgingProperties(), instances, new SimpleMeterRegistry()),
+                new Retries(new RetryProperties(), instances, new SimpleMeterRegistry()),
+                new UpstreamErrors(routeTable, objectMapper, new SimpleMeterRegistry()));
+
+        gateway = tomcat(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response)
+                    throws ServletException, IOException {
+                ServerRequest serverRequest = ServerRequest.create(request, converters);
+                serverRequest.attributes().put(ForwardingPipeline.MATCH_ATTRIBUTE,
+                        routeTable.match(request.getMethod(), request.getRequestURI()));
+                try {
+                    pipeline.forward(serverRequest).writeTo(request, response, () -> converters);
+                } catch (Exception e) {
+                    throw new ServletException(e);
+                }
+            }
+        }, "/*", gzip);
+
+        client = HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .build();
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                URI.create("http://127.0.0.1:" + gateway.getConnector().getLocalPort() + FEED_PATH));
+        if (gzip) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        feedRequest = request.build();
+
+        HttpResponse<byte[]> response = client.send(feedRequest, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        System.out.printf("%n%s/%s: %d of %d feed bytes on the wire (%s)%n", protocol, encoding,
+                response.body().length, feed.length, response.version());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws LifecycleException {
+        client.close();
+        gateway.stop();
+        gateway.destroy();
+        upstreamClients.destroy();
+        upstream.stop();
+        upstream.destroy();
+    }
+
+    @Benchmark
+    public int feedPage() throws Exception {
+        return client.send(feedRequest, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+    }
+
+    /**
+     * Tomcat on an ephemeral port with h2c upgrade, compressing JSON over 1KB
+     * when asked to, like {@code server.compression} and {@code server.http2}.
+     */
+    private static Tomcat tomcat(HttpServlet servlet, String mapping, boolean compression)
+            throws LifecycleException, IOException {
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(Files.createTempDirectory("feed-benchmark").toString());
+        Connector connector = new Connector();
+        connector.setPort(0);
+        if (compression) {
+            // HTTP/2 streams take their compression settings from the HTTP/1.1 protocol
+            AbstractHttp11Protocol<?> http11 = (AbstractHttp11Protocol<?>) connector.getProtocolHandler();
+            http11.setCompression("on");
+            http11.setCompressibleMimeType("application/json");
+            http11.setCompressionMinSize(1024);
+        }
+        connector.addUpgradeProtocol(new Http2Protocol());
+        tomcat.setConnector(connector);
+        Context context = tomcat.addContext("", null);
+        Tomcat.addServlet(context, "servlet", servlet);
+        context.addServletMappingDecoded(mapping, "servlet");
+        tomcat.start();
+        return tomcat;
+    }
+
+    /**
+     * One page of the public feed as blog-service renders it: approved posts
+     * with their author, text, images and counters, plus the page envelope.
+     */
+    private static byte[] feed() {
+        StringBuilder json = new StringBuilder(64 * 1024)
+                .append("{\"success\":true,\"data\":{\"content\":[");
+        for (int i = 0; i < POSTS_PER_PAGE; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"").append(UUID.randomUUID())
+                    .append("\",\"authorId\":\"").append(UUID.randomUUID())
+                    .append("\",\"authorName\":\"Traveller ").append(i)
+                    .append("\",\"title\":\"Three days in Hoi An, part ").append(i + 1)
+                    .append("\",\"content\":\"")
+                    .append("We reached the old town just before sunset, when the lanterns come on along the river. "
+                            .repeat(8))
+                    .append("\",\"category\":\"itinerary\",\"status\":\"APPROVED\",\"images\":[")
+                    .append("\"https://cdn.gowise.example/posts/").append(i).append("/1.jpg\",")
+                    .append("\"https://cdn.gowise.example/posts/").append(i).append("/2.jpg\"]")
+                    .append(",\"likeCount\":").append(17 * i + 3)
+                    .append(",\"commentCount\":").append(i)
+                    .append(",\"likedByMe\":false,\"createdAt\":\"2024-05-").append(10 + i % 18)
+                    .append("T08:30:00Z\"}");
+        }
+        return json.append("],\"page\":0,\"size\":").append(POSTS_PER_PAGE)
+                .append(",\"totalElements\":4213,\"totalPages\":211}")
+                .append(",\"meta\":{\"categories\":[\"itinerary\",\"food\",\"review\",\"tips\"]}}")
+                .toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private final class StubDiscovery implements DiscoveryClient {
+
+        @Override
+        public String description() {
+            return "benchmark upstream";
+        }
+
+        @Override
+        public List<ServiceInstance> getInstances(String serviceId) {
+            URI uri = URI.create(upstreamUrl);
+            return List.of(new DefaultServiceInstance("stub", serviceId, uri.getHost(), uri.getPort(), false));
+        }
+
+        @Override
+        public List<String> getServices() {
+            return List.of("blog-service");
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FeedCompressionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
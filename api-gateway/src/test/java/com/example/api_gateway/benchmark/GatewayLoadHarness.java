@@ -0,0 +1,250 @@
+package com.example.api_gateway.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * End-to-end load harness for the forwarding path: the whole gateway on a
+ * random port in front of in-process stub upstreams standing in for
+ * auth-service, BLOG-SERVICE and PLAN-SERVICE, each on its own port. Every
+ * scenario is driven by {@code gateway.load.concurrency} virtual-thread
+ * clients in a closed loop, first for {@code gateway.load.warmup} and then
+ * for {@code gateway.load.duration}, and reported as throughput and
+ * p50/p99/p999 latency.
+ * <p>
+ * Rate limiting and admission control are off, so the numbers are the cost
+ * of forwarding rather than of shedding. The stubs answer at once; their
+ * own cost is part of the latencies, the same in every run.
+ * <p>
+ * Run with {@code mvn test -Dtest=GatewayLoadHarness -Dgateway.load=true}.
+ */
+@EnabledIfSystemProperty(named = "gateway.load", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"eureka.client.enabled=false",
+		"gateway.rate-limit.enabled=false",
+		"gateway.admission.enabled=false"
+})
+class GatewayLoadHarness {
+
+	private static final int CONCURRENCY = Integer.getInteger("gateway.load.concurrency", 32);
+	private static final Duration WARMUP = Duration.parse(System.getProperty("gateway.load.warmup", "PT5S"));
+	private static final Duration DURATION = Duration.parse(System.getProperty("gateway.load.duration", "PT15S"));
+
+	private static final Map<String, HttpServer> STUBS = new LinkedHashMap<>();
+
+	private static String previousNodelay;
+
+	@LocalServerPort
+	private int port;
+
+	@MockBean
+	private DiscoveryClient discoveryClient;
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(2))
+			.executor(Executors.newVirtualThreadPerTaskExecutor())
+			.build();
+
+	@BeforeAll
+	static void startStubs() throws IOException {
+		// Without TCP_NODELAY the JDK server adds ~40ms of delayed-ACK latency per response
+		previousNodelay = System.setProperty("sun.net.httpserver.nodelay", "true");
+		byte[] token = json("{\"success\":true,\"data\":{\"accessToken\":\"" + "x".repeat(200)
+				+ "\",\"refreshToken\":\"" + "y".repeat(120) + "\",\"expiresIn\":3600}}");
+		byte[] badLogin = json("{\"success\":false,\"message\":\"Invalid email or password\","
+				+ "\"timestamp\":\"2024-05-02T08:15:30.123Z\",\"path\":\"/auth/signin\",\"status\":401}");
+		stub("auth-service").createContext("/auth/signin", exchange -> {
+			String credentials = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+			if (credentials.contains("wrong")) {
+				respond(exchange, 401, badLogin);
+			} else {
+				respond(exchange, 200, token);
+			}
+		});
+		byte[] post = json("{\"status\":200,\"message\":\"success\",\"data\":{\"id\":\"p-1\",\"title\":\"Three days in Hoi An\","
+				+ "\"content\":\"" + "Lanterns, tailors and the old town at night. ".repeat(40) + "\",\"likes\":128}}");
+		stub("blog-service").createContext("/api/posts/", exchange -> respond(exchange, 200, post));
+		byte[] plan = json("{\"plan_id\":\"p-9\",\"days\":[" + "{\"day\":1,\"place\":\"Ba Na Hills\"},".repeat(150)
+				+ "{\"day\":2,\"place\":\"My Khe Beach\"}]}");
+		stub("plan-service").createContext("/plans/", exchange -> respond(exchange, 200, plan));
+		STUBS.values().forEach(HttpServer::start);
+	}
+
+	@AfterAll
+	static void stopStubs() {
+		STUBS.values().forEach(server -> server.stop(0));
+		if (previousNodelay != null) {
+			System.setProperty("sun.net.httpserver.nodelay", previousNodelay);
+		} else {
+			System.clearProperty("sun.net.httpserver.nodelay");
+		}
+	}
+
+	@BeforeEach
+	void routeToStubs() {
+		given(discoveryClient.getInstances(anyString())).willAnswer(invocation -> {
+			String serviceId = invocation.getArgument(0);
+			HttpServer stub = STUBS.get(serviceId.toLowerCase(Locale.ROOT));
+			return stub == null ? List.of() : List.of(new DefaultServiceInstance("stub-" + serviceId, serviceId,
+					"127.0.0.1", stub.getAddress().getPort(), false));
+		});
+	}
+
+	@Test
+	void forwardingUnderLoad() throws Exception {
+		List<Scenario> scenarios = List.of(
+				new Scenario("POST /auth/signin (200)", post("/auth/signin",
+						"{\"email\":\"an@example.com\",\"password\":\"secret\"}"), 200),
+				new Scenario("POST /auth/signin (401)", post("/auth/signin",
+						"{\"email\":\"an@example.com\",\"password\":\"wrong\"}"), 401),
+				new Scenario("GET /api/posts/{postId}", get("/api/posts/p-1"), 200),
+				new Scenario("GET /plans/{user_id}/{plan_id}", get("/plans/u-1/p-9"), 200));
+
+		System.out.printf("%n%-32s %10s %9s %9s %9s %7s%n", "scenario", "req/s", "p50 ms", "p99 ms", "p999 ms",
+				"errors");
+		for (Scenario scenario : scenarios) {
+			run(scenario, WARMUP);
+			Result result = run(scenario, DURATION);
+			System.out.printf("%-32s %10.0f %9.2f %9.2f %9.2f %7d%n", scenario.name(),
+					result.count() / (DURATION.toNanos() / 1e9), result.percentile(0.50), result.percentile(0.99),
+					result.percentile(0.999), result.errors());
+			assertThat(result.errors()).as(scenario.name()).isZero();
+		}
+	}
+
+	/**
+	 * Drive a scenario from every client until the time is up.
+	 */
+	private Result run(Scenario scenario, Duration duration) throws Exception {
+		long end = System.nanoTime() + duration.toNanos();
+		AtomicLong errors = new AtomicLong();
+		List<Future<long[]>> clients = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < CONCURRENCY; i++) {
+				clients.add(executor.submit(() -> {
+					long[] latencies = new long[4096];
+					int count = 0;
+					while (System.nanoTime() < end) {
+						long start = System.nanoTime();
+						int status;
+						try {
+							status = client.send(scenario.request(), HttpResponse.BodyHandlers.discarding())
+									.statusCode();
+						} catch (IOException e) {
+							status = -1;
+						}
+						if (status != scenario.status()) {
+							errors.incrementAndGet();
+						}
+						if (count == latencies.length) {
+							latencies = Arrays.copyOf(latencies, count * 2);
+						}
+						latencies[count++] = System.nanoTime() - start;
+					}
+					return Arrays.copyOf(latencies, count);
+				}));
+			}
+		}
+		int total = 0;
+		List<long[]> all = new ArrayList<>();
+		for (Future<long[]> latencies : clients) {
+			all.add(latencies.get());
+			total += all.get(all.size() - 1).length;
+		}
+		long[] merged = new long[total];
+		int offset = 0;
+		for (long[] latencies : all) {
+			System.arraycopy(latencies, 0, merged, offset, latencies.length);
+			offset += latencies.length;
+		}
+		Arrays.sort(merged);
+		return new Result(merged, errors.get());
+	}
+
+	private HttpRequest get(String path) {
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.timeout(Duration.ofSeconds(5))
+				.build();
+	}
+
+	private HttpRequest post(String path, String body) {
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.timeout(Duration.ofSeconds(5))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build();
+	}
+
+	private static HttpServer stub(String serviceId) throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		STUBS.put(serviceId, server);
+		return server;
+	}
+
+	private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, body.length);
+		exchange.getResponseBody().write(body);
+		exchange.close();
+	}
+
+	private static byte[] json(String json) {
+		return json.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private record Scenario(String name, HttpRequest request, int status) {
+	}
+
+	/**
+	 * Sorted latencies of one run, in nanoseconds.
+	 */
+	private record Result(long[] latencies, long errors) {
+
+		int count() {
+			return latencies.length;
+		}
+
+		double percentile(double percentile) {
+			if (latencies.length == 0) {
+				return Double.NaN;
+			}
+			int index = Math.max(0, (int) Math.ceil(percentile * latencies.length) - 1);
+			return latencies[index] / 1e6;
+		}
+	}
+}
@@ -0,0 +1,286 @@
+package com.example.api_gateway.benchmark;
+
+import com.example.api_gateway.cache.RequestCoalescer;
+import com.example.api_gateway.cache.ResponseCache;
+import com.example.api_gateway.client.UpstreamClients;
+import com.example.api_gateway.client.UpstreamInstances;
+import com.example.api_gateway.config.HedgingProperties;
+import com.example.api_gateway.config.IdentityProperties;
+import com.example.api_gateway.config.JobsProperties;
+import com.example.api_gateway.config.ResilienceProperties;
+import com.example.api_gateway.config.RetryProperties;
+import com.example.api_gateway.config.UpstreamClientProperties;
+import com.example.api_gateway.hedging.Hedging;
+import com.example.api_gateway.jobs.GatewayJobs;
+import com.example.api_gateway.metrics.RouteMetrics;
+import com.example.api_gateway.resilience.ServiceGuards;
+import com.example.api_gateway.retry.Retries;
+import com.example.api_gateway.routing.ForwardingMode;
+import com.example.api_gateway.routing.ForwardingPipeline;
+import com.example.api_gateway.routing.RouteDefinition;
+import com.example.api_gateway.routing.RouteMatch;
+import com.example.api_gateway.routing.RouteTable;
+import com.example.api_gateway.routing.UpstreamErrors;
+import com.example.api_gateway.security.EdgeAuthenticator;
+import com.example.api_gateway.tracing.UpstreamTracing;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and allocation of forwarding a 1 MB itinerary response through the
+ * gateway. Bytes travel over real loopback HTTP to a stub upstream; the
+ * client side is a mock servlet request and a response that discards what is
+ * written.
+ * <p>
+ * {@code legacy} replays the old controller: the request body is bound to an
+ * {@code Object}, exchanged with {@code Object.class} and written back with
+ * Jackson. {@code buffered} and {@code passthrough} run the forwarding
+ * pipeline in the two {@link ForwardingMode}s. The GC profiler reports
+ * {@code gc.alloc.rate.norm}, i.e. bytes allocated per forwarded request.
+ * <p>
+ * Run with {@code java -cp <test classpath> com.example.api_gateway.benchmark.PassthroughForwardingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PassthroughForwardingBenchmark {
+
+    private static final int ITINERARY_BYTES = 1024 * 1024;
+    private static final byte[] REQUEST_BODY =
+            "{\"destination\":\"Da Nang\",\"days\":5,\"budget\":\"medium\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<HttpMessageConverter<?>> converters = List.of(
+            new ByteArrayHttpMessageConverter(), new MappingJackson2HttpMessageConverter());
+
+    private HttpServer upstream;
+    private UpstreamClients upstreamClients;
+    private ForwardingPipeline pipeline;
+    private RouteTable routeTable;
+    private String upstreamUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] itinerary = itinerary();
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.setExecutor(Executors.newFixedThreadPool(4));
+        upstream.createContext("/agent/itinerary", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, itinerary.length);
+            exchange.getResponseBody().write(itinerary);
+            exchange.close();
+        });
+        upstream.start();
+        upstreamUrl = "http://127.0.0.1:" + upstream.getAddress().getPort();
+
+        UpstreamClientProperties properties = new UpstreamClientProperties();
+        upstreamClients = new UpstreamClients(properties,
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        routeTable = new RouteTable(List.of(
+                route("buffered", "/buffered/agent/itinerary", ForwardingMode.BUFFERED),
+                route("passthrough", "/passthrough/agent/itinerary", ForwardingMode.PASSTHROUGH)));
+        IdentityProperties identity = new IdentityProperties();
+        identity.setEnabled(false);
+        UpstreamInstances instances = new UpstreamInstances(new StubDiscovery(), properties, null);
+        pipeline = new ForwardingPipeline(routeTable, instances, upstreamClients,
+                new ServiceGuards(new ResilienceProperties(), new SimpleMeterRegistry()), objectMapper,
+                ResponseCache.NONE, new RequestCoalescer(false, new SimpleMeterRegistry()),
+                new EdgeAuthenticator(identity, objectMapper, new SimpleMeterRegistry()),
+                new RouteMetrics(new SimpleMeterRegistry(), false),
+                new UpstreamTracing(Tracer.NOOP, Propagator.NOOP),
+                new GatewayJobs(new JobsProperties(), new SimpleMeterRegistry()),
+                new Hedging(new HedgingProperties(), instances, new SimpleMeterRegistry()),
+                new Retries(new RetryProperties(), instances, new SimpleMeterRegistry()),
+                new UpstreamErrors(routeTable, objectMapper, new SimpleMeterRegistry()));
+
+        for (String path : List.of("/buffered/agent/itinerary", "/passthrough/agent/itinerary")) {
+            long written = forward(path);
+            if (written != itinerary.length) {
+                throw new IllegalStateException("Unexpected response size " + written + " for " + path);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        upstreamClients.destroy();
+        upstream.stop(0);
+    }
+
+    @Benchmark
+    public long legacy() throws Exception {
+        Object body = objectMapper.readValue(REQUEST_BODY, Object.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<Object> response = upstreamClients.forService("plan-service").exchange(
+                upstreamUrl + "/agent/itinerary", HttpMethod.POST, new HttpEntity<>(body, headers), Object.class);
+        DiscardingResponse client = new DiscardingResponse();
+        objectMapper.writeValue(client.getOutputStream(), response.getBody());
+        return client.written;
+    }
+
+    @Benchmark
+    public long buffered() throws Exception {
+        return forward("/buffered/agent/itinerary");
+    }
+
+    @Benchmark
+    public long passthrough() throws Exception {
+        return forward("/passthrough/agent/itinerary");
+    }
+
+    private long forward(String path) throws IOException {
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("POST", path);
+        servletRequest.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        servletRequest.setContent(REQUEST_BODY);
+        ServerRequest request = ServerRequest.create(servletRequest, converters);
+        RouteMatch match = routeTable.match("POST", path);
+        request.attributes().put(ForwardingPipeline.MATCH_ATTRIBUTE, match);
+
+        DiscardingResponse client = new DiscardingResponse();
+        try {
+            ServerResponse response = pipeline.forward(request);
+            response.writeTo(servletRequest, client, () -> converters);
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+        return client.written;
+    }
+
+    private static RouteDefinition route(String id, String path, ForwardingMode mode) {
+        RouteDefinition definition = new RouteDefinition();
+        definition.setId(id);
+        definition.setMethod("POST");
+        definition.setPath(path);
+        definition.setService("plan-service");
+        definition.setUpstreamPath("/agent/itinerary");
+        definition.setMode(mode);
+        return definition;
+    }
+
+    private static byte[] itinerary() {
+        StringBuilder json = new StringBuilder(ITINERARY_BYTES + 256).append("{\"days\":[");
+        int day = 0;
+        while (json.length() < ITINERARY_BYTES - 200) {
+            if (day > 0) {
+                json.append(',');
+            }
+            json.append("{\"day\":").append(++day)
+                    .append(",\"place\":\"Ba Na Hills\",\"lat\":15.9977,\"lng\":107.9881")
+                    .append(",\"note\":\"Take the cable car early to avoid the crowds\"}");
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Client response that counts and drops the body, so the measurement
+     * covers the gateway rather than a buffer standing in for the socket.
+     */
+    private static final class DiscardingResponse extends MockHttpServletResponse {
+
+        private long written;
+
+        private final ServletOutputStream out = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                written++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                written += len;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+            }
+        };
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return out;
+        }
+    }
+
+    private final class StubDiscovery implements DiscoveryClient {
+
+        @Override
+        public String description() {
+            return "benchmark upstream";
+        }
+
+        @Override
+        public List<ServiceInstance> getInstances(String serviceId) {
+            URI uri = URI.create(upstreamUrl);
+            return List.of(new DefaultServiceInstance("stub", serviceId, uri.getHost(), uri.getPort(), false));
+        }
+
+        @Override
+        public List<String> getServices() {
+            return List.of("plan-service");
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PassthroughForwardingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.api_gateway.benchmark;
+
+import com.example.api_gateway.routing.CompiledRoute;
+import com.example.api_gateway.routing.GatewayRoutesProperties;
+import com.example.api_gateway.routing.RouteMatch;
+import com.example.api_gateway.routing.RouteTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request gateway overhead, excluding the upstream call itself: finding
+ * the route for a request and preparing the upstream request.
+ * <p>
+ * {@code controller} replays what the old one-method-per-route controller
+ * did: a scan over every mapping's {@link PathPattern} (as the MVC handler
+ * mapping does for templated paths), URL concatenation, fresh headers and
+ * entity, and a per-request error map. {@code routeTable} is the trie lookup
+ * and precompiled upstream path of the route table.
+ * <p>
+ * Run with {@code java -cp <test classpath> com.example.api_gateway.benchmark.RouteForwardingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteForwardingBenchmark {
+
+    @Param({ "GET /users/42", "POST /auth/signin", "DELETE /plans/u-1/p-9", "GET /api/posts/stats/7" })
+    public String request;
+
+    private String method;
+    private String path;
+    private RouteTable routeTable;
+    private List<LegacyMapping> legacyMappings;
+
+    @Setup
+    public void setUp() {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource("gateway-routes.yml"));
+        Properties properties = yaml.getObject();
+        GatewayRoutesProperties routes = new Binder(new MapConfigurationPropertySource(properties))
+                .bind("gateway", GatewayRoutesProperties.class)
+                .get();
+        routeTable = new RouteTable(routes.getRoutes());
+
+        PathPatternParser parser = new PathPatternParser();
+        legacyMappings = new ArrayList<>();
+        for (CompiledRoute route : routeTable.getRoutes()) {
+            legacyMappings.add(new LegacyMapping(route.getMethod().name(), parser.parse(route.getPath()),
+                    route.getServiceId()));
+        }
+
+        int space = request.indexOf(' ');
+        method = request.substring(0, space);
+        path = request.substring(space + 1);
+    }
+
+    @Benchmark
+    public void controller(Blackhole blackhole) {
+        PathContainer container = PathContainer.parsePath(path);
+        LegacyMapping best = null;
+        PathPattern.PathMatchInfo bestInfo = null;
+        for (LegacyMapping mapping : legacyMappings) {
+            if (!mapping.method().equals(method)) {
+                continue;
+            }
+            PathPattern.PathMatchInfo info = mapping.pattern().matchAndExtract(container);
+            if (info != null && (best == null
+                    || PathPattern.SPECIFICITY_COMPARATOR.compare(mapping.pattern(), best.pattern()) < 0)) {
+                best = mapping;
+                bestInfo = info;
+            }
+        }
+        String serviceUrl = "http://10.0.0.12:8080";
+        String url = serviceUrl + path;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(Map.of("id", "1"), headers);
+        blackhole.consume(bestInfo.getUriVariables());
+        blackhole.consume(url);
+        blackhole.consume(entity);
+        blackhole.consume(Map.of("success", false, "message", "Service temporarily unavailable"));
+    }
+
+    @Benchmark
+    public void routeTable(Blackhole blackhole) {
+        RouteMatch match = routeTable.match(method, path);
+        String uri = "http://10.0.0.12:8080" + match.upstreamPath(null);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        blackhole.consume(uri);
+        blackhole.consume(new HttpEntity<>(null, headers));
+    }
+
+    private record LegacyMapping(String method, PathPattern pattern, String serviceId) {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RouteForwardingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
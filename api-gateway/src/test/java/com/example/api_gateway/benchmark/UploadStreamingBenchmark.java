@@ -0,0 +1,287 @@
+package com.example.api_gateway.benchmark;
+
+import com.example.api_gateway.ApiGatewayApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Concurrent multipart uploads through a running gateway, comparing a
+ * buffered route with a passthrough route. Each upload is a multipart body
+ * written in 64 KB chunks from a plain socket, so neither client nor stub
+ * holds a photo in memory. The
+ * stub gallery-service records when the first body byte of each upload
+ * arrives.
+ * <p>
+ * Reported per mode:
+ * <ul>
+ * <li>peak heap growth over the baseline, sampled every 5 ms</li>
+ * <li>time to first byte at gallery-service, measured from the client
+ * starting the upload</li>
+ * <li>total upload time</li>
+ * </ul>
+ * Gateway, client and stub share one JVM, but only the gateway holds
+ * request bodies.
+ * <p>
+ * This is not a JMH benchmark: one run is a burst of concurrent requests, not
+ * a hot loop. Run with
+ * {@code java -Xmx4g -cp <test classpath> com.example.api_gateway.benchmark.UploadStreamingBenchmark [uploads] [megabytes]}
+ * (defaults: 50 uploads of 20 MB).
+ */
+public final class UploadStreamingBenchmark {
+
+    private static final String BOUNDARY = "----gatewaybenchmark";
+    private static final String START_HEADER = "X-Benchmark-Start";
+
+    private final int uploads;
+    private final long fileBytes;
+    private final List<Long> upstreamFirstByteNanos = Collections.synchronizedList(new ArrayList<>());
+    private final ConcurrentHashMap<Long, Long> receivedBytes = new ConcurrentHashMap<>();
+    private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+
+    private UploadStreamingBenchmark(int uploads, long fileBytes) {
+        this.uploads = uploads;
+        this.fileBytes = fileBytes;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int uploads = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        long megabytes = args.length > 1 ? Long.parseLong(args[1]) : 20;
+        new UploadStreamingBenchmark(uploads, megabytes * 1024 * 1024).run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        ServerSocket gallery = new ServerSocket(0, 256, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().start(() -> {
+            while (!gallery.isClosed()) {
+                try {
+                    Socket connection = gallery.accept();
+                    virtualThreads.execute(() -> serveUpload(connection));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+
+        String[] gatewayArgs = {
+                "--server.port=0",
+                "--eureka.client.enabled=false",
+                "--spring.cloud.discovery.client.simple.instances.gallery-service[0].uri=http://127.0.0.1:"
+                        + gallery.getLocalPort(),
+                "--gateway.upstream.services.gallery-service.max-connections-per-route=" + uploads,
+                "--gateway.routes[0].id=upload-buffered",
+                "--gateway.routes[0].method=POST",
+                "--gateway.routes[0].path=/benchmark/buffered/upload",
+                "--gateway.routes[0].service=gallery-service",
+                "--gateway.routes[0].upstream-path=/api/gallery/upload",
+                "--gateway.routes[0].mode=buffered",
+                "--gateway.routes[0].forward-headers[0]=" + START_HEADER,
+                "--gateway.routes[1].id=upload-passthrough",
+                "--gateway.routes[1].method=POST",
+                "--gateway.routes[1].path=/benchmark/passthrough/upload",
+                "--gateway.routes[1].service=gallery-service",
+                "--gateway.routes[1].upstream-path=/api/gallery/upload",
+                "--gateway.routes[1].mode=passthrough",
+        };
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ApiGatewayApplication.class)
+                .run(gatewayArgs)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            // Warm up both routes with small uploads
+            for (String mode : List.of("buffered", "passthrough")) {
+                for (int i = 0; i < 20; i++) {
+                    upload(port, mode, 64 * 1024).get(30, TimeUnit.SECONDS);
+                }
+            }
+            upstreamFirstByteNanos.clear();
+
+            System.out.printf("%d concurrent uploads of %d MB%n", uploads, fileBytes / (1024 * 1024));
+            for (String mode : List.of("buffered", "passthrough")) {
+                measure(port, mode);
+            }
+        } finally {
+            gallery.close();
+        }
+    }
+
+    /**
+     * Stub gallery-service: serve keep-alive upload requests on one
+     * connection, recording when the first body byte of each arrives.
+     */
+    private void serveUpload(Socket connection) {
+        try (connection) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+            OutputStream out = connection.getOutputStream();
+            byte[] buffer = new byte[64 * 1024];
+            while (true) {
+                long start = -1;
+                long length = 0;
+                String line = readLine(in);
+                if (line == null) {
+                    return;
+                }
+                while (!(line = readLine(in)).isEmpty()) {
+                    int colon = line.indexOf(':');
+                    String name = line.substring(0, colon).trim();
+                    String value = line.substring(colon + 1).trim();
+                    if (name.equalsIgnoreCase("Content-Length")) {
+                        length = Long.parseLong(value);
+                    } else if (name.equalsIgnoreCase(START_HEADER)) {
+                        start = Long.parseLong(value);
+                    }
+                }
+                long total = 0;
+                while (total < length) {
+                    int n = in.read(buffer, 0, (int) Math.min(buffer.length, length - total));
+                    if (n < 0) {
+                        return;
+                    }
+                    if (total == 0) {
+                        upstreamFirstByteNanos.add(System.nanoTime() - start);
+                    }
+                    total += n;
+                }
+                receivedBytes.put(start, total);
+                out.write(("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: 16\r\n\r\n"
+                        + "{\"success\":true}").getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+            }
+        } catch (IOException e) {
+            // connection closed by the gateway
+        }
+    }
+
+    private static String readLine(DataInputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) >= 0) {
+            if (c == '\n') {
+                return line.toString();
+            }
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.isEmpty() ? null : line.toString();
+    }
+
+    private void measure(int port, String mode) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean sampling = new AtomicBoolean(true);
+        Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+            while (sampling.get()) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+            }
+        });
+
+        upstreamFirstByteNanos.clear();
+        receivedBytes.clear();
+        long start = System.nanoTime();
+        List<CompletableFuture<Long>> calls = new ArrayList<>();
+        for (int i = 0; i < uploads; i++) {
+            calls.add(upload(port, mode, fileBytes));
+        }
+        List<Long> totals = new ArrayList<>();
+        int failures = 0;
+        for (CompletableFuture<Long> call : calls) {
+            long elapsed = call.get(5, TimeUnit.MINUTES);
+            if (elapsed < 0) {
+                failures++;
+            } else {
+                totals.add(elapsed);
+            }
+        }
+        long wall = System.nanoTime() - start;
+        sampling.set(false);
+        sampler.join();
+
+        boolean complete = receivedBytes.size() == uploads - failures
+                && receivedBytes.values().stream().allMatch(bytes -> bytes > fileBytes);
+        List<Long> firstBytes = new ArrayList<>(upstreamFirstByteNanos);
+        System.out.printf("%-12s peak heap +%5d MB | upstream first byte p50 %6.0f ms, max %6.0f ms"
+                        + " | upload p50 %6.0f ms, max %6.0f ms | wall %6.0f ms | failures %d%s%n",
+                mode, (peak.get() - baseline) / (1024 * 1024),
+                millis(percentile(firstBytes, 50)), millis(percentile(firstBytes, 100)),
+                millis(percentile(totals, 50)), millis(percentile(totals, 100)),
+                millis(wall), failures, complete ? "" : " | INCOMPLETE BODIES");
+    }
+
+    /**
+     * Start one upload on a virtual thread over a plain socket; completes with
+     * the elapsed nanos, or -1 on failure.
+     */
+    private CompletableFuture<Long> upload(int port, String mode, long size) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            byte[] head = ("--" + BOUNDARY + "\r\n"
+                    + "Content-Disposition: form-data; name=\"userId\"\r\n\r\nu-1\r\n"
+                    + "--" + BOUNDARY + "\r\n"
+                    + "Content-Disposition: form-data; name=\"galleryId\"\r\n\r\ng-1\r\n"
+                    + "--" + BOUNDARY + "\r\n"
+                    + "Content-Disposition: form-data; name=\"file\"; filename=\"photo.jpg\"\r\n"
+                    + "Content-Type: image/jpeg\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+            byte[] tail = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+            String requestHead = "POST /benchmark/" + mode + "/upload HTTP/1.1\r\n"
+                    + "Host: localhost:" + port + "\r\n"
+                    + "Content-Type: multipart/form-data; boundary=" + BOUNDARY + "\r\n"
+                    + "Content-Length: " + (head.length + size + tail.length) + "\r\n"
+                    + START_HEADER + ": " + start + "\r\n"
+                    + "Connection: close\r\n\r\n";
+            try (Socket socket = new Socket("localhost", port)) {
+                OutputStream out = socket.getOutputStream();
+                out.write(requestHead.getBytes(StandardCharsets.US_ASCII));
+                out.write(head);
+                byte[] chunk = new byte[64 * 1024];
+                for (long sent = 0; sent < size; sent += chunk.length) {
+                    out.write(chunk, 0, (int) Math.min(chunk.length, size - sent));
+                }
+                out.write(tail);
+                out.flush();
+                String statusLine = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+                return statusLine.startsWith("HTTP/1.1 200") ? System.nanoTime() - start : -1L;
+            } catch (IOException e) {
+                return -1L;
+            }
+        }, virtualThreads);
+    }
+
+    private static long percentile(List<Long> values, int percentile) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
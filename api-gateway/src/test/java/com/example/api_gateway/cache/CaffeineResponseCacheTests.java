@@ -0,0 +1,107 @@
+package com.example.api_gateway.cache;
+
+import com.example.api_gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CaffeineResponseCacheTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final CaffeineResponseCache cache = new CaffeineResponseCache(new ResponseCacheProperties(), registry);
+
+	@Test
+	void concurrentMissesShareOneUpstreamCall() throws Exception {
+		AtomicInteger upstreamCalls = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ResponseCache.Loader slowLoader = () -> {
+			upstreamCalls.incrementAndGet();
+			await(release);
+			return response(HttpStatus.OK, new HttpHeaders());
+		};
+
+		List<Future<BufferedResponse>> calls = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < 20; i++) {
+				calls.add(executor.submit(() -> cache.get("cities", "cities /cities/suggest?q=da",
+						Duration.ofMinutes(1), slowLoader)));
+			}
+			Thread.sleep(200);
+			release.countDown();
+			for (Future<BufferedResponse> call : calls) {
+				assertThat(call.get().status()).isEqualTo(HttpStatus.OK);
+			}
+		}
+		cache.get("cities", "cities /cities/suggest?q=da", Duration.ofMinutes(1), slowLoader);
+
+		assertThat(upstreamCalls).hasValue(1);
+		assertThat(count("miss")).isEqualTo(1);
+		assertThat(count("coalesced") + count("hit")).isEqualTo(20);
+	}
+
+	@Test
+	void entriesExpireAfterTheirTtl() throws Exception {
+		AtomicInteger upstreamCalls = new AtomicInteger();
+		ResponseCache.Loader loader = () -> {
+			upstreamCalls.incrementAndGet();
+			return response(HttpStatus.OK, new HttpHeaders());
+		};
+
+		cache.get("status", "status /agent/status", Duration.ofMillis(100), loader);
+		cache.get("status", "status /agent/status", Duration.ofMillis(100), loader);
+		assertThat(upstreamCalls).hasValue(1);
+
+		Thread.sleep(200);
+		cache.get("status", "status /agent/status", Duration.ofMillis(100), loader);
+		assertThat(upstreamCalls).hasValue(2);
+	}
+
+	@Test
+	void errorsAndNoStoreResponsesAreNotCached() {
+		AtomicInteger upstreamCalls = new AtomicInteger();
+		HttpHeaders noStore = new HttpHeaders();
+		noStore.setCacheControl("no-store");
+
+		for (int i = 0; i < 2; i++) {
+			cache.get("stats", "stats /users/statistics", Duration.ofMinutes(1), () -> {
+				upstreamCalls.incrementAndGet();
+				return response(HttpStatus.SERVICE_UNAVAILABLE, new HttpHeaders());
+			});
+			cache.get("stats", "stats /plan-statistics", Duration.ofMinutes(1), () -> {
+				upstreamCalls.incrementAndGet();
+				return response(HttpStatus.OK, noStore);
+			});
+		}
+
+		assertThat(upstreamCalls).hasValue(4);
+	}
+
+	private double count(String result) {
+		return registry.get("gateway.cache.requests").tag("result", result).counter().count();
+	}
+
+	private static BufferedResponse response(HttpStatus status, HttpHeaders headers) {
+		return new BufferedResponse(status, headers, "{\"success\":true}".getBytes());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
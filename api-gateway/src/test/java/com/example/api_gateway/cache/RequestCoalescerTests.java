@@ -0,0 +1,106 @@
+package com.example.api_gateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestCoalescerTests {
+
+	private static final String KEY = "posts-get /api/posts/42";
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final RequestCoalescer coalescer = new RequestCoalescer(true, registry);
+
+	@Test
+	void concurrentIdenticalRequestsShareOneCallAndBuffer() throws Exception {
+		AtomicInteger upstreamCalls = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ResponseCache.Loader slowLoader = () -> {
+			upstreamCalls.incrementAndGet();
+			await(release);
+			return new BufferedResponse(HttpStatus.OK, new HttpHeaders(), "{\"id\":42}".getBytes());
+		};
+
+		List<Future<BufferedResponse>> calls = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < 20; i++) {
+				calls.add(executor.submit(() -> coalescer.execute("posts-get", KEY, slowLoader)));
+			}
+			Thread.sleep(200);
+			release.countDown();
+			BufferedResponse first = calls.get(0).get();
+			for (Future<BufferedResponse> call : calls) {
+				assertThat(call.get().body()).isSameAs(first.body());
+			}
+		}
+
+		assertThat(upstreamCalls).hasValue(1);
+		assertThat(count("leader")).isEqualTo(1);
+		assertThat(count("joined")).isEqualTo(19);
+	}
+
+	@Test
+	void nothingIsKeptOnceTheCallCompletes() {
+		AtomicInteger upstreamCalls = new AtomicInteger();
+		ResponseCache.Loader loader = () -> {
+			upstreamCalls.incrementAndGet();
+			return new BufferedResponse(HttpStatus.OK, new HttpHeaders(), null);
+		};
+
+		coalescer.execute("posts-get", KEY, loader);
+		coalescer.execute("posts-get", KEY, loader);
+
+		assertThat(upstreamCalls).hasValue(2);
+		assertThat(count("joined")).isZero();
+	}
+
+	@Test
+	void failureReachesEveryCallerThatJoined() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		ResponseCache.Loader failing = () -> {
+			await(release);
+			throw new IllegalStateException("upstream down");
+		};
+
+		List<Future<BufferedResponse>> calls = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < 5; i++) {
+				calls.add(executor.submit(() -> coalescer.execute("posts-get", KEY, failing)));
+			}
+			Thread.sleep(200);
+			release.countDown();
+			for (Future<BufferedResponse> call : calls) {
+				assertThatThrownBy(call::get).isInstanceOf(ExecutionException.class)
+						.cause().isInstanceOf(IllegalStateException.class).hasMessage("upstream down");
+			}
+		}
+		assertThat(count("leader") + count("joined")).isEqualTo(5);
+	}
+
+	private double count(String result) {
+		return registry.get("gateway.coalescing.requests").tag("route", "posts-get").tag("result", result)
+				.counter().count();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package com.example.api_gateway.client;
+
+import com.example.api_gateway.config.UpstreamClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class UpstreamInstancesTests {
+
+	private final DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+
+	private final UpstreamClientProperties properties = new UpstreamClientProperties();
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final UpstreamInstances instances = new UpstreamInstances(discoveryClient, properties, registry);
+
+	@Test
+	void failingInstanceIsAvoided() {
+		given(discoveryClient.getInstances("PLAN-SERVICE")).willReturn(List.of(
+				instance("10.0.0.1"), instance("10.0.0.2"), instance("10.0.0.3")));
+		Map<String, Integer> picks = new HashMap<>();
+
+		for (int i = 0; i < 3000; i++) {
+			UpstreamInstance instance = instances.choose("PLAN-SERVICE");
+			picks.merge(instance.id(), 1, Integer::sum);
+			instance.end(instance.begin(), instance.id().startsWith("10.0.0.1:"));
+		}
+
+		assertThat(picks.get("10.0.0.1:8000")).isLessThan(300);
+		assertThat(registry.get("gateway.upstream.instance.requests")
+				.tag("instance", "10.0.0.1:8000").tag("outcome", "error").timer().count())
+				.isEqualTo(picks.get("10.0.0.1:8000").longValue());
+	}
+
+	@Test
+	void instanceListIsCachedUntilTheRegistryChanges() {
+		given(discoveryClient.getInstances("user-service")).willReturn(List.of(instance("10.0.0.1")));
+		UpstreamInstance first = instances.choose("user-service");
+		assertThat(instances.choose("USER-SERVICE")).isSameAs(first);
+		verify(discoveryClient, times(1)).getInstances("user-service");
+
+		given(discoveryClient.getInstances("user-service")).willReturn(List.of(
+				instance("10.0.0.1"), instance("10.0.0.2")));
+		instances.onApplicationEvent(new HeartbeatEvent(this, 2L));
+
+		Map<String, UpstreamInstance> chosen = new HashMap<>();
+		for (int i = 0; i < 1000 && chosen.size() < 2; i++) {
+			UpstreamInstance instance = instances.choose("user-service");
+			chosen.put(instance.id(), instance);
+		}
+		assertThat(chosen).containsOnlyKeys("10.0.0.1:8000", "10.0.0.2:8000");
+		// Still registered, so the same instance with its statistics
+		assertThat(chosen.get(first.id())).isSameAs(first);
+		verify(discoveryClient, times(2)).getInstances("user-service");
+	}
+
+	@Test
+	void droppedInstancesLoseTheirMeters() {
+		given(discoveryClient.getInstances("user-service")).willReturn(List.of(
+				instance("10.0.0.1"), instance("10.0.0.2")));
+		instances.choose("user-service");
+		assertThat(registry.find("gateway.upstream.instance.requests").tag("instance", "10.0.0.1:8000").timers())
+				.hasSize(2);
+
+		given(discoveryClient.getInstances("user-service")).willReturn(List.of(instance("10.0.0.2")));
+		instances.onApplicationEvent(new HeartbeatEvent(this, 2L));
+
+		assertThat(registry.find("gateway.upstream.instance.requests").tag("instance", "10.0.0.1:8000").timers())
+				.isEmpty();
+		assertThat(registry.find("gateway.upstream.instance.requests").tag("instance", "10.0.0.2:8000").timers())
+				.hasSize(2);
+	}
+
+	@Test
+	void otherInstanceIsNeverTheExcludedOne() {
+		given(discoveryClient.getInstances("user-service")).willReturn(List.of(
+				instance("10.0.0.1"), instance("10.0.0.2"), instance("10.0.0.3")));
+		UpstreamInstance excluded = instances.choose("user-service");
+
+		for (int i = 0; i < 100; i++) {
+			assertThat(instances.chooseOther("user-service", excluded)).isNotNull().isNotSameAs(excluded);
+		}
+
+		given(discoveryClient.getInstances("blog-service")).willReturn(List.of(instance("10.0.0.4")));
+		assertThat(instances.chooseOther("blog-service", instances.choose("blog-service"))).isNull();
+	}
+
+	@Test
+	void fallsBackToConfiguredUrlWhenNothingIsRegistered() {
+		properties.getFallbackUrls().put("plan-service", "http://localhost:8001/");
+		given(discoveryClient.getInstances("PLAN-SERVICE")).willReturn(List.of());
+
+		assertThat(instances.choose("PLAN-SERVICE").baseUrl()).isEqualTo("http://localhost:8001");
+		assertThat(instances.choose("chatbot-service")).isNull();
+	}
+
+	private static ServiceInstance instance(String host) {
+		return new DefaultServiceInstance(host, "plan-service", host, 8000, false);
+	}
+}
@@ -0,0 +1,109 @@
+package com.example.api_gateway.cors;
+
+import com.example.api_gateway.routing.RouteDefinition;
+import com.example.api_gateway.routing.RouteTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.cors.CorsConfiguration;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorsPolicyFilterTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final CorsPolicyFilter filter = new CorsPolicyFilter(configuration(), new RouteTable(List.of(
+			route("posts-get", "GET", "/api/posts/{postId}"),
+			route("posts-update", "PUT", "/api/posts/{id}"),
+			route("auth-signin", "POST", "/auth/signin"))), registry);
+
+	@Test
+	void preflightsAreAnsweredFromTheRoutePolicy() throws Exception {
+		MockHttpServletRequest request = preflight("/api/posts/42", "PUT");
+		request.addHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "authorization, content-type");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+
+		filter.doFilter(request, response, chain);
+
+		assertThat(chain.getRequest()).isNull();
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN)).isEqualTo("https://app.example.com");
+		assertThat(response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS)).isEqualTo("GET, PUT");
+		assertThat(response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS))
+				.isEqualTo("authorization, content-type");
+		assertThat(response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS)).isEqualTo("true");
+		assertThat(response.getHeader(HttpHeaders.ACCESS_CONTROL_MAX_AGE)).isEqualTo("86400");
+		assertThat(registry.get("gateway.cors.preflights").tag("route", "posts-update").tag("result", "answered")
+				.counter().count()).isEqualTo(1);
+		assertThat(registry.get("gateway.cors.requests").tag("type", "preflight").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void preflightsOutsideTheRouteTableUseTheConfiguredMethods() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(preflight("/batch", "POST"), response, new MockFilterChain());
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS)).isEqualTo("GET, POST, PUT, DELETE");
+
+		MockHttpServletResponse refused = new MockHttpServletResponse();
+		filter.doFilter(preflight("/batch", "TRACE"), refused, new MockFilterChain());
+		assertThat(refused.getStatus()).isEqualTo(403);
+		assertThat(registry.get("gateway.cors.preflights").tag("route", "none").tag("result", "rejected")
+				.counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void crossOriginRequestsGetHeadersAndContinue() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/signin");
+		request.addHeader(HttpHeaders.ORIGIN, "https://app.example.com");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+
+		filter.doFilter(request, response, chain);
+		filter.doFilter(new MockHttpServletRequest("GET", "/api/posts/42"), new MockHttpServletResponse(),
+				new MockFilterChain());
+
+		assertThat(chain.getRequest()).isSameAs(request);
+		assertThat(response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN)).isEqualTo("https://app.example.com");
+		assertThat(response.getHeader(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS)).isEqualTo("Authorization, X-User-Id");
+		assertThat(response.getHeader(HttpHeaders.ACCESS_CONTROL_MAX_AGE)).isNull();
+		assertThat(response.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ORIGIN);
+		assertThat(registry.get("gateway.cors.requests").tag("type", "cors").counter().count()).isEqualTo(1);
+		assertThat(registry.get("gateway.cors.requests").tag("type", "plain").counter().count()).isEqualTo(1);
+	}
+
+	private static MockHttpServletRequest preflight(String path, String method) {
+		MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", path);
+		request.addHeader(HttpHeaders.ORIGIN, "https://app.example.com");
+		request.addHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, method);
+		return request;
+	}
+
+	private static CorsConfiguration configuration() {
+		CorsConfiguration configuration = new CorsConfiguration();
+		configuration.addAllowedOriginPattern("*");
+		configuration.setExposedHeaders(List.of("Authorization", "X-User-Id"));
+		configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE"));
+		configuration.setAllowedHeaders(List.of("*"));
+		configuration.setAllowCredentials(true);
+		configuration.setMaxAge(Duration.ofHours(24));
+		return configuration;
+	}
+
+	private static RouteDefinition route(String id, String method, String path) {
+		RouteDefinition definition = new RouteDefinition();
+		definition.setId(id);
+		definition.setMethod(method);
+		definition.setPath(path);
+		definition.setService("test-service");
+		return definition;
+	}
+}
@@ -0,0 +1,170 @@
+package com.example.api_gateway.hedging;
+
+import com.example.api_gateway.client.UpstreamInstance;
+import com.example.api_gateway.client.UpstreamInstances;
+import com.example.api_gateway.config.HedgingProperties;
+import com.example.api_gateway.config.UpstreamClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class HedgingTests {
+
+	private static final int SAMPLES = LatencyWindow.RECOMPUTE_EVERY;
+
+	private final DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+
+	private final UpstreamInstances instances = new UpstreamInstances(discoveryClient,
+			new UpstreamClientProperties(), null);
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final HedgingProperties properties = new HedgingProperties();
+
+	private Hedging hedging;
+
+	@AfterEach
+	void shutDown() {
+		if (hedging != null) {
+			hedging.destroy();
+		}
+	}
+
+	@Test
+	void slowCallIsRacedAgainstAnotherInstance() throws Exception {
+		registered("10.0.0.1", "10.0.0.2");
+		hedging = warmedUp();
+		UpstreamInstance primary = instances.choose("user-service");
+		CountDownLatch cancelled = new CountDownLatch(1);
+
+		String answer = hedging.execute("users-get", "user-service", primary, instance -> {
+			if (instance == primary) {
+				try {
+					Thread.sleep(10_000);
+				} catch (InterruptedException e) {
+					cancelled.countDown();
+					throw new IllegalStateException("cancelled");
+				}
+			}
+			return instance.id();
+		});
+
+		assertThat(answer).isNotEqualTo(primary.id());
+		assertThat(result("won")).isEqualTo(1);
+		assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void firstCallStillWinsWhenTheHedgeFails() {
+		registered("10.0.0.1", "10.0.0.2");
+		hedging = warmedUp();
+		UpstreamInstance primary = instances.choose("user-service");
+
+		String answer = hedging.execute("users-get", "user-service", primary, instance -> {
+			if (instance != primary) {
+				throw new IllegalStateException("connection refused");
+			}
+			sleep(200);
+			return instance.id();
+		});
+
+		assertThat(answer).isEqualTo(primary.id());
+		assertThat(result("lost")).isEqualTo(1);
+	}
+
+	@Test
+	void budgetCapsSecondCalls() {
+		registered("10.0.0.1", "10.0.0.2");
+		properties.setBudget(0);
+		properties.setBurst(1);
+		hedging = warmedUp();
+		UpstreamInstance primary = instances.choose("user-service");
+
+		for (int i = 0; i < 3; i++) {
+			hedging.execute("users-get", "user-service", primary, instance -> {
+				if (instance == primary) {
+					sleep(200);
+				}
+				return instance.id();
+			});
+		}
+
+		assertThat(result("won")).isEqualTo(1);
+		assertThat(result("budget_exhausted")).isEqualTo(2);
+	}
+
+	@Test
+	void singleInstanceIsNotHedged() {
+		registered("10.0.0.1");
+		hedging = warmedUp();
+		UpstreamInstance primary = instances.choose("user-service");
+
+		String answer = hedging.execute("users-get", "user-service", primary, instance -> {
+			sleep(200);
+			return instance.id();
+		});
+
+		assertThat(answer).isEqualTo(primary.id());
+		assertThat(result("no_instance")).isEqualTo(1);
+	}
+
+	@Test
+	void windowTracksThePercentileOfRecentCalls() {
+		LatencyWindow window = new LatencyWindow(100, 0.95, 50);
+		for (int i = 1; i < 50; i++) {
+			window.record(i);
+		}
+		assertThat(window.percentile()).isEqualTo(-1);
+
+		for (int i = 50; i <= 1000; i++) {
+			window.record(i);
+		}
+
+		assertThat(window.percentile()).isBetween(960L, 1000L);
+	}
+
+	private Hedging warmedUp() {
+		properties.setMinDelay(Duration.ofMillis(20));
+		properties.setMinSamples(SAMPLES);
+		hedging = new Hedging(properties, instances, registry);
+		UpstreamInstance primary = instances.choose("user-service");
+		for (int i = 0; i < SAMPLES; i++) {
+			hedging.execute("users-get", "user-service", primary, UpstreamInstance::id);
+		}
+		return hedging;
+	}
+
+	private void registered(String... hosts) {
+		List<ServiceInstance> registered = new ArrayList<>();
+		for (String host : hosts) {
+			registered.add(new DefaultServiceInstance(host, "user-service", host, 8080, false));
+		}
+		given(discoveryClient.getInstances("user-service")).willReturn(registered);
+	}
+
+	private double result(String result) {
+		return registry.get("gateway.hedging.requests").tag("route", "users-get").tag("result", result)
+				.counter().count();
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package com.example.api_gateway.jobs;
+
+import com.example.api_gateway.cache.BufferedResponse;
+import com.example.api_gateway.config.JobsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GatewayJobsTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private GatewayJobs jobs;
+
+	@AfterEach
+	void shutDown() {
+		jobs.destroy();
+	}
+
+	@Test
+	void resultIsStoredForItsOwner() throws Exception {
+		jobs = new GatewayJobs(new JobsProperties(), registry);
+		byte[] itinerary = "{\"days\":3}".getBytes(StandardCharsets.UTF_8);
+
+		Job job = jobs.submit("agent-itinerary", "alice",
+				() -> new BufferedResponse(HttpStatus.OK, null, itinerary));
+
+		assertThat(job.result().get(5, TimeUnit.SECONDS).body()).isEqualTo(itinerary);
+		assertThat(jobs.find(job.id(), "alice")).isSameAs(job);
+		assertThat(jobs.find(job.id(), "bob")).isNull();
+		assertThat(jobs.find(job.id(), null)).isNull();
+		assertThat(jobs.find("unknown", "alice")).isNull();
+		assertThat(registry.get("gateway.jobs.requests").tag("result", "accepted").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void failuresCompleteTheJobExceptionally() {
+		jobs = new GatewayJobs(new JobsProperties(), registry);
+
+		Job job = jobs.submit("flights-search", null, () -> {
+			throw new IllegalStateException("upstream down");
+		});
+
+		assertThatThrownBy(() -> job.result().get(5, TimeUnit.SECONDS)).hasRootCauseMessage("upstream down");
+		assertThat(jobs.find(job.id(), "anyone")).isSameAs(job);
+	}
+
+	@Test
+	void errorsCompleteTheJobExceptionally() {
+		jobs = new GatewayJobs(new JobsProperties(), registry);
+
+		Job job = jobs.submit("flights-search", null, () -> {
+			throw new StackOverflowError("deep itinerary");
+		});
+
+		assertThatThrownBy(() -> job.result().get(5, TimeUnit.SECONDS)).hasRootCauseMessage("deep itinerary");
+		assertThat(job.isDone()).isTrue();
+	}
+
+	@Test
+	void submissionsBeyondTheQueueAreRejected() throws Exception {
+		JobsProperties properties = new JobsProperties();
+		properties.setMaxConcurrent(1);
+		properties.setMaxQueued(1);
+		jobs = new GatewayJobs(properties, registry);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+
+		Job running = jobs.submit("hotels-search", null, () -> {
+			started.countDown();
+			await(release);
+			return new BufferedResponse(HttpStatus.OK, null, null);
+		});
+		started.await(5, TimeUnit.SECONDS);
+		Job queued = jobs.submit("hotels-search", null, () -> new BufferedResponse(HttpStatus.OK, null, null));
+
+		assertThatThrownBy(() -> jobs.submit("hotels-search", null,
+				() -> new BufferedResponse(HttpStatus.OK, null, null)))
+				.isInstanceOf(RejectedExecutionException.class);
+		assertThat(registry.get("gateway.jobs.requests").tag("result", "rejected").counter().count()).isEqualTo(1);
+
+		release.countDown();
+		assertThat(running.result().get(5, TimeUnit.SECONDS).status()).isEqualTo(HttpStatus.OK);
+		assertThat(queued.result().get(5, TimeUnit.SECONDS).status()).isEqualTo(HttpStatus.OK);
+	}
+
+	@Test
+	void waitsAreCappedAtTheMaximum() {
+		jobs = new GatewayJobs(new JobsProperties(), registry);
+
+		assertThat(jobs.waitTime(null)).isZero();
+		assertThat(jobs.waitTime("soon")).isZero();
+		assertThat(jobs.waitTime("5")).isEqualTo(Duration.ofSeconds(5));
+		assertThat(jobs.waitTime("600")).isEqualTo(Duration.ofSeconds(30));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
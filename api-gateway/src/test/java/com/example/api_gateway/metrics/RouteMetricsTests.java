@@ -0,0 +1,66 @@
+package com.example.api_gateway.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteMetricsTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final RouteMetrics metrics = new RouteMetrics(registry, true);
+
+	@Test
+	void phasesAddUpAndEndWithTheTotal() throws Exception {
+		ServerTiming timing = ServerTiming.start();
+		timing.mark("route");
+		Thread.sleep(5);
+		timing.mark("upstream");
+		timing.mark("route");
+
+		String header = timing.header();
+
+		assertThat(header).matches("route;dur=\\d+\\.\\d{3}, upstream;dur=\\d+\\.\\d{3}, total;dur=\\d+\\.\\d{3}");
+		double upstream = duration(header, "upstream");
+		assertThat(upstream).isGreaterThanOrEqualTo(5.0);
+		assertThat(duration(header, "total")).isGreaterThanOrEqualTo(upstream);
+	}
+
+	@Test
+	void timingIsBoundToTheRequestThread() throws Exception {
+		ServerTiming timing = ServerTiming.start();
+		ServerTiming.bind(timing);
+		try {
+			assertThat(ServerTiming.current()).isSameAs(timing);
+			Thread other = Thread.ofVirtual().start(() -> assertThat(ServerTiming.current()).isNull());
+			other.join();
+		} finally {
+			ServerTiming.unbind();
+		}
+		assertThat(ServerTiming.current()).isNull();
+	}
+
+	@Test
+	void requestsAreTaggedByRouteInstanceAndOutcome() {
+		ServerTiming served = ServerTiming.start();
+		served.instance("10.0.0.7:8080");
+		metrics.record("users-get", "/users/{id}", "USER-SERVICE", served, 200);
+		metrics.record("users-get", "/users/{id}", "USER-SERVICE", served, 200);
+		metrics.record("users-get", "/users/{id}", "USER-SERVICE", ServerTiming.start(), 503);
+
+		Timer success = registry.get("gateway.route.requests").tag("route", "users-get").tag("uri", "/users/{id}")
+				.tag("service", "USER-SERVICE").tag("instance", "10.0.0.7:8080").tag("outcome", "SUCCESS").timer();
+		Timer rejected = registry.get("gateway.route.requests").tag("route", "users-get").tag("instance", "none")
+				.tag("outcome", "SERVER_ERROR").timer();
+		assertThat(success.count()).isEqualTo(2);
+		assertThat(rejected.count()).isEqualTo(1);
+	}
+
+	private static double duration(String header, String phase) {
+		int start = header.indexOf(phase + ";dur=") + phase.length() + 5;
+		int end = header.indexOf(',', start);
+		return Double.parseDouble(header.substring(start, end < 0 ? header.length() : end));
+	}
+}
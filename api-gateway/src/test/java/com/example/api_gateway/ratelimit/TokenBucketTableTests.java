@@ -0,0 +1,89 @@
+package com.example.api_gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTableTests {
+
+	private static final long SECOND = TimeUnit.SECONDS.toMicros(1);
+
+	@Test
+	void burstIsAllowedThenRefusedUntilATokenRefills() {
+		// 5 requests per 5 seconds: one token per second
+		TokenBucketTable table = new TokenBucketTable(1024, 5, SECOND);
+		long key = RateLimiter.hash("i:10.0.0.1");
+		long now = 10 * SECOND;
+
+		for (int remaining = 4; remaining >= 0; remaining--) {
+			assertThat(table.tryAcquire(key, now)).isEqualTo(remaining);
+		}
+		assertThat(table.tryAcquire(key, now)).isEqualTo(-SECOND);
+		assertThat(table.tryAcquire(key, now + SECOND / 2)).isEqualTo(-SECOND / 2);
+
+		assertThat(table.tryAcquire(key, now + SECOND)).isZero();
+		assertThat(table.tryAcquire(key, now + 10 * SECOND)).isEqualTo(4);
+	}
+
+	@Test
+	void keysDoNotShareBuckets() {
+		TokenBucketTable table = new TokenBucketTable(1024, 1, 60 * SECOND);
+		long now = SECOND;
+
+		assertThat(table.tryAcquire(RateLimiter.hash("u:alice"), now)).isZero();
+		assertThat(table.tryAcquire(RateLimiter.hash("u:alice"), now)).isNegative();
+		assertThat(table.tryAcquire(RateLimiter.hash("u:bob"), now)).isZero();
+	}
+
+	@Test
+	void concurrentCallersNeverExceedTheCapacity() throws Exception {
+		TokenBucketTable table = new TokenBucketTable(1024, 1000, TimeUnit.HOURS.toMicros(1));
+		long key = RateLimiter.hash("i:10.0.0.2");
+		long now = SECOND;
+
+		List<Future<Integer>> workers = new ArrayList<>();
+		try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+			for (int i = 0; i < 16; i++) {
+				workers.add(executor.submit(() -> {
+					int allowed = 0;
+					for (int j = 0; j < 500; j++) {
+						if (table.tryAcquire(key, now) >= 0) {
+							allowed++;
+						}
+					}
+					return allowed;
+				}));
+			}
+			int allowed = 0;
+			for (Future<Integer> worker : workers) {
+				allowed += worker.get();
+			}
+			assertThat(allowed).isEqualTo(1000);
+		}
+	}
+
+	@Test
+	void moreKeysThanSlotsStayWithinTheTable() {
+		TokenBucketTable table = new TokenBucketTable(1 << 16, 1, 60 * SECOND);
+		long now = SECOND;
+
+		// Keys evicted from a full table start over with a full bucket; only a
+		// rare fingerprint collision makes a new key share another's bucket
+		int refused = 0;
+		for (int i = 0; i < 300_000; i++) {
+			if (table.tryAcquire(RateLimiter.hash("i:" + i), now) < 0) {
+				refused++;
+			}
+		}
+		assertThat(refused).isLessThan(300);
+		long recent = RateLimiter.hash("i:299999");
+		assertThat(table.tryAcquire(recent, now)).isNegative();
+	}
+}
@@ -0,0 +1,66 @@
+package com.example.api_gateway.resilience;
+
+import com.example.api_gateway.config.ResilienceProperties;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ServiceGuardsTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	void failingServiceIsCutOffAndOthersAreNot() {
+		ResilienceProperties properties = new ResilienceProperties();
+		properties.getDefaults().setSlidingWindowSize(10);
+		properties.getDefaults().setMinimumNumberOfCalls(10);
+		properties.getDefaults().setOpenDuration(Duration.ofMinutes(1));
+		ServiceGuards guards = new ServiceGuards(properties, registry);
+
+		ServiceGuard plan = guards.forService("PLAN-SERVICE");
+		for (int i = 0; i < 10; i++) {
+			plan.release(plan.acquire(), true);
+		}
+
+		assertThat(plan.state()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThatThrownBy(plan::acquire)
+				.isInstanceOfSatisfying(UpstreamRejectedException.class,
+						e -> assertThat(e.getReason()).isEqualTo("circuit_open"));
+		ServiceGuard users = guards.forService("USER-SERVICE");
+		users.release(users.acquire(), false);
+		assertThat(users.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+		assertThat(rejections("plan-service", "circuit_open")).isEqualTo(1);
+		assertThat(registry.get("resilience4j.circuitbreaker.state")
+				.tag("name", "plan-service").tag("state", "open").gauge().value()).isEqualTo(1);
+	}
+
+	@Test
+	void bulkheadRejectsCallsBeyondTheLimit() {
+		ResilienceProperties properties = new ResilienceProperties();
+		ResilienceProperties.Guard chatbot = new ResilienceProperties.Guard();
+		chatbot.setMaxConcurrentCalls(2);
+		properties.getServices().put("chatbot-service", chatbot);
+		ServiceGuard guard = new ServiceGuards(properties, registry).forService("CHATBOT-SERVICE");
+
+		long first = guard.acquire();
+		long second = guard.acquire();
+		assertThatThrownBy(guard::acquire)
+				.isInstanceOfSatisfying(UpstreamRejectedException.class,
+						e -> assertThat(e.getReason()).isEqualTo("bulkhead_full"));
+
+		guard.release(first, false);
+		guard.release(guard.acquire(), false);
+		guard.release(second, false);
+		assertThat(rejections("chatbot-service", "bulkhead_full")).isEqualTo(1);
+	}
+
+	private double rejections(String service, String reason) {
+		return registry.get("gateway.upstream.rejections").tag("service", service).tag("reason", reason)
+				.counter().count();
+	}
+}
@@ -0,0 +1,125 @@
+package com.example.api_gateway.retry;
+
+import com.example.api_gateway.client.UpstreamInstance;
+import com.example.api_gateway.client.UpstreamInstances;
+import com.example.api_gateway.config.RetryProperties;
+import com.example.api_gateway.config.UpstreamClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class RetriesTests {
+
+	private final DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+
+	private final UpstreamInstances instances = new UpstreamInstances(discoveryClient,
+			new UpstreamClientProperties(), null);
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final RetryProperties properties = new RetryProperties();
+
+	@BeforeEach
+	void registerInstances() {
+		given(discoveryClient.getInstances("user-service")).willReturn(List.of(
+				new DefaultServiceInstance("a", "user-service", "10.0.0.1", 8080, false),
+				new DefaultServiceInstance("b", "user-service", "10.0.0.2", 8080, false)));
+		properties.setInitialBackoff(Duration.ofMillis(1));
+	}
+
+	@Test
+	void connectionResetIsRetriedOnAnotherInstance() {
+		Retries retries = new Retries(properties, instances, registry);
+		UpstreamInstance first = instances.choose("user-service");
+		List<UpstreamInstance> called = new ArrayList<>();
+
+		String answer = retries.execute("users-get", "user-service", first, instance -> {
+			called.add(instance);
+			if (instance == first) {
+				throw new ResourceAccessException("I/O error", new SocketException("Connection reset"));
+			}
+			return "200";
+		}, "503"::equals);
+
+		assertThat(answer).isEqualTo("200");
+		assertThat(called).hasSize(2).doesNotHaveDuplicates();
+		assertThat(result("retried")).isEqualTo(1);
+		assertThat(result("recovered")).isEqualTo(1);
+	}
+
+	@Test
+	void gatewayErrorsAreRetriedUpToMaxAttempts() {
+		Retries retries = new Retries(properties, instances, registry);
+		List<UpstreamInstance> called = new ArrayList<>();
+
+		String answer = retries.execute("users-get", "user-service", instances.choose("user-service"),
+				instance -> {
+					called.add(instance);
+					return "503";
+				}, "503"::equals);
+
+		assertThat(answer).isEqualTo("503");
+		assertThat(called).hasSize(3);
+		assertThat(result("retried")).isEqualTo(2);
+		assertThat(result("gave_up")).isEqualTo(1);
+	}
+
+	@Test
+	void responseTimeoutsAndOtherFailuresAreNotRetried() {
+		Retries retries = new Retries(properties, instances, registry);
+		UpstreamInstance first = instances.choose("user-service");
+
+		assertThatThrownBy(() -> retries.execute("users-get", "user-service", first, instance -> {
+			throw new ResourceAccessException("I/O error", new SocketTimeoutException("Read timed out"));
+		}, "503"::equals)).hasRootCauseMessage("Read timed out");
+		assertThatThrownBy(() -> retries.execute("users-get", "user-service", first, instance -> {
+			throw new IllegalStateException("circuit open");
+		}, "503"::equals)).hasMessage("circuit open");
+
+		assertThat(registry.find("gateway.retry.requests").counters()).allMatch(counter -> counter.count() == 0);
+	}
+
+	@Test
+	void connectTimeoutsAreRetried() {
+		assertThat(Retries.isRetryable(new ResourceAccessException("I/O error",
+				new ConnectTimeoutException("Connect to user-service:8081 timed out")))).isTrue();
+		assertThat(Retries.isRetryable(new ResourceAccessException("I/O error",
+				new SocketTimeoutException("Read timed out")))).isFalse();
+	}
+
+	@Test
+	void budgetStopsRetryStorms() {
+		properties.setBudget(0);
+		properties.setBurst(1);
+		properties.setMaxAttempts(2);
+		Retries retries = new Retries(properties, instances, registry);
+
+		for (int i = 0; i < 5; i++) {
+			retries.execute("users-get", "user-service", instances.choose("user-service"),
+					instance -> "503", "503"::equals);
+		}
+
+		assertThat(result("retried")).isEqualTo(1);
+		assertThat(result("budget_exhausted")).isEqualTo(4);
+	}
+
+	private double result(String result) {
+		return registry.get("gateway.retry.requests").tag("route", "users-get").tag("result", result)
+				.counter().count();
+	}
+}
@@ -0,0 +1,47 @@
+package com.example.api_gateway.routing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.RestClientException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GzipCodingTests {
+
+	@Test
+	void gzipIsAcceptedByNameOrWildcardUnlessItsQualityIsZero() {
+		assertThat(GzipCoding.isAccepted("gzip, deflate, br")).isTrue();
+		assertThat(GzipCoding.isAccepted("br;q=1.0, GZIP;q=0.5")).isTrue();
+		assertThat(GzipCoding.isAccepted("*")).isTrue();
+		assertThat(GzipCoding.isAccepted("gzip;q=0, *")).isFalse();
+		assertThat(GzipCoding.isAccepted("*;q=0")).isFalse();
+		assertThat(GzipCoding.isAccepted("br, identity")).isFalse();
+		assertThat(GzipCoding.isAccepted(null)).isFalse();
+	}
+
+	@Test
+	void encodedBodiesAreRecognisedAndDecoded() throws IOException {
+		byte[] feed = "{\"content\":[{\"title\":\"Hoi An\"}]}".repeat(100).getBytes(StandardCharsets.UTF_8);
+		HttpHeaders headers = new HttpHeaders();
+		assertThat(GzipCoding.isEncoded(headers)).isFalse();
+		headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+		assertThat(GzipCoding.isEncoded(headers)).isTrue();
+
+		assertThat(GzipCoding.decode(gzip(feed))).isEqualTo(feed);
+		assertThatThrownBy(() -> GzipCoding.decode(feed)).isInstanceOf(RestClientException.class);
+	}
+
+	private static byte[] gzip(byte[] body) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(body);
+		}
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,58 @@
+package com.example.api_gateway.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class RouteTableTests {
+
+	@Test
+	void literalSegmentsWinOverVariablesAndBacktrack() {
+		RouteTable table = new RouteTable(List.of(
+				route("users-get", "GET", "/users/{id}", null),
+				route("users-search", "GET", "/users/search", null),
+				route("users-city", "PUT", "/users/{id}/city", null),
+				route("friends-accept", "PUT", "/users/friends/accept", null)));
+
+		assertThat(table.match("GET", "/users/search").route().getId()).isEqualTo("users-search");
+		assertThat(table.match("GET", "/users/42").variable("id")).isEqualTo("42");
+		// "friends" is a literal child of /users, but only the variable branch has /city
+		RouteMatch city = table.match("PUT", "/users/friends/city");
+		assertThat(city.route().getId()).isEqualTo("users-city");
+		assertThat(city.variable("id")).isEqualTo("friends");
+		assertThat(table.match("POST", "/users/42")).isNull();
+		assertThat(table.match("GET", "/users/42/unknown")).isNull();
+	}
+
+	@Test
+	void upstreamPathSubstitutesVariablesAndKeepsQuery() {
+		RouteTable table = new RouteTable(List.of(
+				route("plans-get", "GET", "/plans/{user_id}/{plan_id}", null),
+				route("chatbot-hello", "GET", "/chatbot/hello", "/hello"),
+				route("renamed", "GET", "/a/{x}/{y}", "/b/{y}/c/{x}")));
+
+		assertThat(table.match("GET", "/plans/u1/p2").upstreamPath("limit=5")).isEqualTo("/plans/u1/p2?limit=5");
+		assertThat(table.match("GET", "/chatbot/hello").upstreamPath(null)).isEqualTo("/hello");
+		assertThat(table.match("GET", "/a/1/2").upstreamPath(null)).isEqualTo("/b/2/c/1");
+	}
+
+	@Test
+	void duplicateRoutesAreRejected() {
+		assertThatIllegalStateException().isThrownBy(() -> new RouteTable(List.of(
+				route("one", "GET", "/users/{id}", null),
+				route("two", "GET", "/users/{userId}", null))));
+	}
+
+	private static RouteDefinition route(String id, String method, String path, String upstreamPath) {
+		RouteDefinition definition = new RouteDefinition();
+		definition.setId(id);
+		definition.setMethod(method);
+		definition.setPath(path);
+		definition.setService("test-service");
+		definition.setUpstreamPath(upstreamPath);
+		return definition;
+	}
+}
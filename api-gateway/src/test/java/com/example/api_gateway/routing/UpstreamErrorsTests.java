@@ -0,0 +1,94 @@
+package com.example.api_gateway.routing;
+
+import com.example.api_gateway.cache.BufferedResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpstreamErrorsTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final RouteTable routeTable = new RouteTable(List.of(
+			route("auth-signin", "/auth/signin", false),
+			route("payos-create", "/api/payos/create", true)));
+
+	private final UpstreamErrors errors = new UpstreamErrors(routeTable, objectMapper, registry);
+
+	@Test
+	void upstreamBodiesKeepTheirBytesAndContentType() {
+		byte[] body = "{\"success\":false,\"message\":\"Invalid email or password\"}".getBytes(StandardCharsets.UTF_8);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.parseMediaType("application/problem+json"));
+
+		BufferedResponse response = errors.upstream(signin(), HttpStatus.UNAUTHORIZED, headers, body);
+		errors.upstream(signin(), HttpStatus.UNAUTHORIZED, headers, body);
+
+		assertThat(response.body()).isSameAs(body);
+		assertThat(response.headers().getContentType()).hasToString("application/problem+json");
+		assertThat(registry.get("gateway.upstream.errors").tag("service", "auth-service").tag("status", "401")
+				.tag("origin", "upstream").counter().count()).isEqualTo(2);
+	}
+
+	@Test
+	void emptyUpstreamErrorsGetTheMessageOfTheirStatus() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+		headers.setContentLength(0);
+
+		BufferedResponse response = errors.upstream(signin(), HttpStatus.UNAUTHORIZED, headers, new byte[0]);
+
+		assertThat(response.headers().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+		assertThat(response.headers().getFirst(HttpHeaders.WWW_AUTHENTICATE)).isEqualTo("Bearer");
+		assertThat(response.headers().containsKey(HttpHeaders.CONTENT_LENGTH)).isFalse();
+		assertThat(objectMapper.readTree(response.body()).get("message").asText()).isEqualTo("Unauthorized");
+		// Serialized once, not per request
+		assertThat(errors.statusBody(401)).isSameAs(response.body());
+		assertThat(objectMapper.readTree(errors.statusBody(599)).get("message").asText()).isEqualTo("Upstream error");
+	}
+
+	@Test
+	void gatewayErrorsUseTheRouteMessage() throws Exception {
+		CompiledRoute payos = routeTable.match("POST", "/api/payos/create").route();
+
+		JsonNode plain = objectMapper.readTree(errors.gateway(signin(), HttpStatus.SERVICE_UNAVAILABLE, null));
+		JsonNode detailed = objectMapper.readTree(errors.gateway(payos, HttpStatus.INTERNAL_SERVER_ERROR,
+				new IllegalStateException("connection reset")));
+		JsonNode tooLarge = objectMapper.readTree(errors.tooLarge(signin()));
+
+		assertThat(plain.get("message").asText()).isEqualTo("auth-signin unavailable");
+		assertThat(plain.has("error")).isFalse();
+		assertThat(detailed.get("error").asText()).isEqualTo("connection reset");
+		assertThat(tooLarge.get("message").asText()).isEqualTo("Request body exceeds 65536B");
+		assertThat(registry.get("gateway.upstream.errors").tag("service", "auth-service").tag("status", "503")
+				.tag("origin", "gateway").counter().count()).isEqualTo(1);
+	}
+
+	private CompiledRoute signin() {
+		return routeTable.match("POST", "/auth/signin").route();
+	}
+
+	private static RouteDefinition route(String id, String path, boolean exposeErrorDetail) {
+		RouteDefinition definition = new RouteDefinition();
+		definition.setId(id);
+		definition.setMethod("POST");
+		definition.setPath(path);
+		definition.setService("auth-service");
+		definition.setErrorMessage(id + " unavailable");
+		definition.setExposeErrorDetail(exposeErrorDetail);
+		definition.setMaxBodySize(DataSize.ofKilobytes(64));
+		return definition;
+	}
+}
@@ -0,0 +1,103 @@
+package com.example.api_gateway.security;
+
+import com.example.api_gateway.config.IdentityProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EdgeAuthenticatorTests {
+
+	static final String JWT_SECRET = "4pMrj9Q5aOg/Qi9tYfYQLIww81gmtLda4MCRkwCtBhPLgx9bYCzJH0h8ojM0fZ9VQi/Gf0u6XMmiiA7si55glg==";
+
+	static final String SIGNING_SECRET = "iER/dBhWaOZrN1Vhz3e+0qt5YjBzSJKSq/ySq6yUrxg=";
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final EdgeAuthenticator authenticator = new EdgeAuthenticator(properties(), new ObjectMapper(), registry);
+
+	@Test
+	void tokenIsVerifiedOnceAndTurnedIntoSignedHeaders() throws Exception {
+		long expires = now() + 600;
+		String authorization = "Bearer " + token("HS512", JWT_SECRET,
+				"{\"sub\":\"7f1c\",\"role\":\"ADMIN\",\"exp\":" + expires + "}");
+
+		Identity first = authenticator.resolve(authorization);
+		Identity second = authenticator.resolve(authorization);
+
+		assertThat(second).isSameAs(first);
+		assertThat(first.userId()).isEqualTo("7f1c");
+		assertThat(first.roles()).isEqualTo("ADMIN");
+		assertThat(first.expires()).isEqualTo(expires);
+		assertThat(tokens("verified")).isEqualTo(1);
+		assertThat(tokens("cached")).isEqualTo(1);
+
+		Map<String, String> headers = new HashMap<>();
+		first.forEachHeader(headers::put);
+		IdentitySigner downstream = new IdentitySigner(SIGNING_SECRET);
+		assertThat(downstream.verify(headers.get("X-User-Id"), headers.get("X-User-Roles"),
+				headers.get("X-Identity-Expires"), headers.get("X-Identity-Signature"), now())).isTrue();
+		assertThat(downstream.verify("someone-else", headers.get("X-User-Roles"),
+				headers.get("X-Identity-Expires"), headers.get("X-Identity-Signature"), now())).isFalse();
+	}
+
+	@Test
+	void invalidTokensGetNoIdentity() throws Exception {
+		String claims = "{\"sub\":\"7f1c\",\"roles\":[\"user\"],\"exp\":" + (now() + 600) + "}";
+		String valid = token("HS512", JWT_SECRET, claims);
+
+		assertThat(authenticator.resolve("Bearer " + valid.substring(0, valid.length() - 4) + "AAAA")).isNull();
+		assertThat(authenticator.resolve("Bearer " + token("HS512", SIGNING_SECRET, claims))).isNull();
+		assertThat(authenticator.resolve("Bearer " + token("HS256", JWT_SECRET, claims))).isNull();
+		assertThat(authenticator.resolve("Bearer " + token("HS512", JWT_SECRET,
+				"{\"sub\":\"7f1c\",\"exp\":" + (now() - 1) + "}"))).isNull();
+		assertThat(authenticator.resolve("Bearer " + token("HS512", JWT_SECRET, "{\"sub\":\"7f1c\"}"))).isNull();
+		assertThat(authenticator.resolve("Bearer not-a-token")).isNull();
+		assertThat(authenticator.resolve("Basic dXNlcjpwYXNz")).isNull();
+		assertThat(tokens("rejected")).isEqualTo(6);
+	}
+
+	@Test
+	void disabledAuthenticatorResolvesNothing() throws Exception {
+		IdentityProperties properties = new IdentityProperties();
+		properties.setEnabled(false);
+		EdgeAuthenticator disabled = new EdgeAuthenticator(properties, new ObjectMapper(), new SimpleMeterRegistry());
+
+		assertThat(disabled.isEnabled()).isFalse();
+		assertThat(disabled.resolve("Bearer " + token("HS512", JWT_SECRET,
+				"{\"sub\":\"7f1c\",\"exp\":" + (now() + 600) + "}"))).isNull();
+	}
+
+	static IdentityProperties properties() {
+		IdentityProperties properties = new IdentityProperties();
+		properties.setJwtSecret(JWT_SECRET);
+		properties.setSigningSecret(SIGNING_SECRET);
+		return properties;
+	}
+
+	static String token(String algorithm, String base64Secret, String claims) throws Exception {
+		Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+		String signingInput = encoder.encodeToString(("{\"alg\":\"" + algorithm + "\"}").getBytes(StandardCharsets.UTF_8))
+				+ "." + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+		String macAlgorithm = "HmacSHA" + algorithm.substring(2);
+		Mac mac = Mac.getInstance(macAlgorithm);
+		mac.init(new SecretKeySpec(Base64.getDecoder().decode(base64Secret), macAlgorithm));
+		return signingInput + "." + encoder.encodeToString(mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII)));
+	}
+
+	private static long now() {
+		return System.currentTimeMillis() / 1000;
+	}
+
+	private double tokens(String result) {
+		return registry.get("gateway.identity.tokens").tag("result", result).counter().count();
+	}
+}
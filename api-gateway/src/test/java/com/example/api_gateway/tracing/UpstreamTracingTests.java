@@ -0,0 +1,90 @@
+package com.example.api_gateway.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelPropagator;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpstreamTracingTests {
+
+	@TempDir
+	Path directory;
+
+	private SdkTracerProvider provider;
+
+	@AfterEach
+	void shutDown() {
+		if (provider != null) {
+			provider.shutdown();
+		}
+	}
+
+	@Test
+	void clientSpanIsAChildOfTheRequestAndTravelsAsTraceparent() throws IOException {
+		Path file = directory.resolve("spans.jsonl");
+		SpanCollector collector = new SpanCollector(100, file, new ObjectMapper());
+		OtelTracer tracer = tracer(collector);
+		UpstreamTracing tracing = new UpstreamTracing(tracer, new OtelPropagator(
+				ContextPropagators.create(W3CTraceContextPropagator.getInstance()), provider.get("test")));
+
+		Span server = tracer.nextSpan().name("http get /users/{id}").start();
+		HttpHeaders headers = new HttpHeaders();
+		Span client = tracing.start(server, "USER-SERVICE", "10.0.0.7:8080", "GET", headers, HttpHeaders::set);
+		tracing.end(client, 200, null);
+		server.end();
+
+		String traceId = server.context().traceId();
+		assertThat(headers.getFirst("traceparent"))
+				.isEqualTo("00-" + traceId + "-" + client.context().spanId() + "-01");
+		List<RecordedSpan> trace = collector.trace(traceId);
+		assertThat(trace).extracting(RecordedSpan::name)
+				.containsExactlyInAnyOrder("http get /users/{id}", "GET USER-SERVICE");
+		RecordedSpan call = trace.stream().filter(span -> span.parentSpanId() != null).findFirst().orElseThrow();
+		assertThat(call.parentSpanId()).isEqualTo(server.context().spanId());
+		assertThat(call.kind()).isEqualTo("CLIENT");
+		assertThat(call.service()).isEqualTo("api-gateway");
+		assertThat(call.tags()).containsEntry("peer.service", "USER-SERVICE")
+				.containsEntry("http.response.status_code", "200");
+		assertThat(Files.readAllLines(file)).hasSize(2).allMatch(line -> line.contains(traceId));
+	}
+
+	@Test
+	void collectorKeepsOnlyTheMostRecentSpans() throws IOException {
+		SpanCollector collector = new SpanCollector(2, null, new ObjectMapper());
+		OtelTracer tracer = tracer(collector);
+
+		for (String name : List.of("first", "second", "third")) {
+			tracer.nextSpan().name(name).start().end();
+		}
+
+		assertThat(collector.recent()).extracting(RecordedSpan::name).containsExactly("second", "third");
+	}
+
+	private OtelTracer tracer(SpanCollector collector) {
+		provider = SdkTracerProvider.builder()
+				.addSpanProcessor(SimpleSpanProcessor.create(collector))
+				.setResource(Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), "api-gateway")))
+				.build();
+		return new OtelTracer(provider.get("test"), new OtelCurrentTraceContext(), event -> {
+		});
+	}
+}
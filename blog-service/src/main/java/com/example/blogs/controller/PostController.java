@@ -124,6 +124,12 @@ public class PostController {
         return ResponseEntity.status(HttpStatus.OK).body(ApiResponse.ok(PageResponse.from(body), Map.of("totalLike", totalLikes, "totalViews", totalViews)));
     }
 
+    // Thống kê bài viết của một user (trang profile)
+    @GetMapping("/stats/{userId}")
+    public ResponseEntity<ApiResponse<UserPostStatsResponse>> userStats(@PathVariable UUID userId) {
+        return ResponseEntity.ok(ApiResponse.ok(postService.getUserStats(userId)));
+    }
+
     // Like / Unlike
     @PostMapping("/{postId}/like")
     public ResponseEntity<ApiResponse<Long>> like(
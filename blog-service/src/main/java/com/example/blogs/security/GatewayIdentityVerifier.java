@@ -0,0 +1,51 @@
+package com.example.blogs.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Checks the identity headers signed by api-gateway after it has verified
+ * the bearer token: HMAC-SHA256 over {@code userId + "\n" + roles + "\n" + expires},
+ * base64url without padding, valid until {@code X-Identity-Expires}.
+ */
+public class GatewayIdentityVerifier {
+
+    public static final String USER_ID = "X-User-Id";
+    public static final String USER_ROLES = "X-User-Roles";
+    public static final String EXPIRES = "X-Identity-Expires";
+    public static final String SIGNATURE = "X-Identity-Signature";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final Mac prototype;
+
+    public GatewayIdentityVerifier(String base64Secret) {
+        try {
+            prototype = Mac.getInstance("HmacSHA256");
+            prototype.init(new SecretKeySpec(Base64.getDecoder().decode(base64Secret), "HmacSHA256"));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise gateway identity verifier", e);
+        }
+    }
+
+    public boolean verify(String userId, String roles, String expires, String signature) {
+        if (userId == null || expires == null || signature == null) {
+            return false;
+        }
+        try {
+            if (Long.parseLong(expires) <= System.currentTimeMillis() / 1000) {
+                return false;
+            }
+            Mac mac = (Mac) prototype.clone();
+            byte[] expected = ENCODER.encode(mac.doFinal((userId + '\n' + (roles != null ? roles : "") + '\n' + expires)
+                    .getBytes(StandardCharsets.UTF_8)));
+            return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII));
+        } catch (NumberFormatException | CloneNotSupportedException e) {
+            return false;
+        }
+    }
+}
@@ -30,6 +30,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final boolean enableHeaderFallback;
+    // null khi không cấu hình secret của gateway
+    private final GatewayIdentityVerifier gatewayIdentity;
     private static final Set<String> KNOWN_ROLES = Arrays.stream(Role.values())
             .map(Enum::name)
             .collect(Collectors.toSet());
@@ -39,6 +41,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             HttpServletResponse response,
             FilterChain chain) throws ServletException, IOException {
 
+        // Gateway đã xác thực token và ký identity headers: không cần kiểm tra JWT lần nữa
+        if (gatewayIdentity != null && tryGatewayIdentity(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
         String auth = request.getHeader(HttpHeaders.AUTHORIZATION);
         boolean authenticated = false;
 
@@ -121,6 +129,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 authorities.stream().map(a -> a.getAuthority()).toList());
     }
 
+    private boolean tryGatewayIdentity(HttpServletRequest request) {
+        String userHeader = request.getHeader(GatewayIdentityVerifier.USER_ID);
+        String rolesHeader = request.getHeader(GatewayIdentityVerifier.USER_ROLES);
+        if (!gatewayIdentity.verify(userHeader, rolesHeader,
+                request.getHeader(GatewayIdentityVerifier.EXPIRES),
+                request.getHeader(GatewayIdentityVerifier.SIGNATURE))) {
+            return false;
+        }
+        try {
+            UUID uid = UUID.fromString(userHeader);
+            List<String> roles = parseRolesHeader(rolesHeader);
+            if (roles.isEmpty()) {
+                roles = List.of(Role.user.name());
+            }
+            setAuthentication(uid, roles);
+            return true;
+        } catch (IllegalArgumentException ignored) {
+            return false;
+        }
+    }
+
     private boolean tryHeaderFallback(HttpServletRequest request) {
         String userHeader = request.getHeader("X-User-Id");
         if (!StringUtils.hasText(userHeader)) {
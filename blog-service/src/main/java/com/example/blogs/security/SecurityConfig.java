@@ -30,6 +30,9 @@ public class SecurityConfig {
     @Value("${security.fallback-header-auth:false}")
     private boolean fallbackHeaderAuth;
 
+    @Value("${security.gateway-identity.secret:}")
+    private String gatewayIdentitySecret;
+
     @Value("${app.cors.allowed-origins:*}")
     private String corsAllowedOrigins;
 
@@ -43,7 +46,10 @@ public class SecurityConfig {
 
     @Bean
     public SecurityFilterChain apiFilterChain(HttpSecurity http, JwtUtils jwtUtils) throws Exception {
-        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(jwtUtils, fallbackHeaderAuth);
+        GatewayIdentityVerifier gatewayIdentity = StringUtils.hasText(gatewayIdentitySecret)
+                ? new GatewayIdentityVerifier(gatewayIdentitySecret)
+                : null;
+        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(jwtUtils, fallbackHeaderAuth, gatewayIdentity);
 
         return http
                 .csrf(AbstractHttpConfigurer::disable)
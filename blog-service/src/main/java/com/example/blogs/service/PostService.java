@@ -35,4 +35,6 @@ public interface PostService {
     long countTotalViewsByAuthor(UUID userId);
 
     long countTotalLikesByAuthor(UUID userId);
+
+    UserPostStatsResponse getUserStats(UUID userId);
 }
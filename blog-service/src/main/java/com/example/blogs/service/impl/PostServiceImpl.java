@@ -192,6 +192,12 @@ public class PostServiceImpl implements PostService {
                 .build();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public UserPostStatsResponse getUserStats(UUID userId) {
+        return snapshotUserStats(userId);
+    }
+
     private UserPostStatsResponse snapshotUserStats(UUID userId) {
         long totalPosts = postRepo.countByDeletedFalseAndAuthorUserId(userId);
         long totalLikes = likeRepo.countByAuthorUserId(userId);
@@ -1,7 +1,7 @@
 import os
 import uuid
 import logging
-from typing import Dict, Any, Optional
+from typing import Dict, Any, Iterator, Optional
 from langchain_google_genai import ChatGoogleGenerativeAI
 from dotenv import load_dotenv
 
@@ -36,27 +36,10 @@ class ChatAgent:
             logger.error(f"Failed to initialize Travel & Tourism Chat Agent LLM: {e}")
             raise
 
-    def process_query(self, query: str, session_id: Optional[str] = None) -> Dict[str, Any]:
-        """
-        Process user query and return response using Gemini for Travel & Tourism topics
-
-        Handles two conversation scenarios:
-        1. General travel chat and questions
-        2. Travel plan analysis - returns only a concise plain text summary
-
-        Args:
-            query: User input query about travel/tourism
-            session_id: Optional session ID (for compatibility)
-
-        Returns:
-            Dictionary with response data focused on travel topics
-        """
-        try:
-            if not session_id:
-                session_id = str(uuid.uuid4())
-
-            # Enhanced prompt for travel and tourism chatbot
-            prompt = f"""Bạn là chatbot chuyên về du lịch và lập kế hoạch du lịch. Bạn chỉ trả lời các câu hỏi liên quan đến du lịch, nghỉ dưỡng, lập kế hoạch chuyến đi và các chủ đề liên quan.
+    def _build_prompt(self, query: str) -> str:
+        """Wrap the user's query in the travel & tourism instructions"""
+        # Enhanced prompt for travel and tourism chatbot
+        return f"""Bạn là chatbot chuyên về du lịch và lập kế hoạch du lịch. Bạn chỉ trả lời các câu hỏi liên quan đến du lịch, nghỉ dưỡng, lập kế hoạch chuyến đi và các chủ đề liên quan.
 
             CÁC TÌNH HUỐNG HỘI THOẠI:
 
@@ -84,6 +67,27 @@ class ChatAgent:
 
             Vui lòng cung cấp câu trả lời hữu ích và hấp dẫn:"""
 
+    def process_query(self, query: str, session_id: Optional[str] = None) -> Dict[str, Any]:
+        """
+        Process user query and return response using Gemini for Travel & Tourism topics
+
+        Handles two conversation scenarios:
+        1. General travel chat and questions
+        2. Travel plan analysis - returns only a concise plain text summary
+
+        Args:
+            query: User input query about travel/tourism
+            session_id: Optional session ID (for compatibility)
+
+        Returns:
+            Dictionary with response data focused on travel topics
+        """
+        try:
+            if not session_id:
+                session_id = str(uuid.uuid4())
+
+            prompt = self._build_prompt(query)
+
             # Get response from Gemini
             response = self.llm.invoke(prompt)
 
@@ -102,6 +106,20 @@ class ChatAgent:
                 "session_id": session_id or "unknown"
             }
 
+    def stream(self, message: str) -> Iterator[str]:
+        """
+        Stream the answer to a message as Gemini writes it
+
+        Args:
+            message: User's message about travel or tourism
+
+        Yields:
+            Pieces of the chatbot response, in order
+        """
+        for chunk in self.llm.stream(self._build_prompt(message)):
+            if isinstance(chunk.content, str) and chunk.content:
+                yield chunk.content
+
     def chat(self, message: str) -> str:
         """
         Simple chat method for travel and tourism conversations
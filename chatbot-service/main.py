@@ -1,8 +1,10 @@
 import os
+import json
 import socket
 import logging
-from typing import Dict, Any
-from fastapi import FastAPI
+from typing import Dict, Any, Iterator, Optional
+from fastapi import FastAPI, Request
+from fastapi.responses import StreamingResponse
 from dotenv import load_dotenv
 import py_eureka_client.eureka_client as eureka_client
 from prometheus_fastapi_instrumentator import Instrumentator
@@ -71,8 +73,56 @@ def health_check():
 def read_hello():
     return {"message": "Hello from chatbot service"}
 
+def _chat_input(request: Dict[str, Any]) -> Optional[str]:
+    """Text to send to the agent: the travel plan as JSON, or the user's message"""
+    message = request.get("message", "")
+    plan_content = request.get("plan_content", None)
+
+    logger.info(f"Received request - message: {message}, has plan_content: {plan_content is not None}")
+
+    # Check if plan_content exists (travel plan scenario)
+    if plan_content and isinstance(plan_content, dict):
+        logger.info(f"Processing travel plan with content: {plan_content}")
+        # Send plan_content as JSON string for summarization
+        return json.dumps(plan_content, ensure_ascii=False)
+    if not message:
+        return None
+
+    # Regular message scenario
+    logger.info(f"Processing regular message: {message}")
+
+    # Check if message itself is a dict (backwards compatibility)
+    if isinstance(message, dict):
+        travel_indicators = ['destination', 'startDate', 'endDate', 'budget', 'plan_id', 'selectedInterests']
+        if any(key in message for key in travel_indicators):
+            logger.info("Message contains travel plan data")
+            return json.dumps(message, ensure_ascii=False)
+        return str(message)
+
+    # Try to parse as JSON string
+    try:
+        plan_data = json.loads(message)
+        travel_indicators = ['destination', 'startDate', 'endDate', 'budget', 'plan_id', 'selectedInterests']
+        if any(key in plan_data for key in travel_indicators):
+            logger.info("Parsed travel plan from JSON string")
+        return message
+    except (json.JSONDecodeError, TypeError, ValueError):
+        # Not JSON, treat as regular text message
+        logger.info("Processing as regular text message")
+        return str(message)
+
+def _sse_events(pieces: Iterator[str]) -> Iterator[str]:
+    """Frame response pieces as Server-Sent Events: token events, then done (or error)"""
+    try:
+        for piece in pieces:
+            yield f"event: token\ndata: {json.dumps({'text': piece}, ensure_ascii=False)}\n\n"
+        yield "event: done\ndata: {}\n\n"
+    except Exception as e:
+        logger.error(f"Error while streaming chat response: {e}")
+        yield f"event: error\ndata: {json.dumps({'error': f'Chat service error: {str(e)}'})}\n\n"
+
 @app.post("/chat")
-def chat_with_agent(request: Dict[str, Any]):
+def chat_with_agent(request: Dict[str, Any], http_request: Request):
     """
     Chat with the Travel & Tourism AI Agent
 
@@ -86,6 +136,9 @@ def chat_with_agent(request: Dict[str, Any]):
     1. General travel chat and questions
     2. Travel plan analysis and discussion (summarizes plans and focuses conversation within them)
 
+    Clients sending "Accept: text/event-stream" get the answer as it is written,
+    as "token" events carrying {"text": ...}, followed by a "done" event.
+
     Args:
         request: JSON object with "message" field and optional "plan_content" field
 
@@ -96,56 +149,25 @@ def chat_with_agent(request: Dict[str, Any]):
         return {"error": "Chat agent not initialized"}
 
     try:
-        import json
-        
-        message = request.get("message", "")
-        plan_content = request.get("plan_content", None)
-        
-        logger.info(f"Received request - message: {message}, has plan_content: {plan_content is not None}")
-        
-        # Check if plan_content exists (travel plan scenario)
-        if plan_content and isinstance(plan_content, dict):
-            logger.info(f"Processing travel plan with content: {plan_content}")
-            # Send plan_content as JSON string for summarization
-            response = chat_agent.chat(json.dumps(plan_content, ensure_ascii=False))
-        elif message:
-            # Regular message scenario
-            logger.info(f"Processing regular message: {message}")
-            
-            # Check if message itself is a dict (backwards compatibility)
-            if isinstance(message, dict):
-                travel_indicators = ['destination', 'startDate', 'endDate', 'budget', 'plan_id', 'selectedInterests']
-                has_travel_data = any(key in message for key in travel_indicators)
-                
-                if has_travel_data:
-                    logger.info("Message contains travel plan data")
-                    response = chat_agent.chat(json.dumps(message, ensure_ascii=False))
-                else:
-                    response = chat_agent.chat(str(message))
-            else:
-                # Try to parse as JSON string
-                try:
-                    plan_data = json.loads(message)
-                    travel_indicators = ['destination', 'startDate', 'endDate', 'budget', 'plan_id', 'selectedInterests']
-                    has_travel_data = any(key in plan_data for key in travel_indicators)
-                    
-                    if has_travel_data:
-                        logger.info("Parsed travel plan from JSON string")
-                        response = chat_agent.chat(message)
-                    else:
-                        response = chat_agent.chat(message)
-                except (json.JSONDecodeError, TypeError, ValueError):
-                    # Not JSON, treat as regular text message
-                    logger.info("Processing as regular text message")
-                    response = chat_agent.chat(str(message))
-        else:
+        text = _chat_input(request)
+        if text is None:
             return {"error": "Either 'message' or 'plan_content' field is required"}
 
+        if "text/event-stream" in http_request.headers.get("accept", ""):
+            return StreamingResponse(
+                _sse_events(chat_agent.stream(text)),
+                media_type="text/event-stream",
+                headers={"Cache-Control": "no-cache"}
+            )
+
+        response = chat_agent.chat(text)
         logger.info(f"Final response: {response[:200]}...")
         return {"response": response}
     except Exception as e:
         logger.error(f"Error in chat endpoint: {e}")
-        return {"error": f"Chat service error: {str(e)}"}# Add more endpoints here as needed
+        return {"error": f"Chat service error: {str(e)}"}
+
+# Add more endpoints here as needed
 
 if __name__ == "__main__":
     import uvicorn
@@ -0,0 +1,17 @@
+package com.example.gallery_service.config;
+
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.local-export.enabled", havingValue = "true", matchIfMissing = true)
+    public SpanExporter localSpanExporter() {
+        return OtlpJsonLoggingSpanExporter.create();
+    }
+}
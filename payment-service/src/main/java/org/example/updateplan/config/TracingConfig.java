@@ -0,0 +1,18 @@
+package org.example.updateplan.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.local-export.enabled", havingValue = "true", matchIfMissing = true)
+    public SpanExporter localSpanExporter() {
+        return OtlpJsonLoggingSpanExporter.create();
+    }
+}
@@ -5,7 +5,7 @@ import math
 import glob
 import uuid
 import logging
-from typing import Dict, Any, Optional
+from typing import AsyncIterator, Dict, Any, Optional
 from langchain_google_genai import ChatGoogleGenerativeAI
 from langchain_core.prompts import ChatPromptTemplate, MessagesPlaceholder
 from langchain_core.runnables.history import RunnableWithMessageHistory
@@ -767,6 +767,27 @@ class TravelAgent:
                 "session_id": session_id or "unknown"
             }
 
+    async def stream_query(self, query: str, session_id: str) -> AsyncIterator[str]:
+        """
+        Stream the answer to a user query as the LLM writes it
+
+        Tool calls run as in process_query; only the text the model writes
+        is yielded. The chat history is updated once the answer is complete.
+
+        Args:
+            query: User input query
+            session_id: Session ID for chat history
+
+        Yields:
+            Pieces of the answer, in order
+        """
+        config = {"configurable": {"session_id": session_id}}
+        async for event in self.runnable.astream_events({"input": query}, config=config, version="v2"):
+            if event["event"] == "on_chat_model_stream":
+                content = event["data"]["chunk"].content
+                if isinstance(content, str) and content:
+                    yield content
+
     def search_places(self, city: str, categories: str = "") -> Dict[str, Any]:
         """
         Direct search for places in a city
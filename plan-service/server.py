@@ -3,7 +3,9 @@ import socket
 import logging
 import json
 import uuid
-from fastapi import FastAPI, HTTPException
+from typing import AsyncIterator
+from fastapi import FastAPI, HTTPException, Request
+from fastapi.responses import StreamingResponse
 from dotenv import load_dotenv
 import py_eureka_client.eureka_client as eureka_client
 from prometheus_fastapi_instrumentator import Instrumentator
@@ -246,14 +248,28 @@ def search_hotels(request: dict):
         raise HTTPException(status_code=500, detail=f"Internal server error: {str(e)}")
 
 # Travel Agent endpoints
+async def _sse_events(pieces: AsyncIterator[str], session_id: str) -> AsyncIterator[str]:
+    """Frame answer pieces as Server-Sent Events: token events, then done (or error)"""
+    try:
+        async for piece in pieces:
+            yield f"event: token\ndata: {json.dumps({'text': piece}, ensure_ascii=False)}\n\n"
+        yield f"event: done\ndata: {json.dumps({'session_id': session_id})}\n\n"
+    except Exception as e:
+        logger.error(f"Agent chat stream error: {e}")
+        yield f"event: error\ndata: {json.dumps({'error': str(e), 'session_id': session_id})}\n\n"
+
 @app.post("/agent/chat")
-def chat_with_agent(request: dict):
+def chat_with_agent(request: dict, http_request: Request):
     """
     Chat with travel agent
     
     Request body should contain:
     - query: str (user question/request)
     - session_id: str (optional, for conversation history)
+
+    Clients sending "Accept: text/event-stream" get the answer as it is written,
+    as "token" events carrying {"text": ...}, followed by a "done" event with
+    the session_id.
     """
     try:
         if not travel_agent:
@@ -264,6 +280,14 @@ def chat_with_agent(request: dict):
         
         if not query:
             raise HTTPException(status_code=400, detail="Query is required")
+
+        if "text/event-stream" in http_request.headers.get("accept", ""):
+            session_id = session_id or str(uuid.uuid4())
+            return StreamingResponse(
+                _sse_events(travel_agent.stream_query(query, session_id), session_id),
+                media_type="text/event-stream",
+                headers={"Cache-Control": "no-cache"}
+            )
         
         result = travel_agent.process_query(query, session_id)
         